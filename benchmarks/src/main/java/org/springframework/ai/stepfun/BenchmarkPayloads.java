@@ -0,0 +1,32 @@
+package org.springframework.ai.stepfun;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Recorded payloads shared by the benchmarks.
+ */
+public final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    /**
+     * Load a payload from the benchmark classpath.
+     * @param path the resource path, e.g. {@code sse/chat-text.txt}
+     * @return the payload bytes
+     */
+    public static byte[] load(String path) {
+        try (InputStream input = new ClassPathResource(path).getInputStream()) {
+            return StreamUtils.copyToByteArray(input);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("Failed to load benchmark payload " + path, ex);
+        }
+    }
+
+}
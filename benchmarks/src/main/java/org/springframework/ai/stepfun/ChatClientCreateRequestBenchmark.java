@@ -0,0 +1,100 @@
+package org.springframework.ai.stepfun;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiChatOptions;
+import org.springframework.ai.stepfun.util.ApiUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link StepFunAiChatClient#createRequest(Prompt, boolean)} against the previous
+ * {@link ModelOptionsUtils} merge based request construction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatClientCreateRequestBenchmark {
+
+    @Param({"1", "20"})
+    private int historySize;
+
+    @Param({"false", "true"})
+    private boolean runtimeOptions;
+
+    private StepFunAiChatOptions defaultOptions;
+
+    private StepFunAiChatClient chatClient;
+
+    private Prompt prompt;
+
+    @Setup
+    public void setup() {
+        this.defaultOptions = StepFunAiChatOptions.builder()
+                .withModel(StepFunAiApi.ChatModel.STEP_1_32K.getValue())
+                .withMaxToken(ApiUtils.DEFAULT_MAX_TOKENS)
+                .withDoSample(Boolean.TRUE)
+                .withTemperature(ApiUtils.DEFAULT_TEMPERATURE)
+                .withTopP(ApiUtils.DEFAULT_TOP_P)
+                .build();
+        this.chatClient = new StepFunAiChatClient(new StepFunAiApi("http://localhost", "benchmark-key"), this.defaultOptions);
+
+        List<Message> messages = new ArrayList<>();
+        messages.add(new SystemMessage("你是一个乐于助人的助手，请用简洁的中文回答问题。"));
+        for (int i = 1; i < this.historySize; i++) {
+            messages.add(i % 2 == 1 ? new UserMessage("第 " + i + " 个问题：请介绍一下 Spring AI 的函数调用能力。")
+                    : new AssistantMessage("第 " + i + " 个回答：Spring AI 会把函数描述注册为工具，由模型决定何时调用。"));
+        }
+        messages.add(new UserMessage("今天上海的天气怎么样？"));
+
+        this.prompt = (this.runtimeOptions
+                ? new Prompt(messages, StepFunAiChatOptions.builder().withTemperature(0.3f).withMaxToken(512).build())
+                : new Prompt(messages));
+    }
+
+    @Benchmark
+    public StepFunAiApi.ChatCompletionRequest createRequest() {
+        return this.chatClient.createRequest(this.prompt, false);
+    }
+
+    @Benchmark
+    public StepFunAiApi.ChatCompletionRequest modelOptionsUtilsMerge() {
+        var chatCompletionMessages = this.prompt.getInstructions()
+                .stream()
+                .map(m -> new StepFunAiApi.ChatCompletionMessage(m.getContent(),
+                        StepFunAiApi.ChatCompletionMessage.Role.valueOf(m.getMessageType().name())))
+                .toList();
+
+        var request = new StepFunAiApi.ChatCompletionRequest(null, chatCompletionMessages, false);
+        request = ModelOptionsUtils.merge(request, this.defaultOptions, StepFunAiApi.ChatCompletionRequest.class);
+        if (this.prompt.getOptions() instanceof ChatOptions runtimeOptions) {
+            var updatedRuntimeOptions = ModelOptionsUtils.copyToTarget(runtimeOptions, ChatOptions.class,
+                    StepFunAiChatOptions.class);
+            request = ModelOptionsUtils.merge(updatedRuntimeOptions, request, StepFunAiApi.ChatCompletionRequest.class);
+        }
+        return request;
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.springframework.ai.stepfun;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building and writing the body of a request with function tools from {@link StepFunAiFunctionToolRegistry}
+ * against rebuilding a {@link StepFunAiApi.FunctionTool} from every callback for each request, as the chat client
+ * did before the registry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FunctionToolRegistryBenchmark {
+
+    @Param({"5", "30"})
+    private int functionCount;
+
+    private ObjectMapper objectMapper;
+
+    private List<StepFunAiApi.ChatCompletionMessage> messages;
+
+    private List<FunctionCallback> functionCallbacks;
+
+    private StepFunAiFunctionToolRegistry registry;
+
+    @Setup
+    public void setup() {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.messages = List.of(
+                new StepFunAiApi.ChatCompletionMessage("你是一个乐于助人的助手，可以调用工具查询实时信息。", StepFunAiApi.ChatCompletionMessage.Role.SYSTEM),
+                new StepFunAiApi.ChatCompletionMessage("明天上海的天气怎么样？适合出门跑步吗？", StepFunAiApi.ChatCompletionMessage.Role.USER));
+
+        this.functionCallbacks = new ArrayList<>();
+        for (int i = 0; i < this.functionCount; i++) {
+            this.functionCallbacks.add(new SchemaFunctionCallback("tool_" + i, "第 " + i + " 个工具：查询城市的天气、出行或商品信息", """
+                    {"type":"object","properties":{"location":{"type":"string","description":"城市名称"},
+                    "days":{"type":"integer","minimum":1,"maximum":7},
+                    "unit":{"type":"string","enum":["celsius","fahrenheit"]},
+                    "query":{"type":"string"},"limit":{"type":"integer"}},"required":["location"]}"""));
+        }
+        this.registry = new StepFunAiFunctionToolRegistry();
+    }
+
+    @Benchmark
+    public byte[] registry() throws IOException {
+        return this.objectMapper.writeValueAsBytes(request(this.registry.getFunctionTools(this.functionCallbacks)));
+    }
+
+    @Benchmark
+    public byte[] rebuildPerRequest() throws IOException {
+        List<StepFunAiApi.FunctionTool> functionTools = this.functionCallbacks.stream().map(functionCallback -> {
+            var function = new StepFunAiApi.FunctionTool.Function(functionCallback.getDescription(),
+                    functionCallback.getName(), functionCallback.getInputTypeSchema());
+            return new StepFunAiApi.FunctionTool(function);
+        }).toList();
+        return this.objectMapper.writeValueAsBytes(request(functionTools));
+    }
+
+    private StepFunAiApi.ChatCompletionRequest request(List<StepFunAiApi.FunctionTool> functionTools) {
+        return new StepFunAiApi.ChatCompletionRequest(null, StepFunAiApi.ChatModel.STEP_1_32K.getValue(), this.messages,
+                Boolean.TRUE, Boolean.FALSE, 0.95f, 0.7f, 1024, null, functionTools, null, null);
+    }
+
+    private record SchemaFunctionCallback(String name, String description, String inputTypeSchema)
+            implements FunctionCallback {
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public String getDescription() {
+            return this.description;
+        }
+
+        @Override
+        public String getInputTypeSchema() {
+            return this.inputTypeSchema;
+        }
+
+        @Override
+        public String call(String functionArguments) {
+            return "{}";
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.springframework.ai.stepfun.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.stepfun.BenchmarkPayloads;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON serialization of {@link StepFunAiApi.ChatCompletionRequest} and the deserialization of
+ * {@link StepFunAiApi.ChatCompletion} with the object mapper the HTTP message converters use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatCompletionJsonBenchmark {
+
+    @Param({"2", "20"})
+    private int historySize;
+
+    private ObjectMapper objectMapper;
+
+    private StepFunAiApi.ChatCompletionRequest request;
+
+    private byte[] completion;
+
+    @Setup
+    public void setup() {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<StepFunAiApi.ChatCompletionMessage> messages = new ArrayList<>();
+        for (int i = 0; i < this.historySize; i++) {
+            messages.add(new StepFunAiApi.ChatCompletionMessage("第 " + i + " 轮对话：请根据上下文回答用户关于天气、出行和穿衣的问题。",
+                    i % 2 == 0 ? StepFunAiApi.ChatCompletionMessage.Role.USER : StepFunAiApi.ChatCompletionMessage.Role.ASSISTANT));
+        }
+        var weather = new StepFunAiApi.FunctionTool(new StepFunAiApi.FunctionTool.Function("查询城市天气预报", "get_weather_forecast", """
+                {"type":"object","properties":{"location":{"type":"string"},"days":{"type":"integer"},
+                "unit":{"type":"string","enum":["celsius","fahrenheit"]}},"required":["location"]}"""));
+        var search = new StepFunAiApi.FunctionTool(new StepFunAiApi.FunctionTool.Function("搜索商品目录", "search_catalog", """
+                {"type":"object","properties":{"query":{"type":"string"},"limit":{"type":"integer"}},"required":["query"]}"""));
+        this.request = new StepFunAiApi.ChatCompletionRequest(null, StepFunAiApi.ChatModel.STEP_1_32K.getValue(), messages,
+                Boolean.TRUE, Boolean.FALSE, 0.95f, 0.7f, 1024, null, List.of(weather, search), null, null);
+
+        this.completion = BenchmarkPayloads.load("json/chat-completion.json");
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return this.objectMapper.writeValueAsBytes(this.request);
+    }
+
+    @Benchmark
+    public StepFunAiApi.ChatCompletion deserializeCompletion() throws IOException {
+        return this.objectMapper.readValue(this.completion, StepFunAiApi.ChatCompletion.class);
+    }
+
+}
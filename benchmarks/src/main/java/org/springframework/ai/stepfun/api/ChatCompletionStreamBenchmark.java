@@ -0,0 +1,95 @@
+package org.springframework.ai.stepfun.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.stepfun.BenchmarkPayloads;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link StepFunAiApi#chatCompletionStream} end to end against a local {@link StubSseServer}: SSE decoding,
+ * tool call window merging and the connection handling of the client.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ChatCompletionStreamBenchmark {
+
+    @Param({"sse/chat-text.txt", "sse/chat-tool-call.txt"})
+    private String payload;
+
+    /**
+     * Size of the writes the stub server flushes, roughly one event per write for the recorded payloads.
+     */
+    @Param({"256"})
+    private int writeSize;
+
+    /**
+     * {@code shared} uses a {@link StepFunAiHttpConnector} pool, {@code default} the client defaults.
+     */
+    @Param({"shared", "default"})
+    private String connector;
+
+    private StubSseServer server;
+
+    private StepFunAiHttpConnector httpConnector;
+
+    private StepFunAiApi api;
+
+    private StepFunAiApi.ChatCompletionRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.server = new StubSseServer(BenchmarkPayloads.load(this.payload), this.writeSize);
+        if ("shared".equals(this.connector)) {
+            this.httpConnector = StepFunAiHttpConnector.builder().withName("benchmark").build();
+            this.api = new StepFunAiApi(this.server.getBaseUrl(), "benchmark-key", this.httpConnector,
+                    new DefaultResponseErrorHandler());
+        }
+        else {
+            this.api = new StepFunAiApi(this.server.getBaseUrl(), "benchmark-key",
+                    RestClient.builder().requestFactory(new SimpleClientHttpRequestFactory()), WebClient.builder(),
+                    new DefaultResponseErrorHandler());
+        }
+        var message = new StepFunAiApi.ChatCompletionMessage("今天上海的天气怎么样？",
+                StepFunAiApi.ChatCompletionMessage.Role.USER);
+        this.request = new StepFunAiApi.ChatCompletionRequest(null, StepFunAiApi.ChatModel.STEP_1_32K.getValue(),
+                List.of(message), 0.7f, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (this.httpConnector != null) {
+            this.httpConnector.dispose();
+        }
+        this.server.close();
+    }
+
+    @Benchmark
+    public Long stream() {
+        return this.api.chatCompletionStream(this.request).count().block();
+    }
+
+}
@@ -0,0 +1,84 @@
+package org.springframework.ai.stepfun.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures merging the chunks of one streamed tool call, with {@link StepFunAiStreamFunctionCallingHelper#merge}
+ * as the stream used to do it and with the {@link StepFunAiStreamChunkAccumulator} it uses now.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamFunctionCallingMergeBenchmark {
+
+    /**
+     * Number of argument fragments the tool call is streamed in.
+     */
+    @Param({"16", "256", "2048"})
+    private int fragments;
+
+    private final StepFunAiStreamFunctionCallingHelper helper = new StepFunAiStreamFunctionCallingHelper();
+
+    private List<StepFunAiApi.ChatCompletionChunk> chunks;
+
+    @Setup
+    public void setup() {
+        this.chunks = new ArrayList<>(this.fragments + 2);
+        this.chunks.add(chunk(new StepFunAiApi.ChatCompletionMessage.ToolCall("call_0d8e2f", "function",
+                new StepFunAiApi.ChatCompletionMessage.ChatCompletionFunction("search_catalog", "")), null));
+        this.chunks.add(chunk(toolCallFragment("{\"items\":["), null));
+        for (int i = 0; i < this.fragments; i++) {
+            this.chunks.add(chunk(toolCallFragment("{\"sku\":" + i + "},"), null));
+        }
+        this.chunks.add(chunk(toolCallFragment("{}]}"), StepFunAiApi.ChatCompletionFinishReason.TOOL_CALLS));
+    }
+
+    @Benchmark
+    public StepFunAiApi.ChatCompletionChunk helperMerge() {
+        StepFunAiApi.ChatCompletionChunk merged = new StepFunAiApi.ChatCompletionChunk(null, null, null, null, null, null);
+        for (StepFunAiApi.ChatCompletionChunk chunk : this.chunks) {
+            merged = this.helper.merge(merged, chunk);
+        }
+        return merged;
+    }
+
+    @Benchmark
+    public StepFunAiApi.ChatCompletionChunk accumulator() {
+        StepFunAiStreamChunkAccumulator accumulator = new StepFunAiStreamChunkAccumulator();
+        for (StepFunAiApi.ChatCompletionChunk chunk : this.chunks) {
+            accumulator.append(chunk);
+        }
+        return accumulator.toChunk();
+    }
+
+    private static StepFunAiApi.ChatCompletionMessage.ToolCall toolCallFragment(String arguments) {
+        return new StepFunAiApi.ChatCompletionMessage.ToolCall(null, null,
+                new StepFunAiApi.ChatCompletionMessage.ChatCompletionFunction(null, arguments));
+    }
+
+    private static StepFunAiApi.ChatCompletionChunk chunk(StepFunAiApi.ChatCompletionMessage.ToolCall toolCall,
+                                                          StepFunAiApi.ChatCompletionFinishReason finishReason) {
+        var delta = new StepFunAiApi.ChatCompletionMessage(null, null, null, List.of(toolCall));
+        var choice = new StepFunAiApi.ChatCompletionChunk.ChunkChoice(0, delta, finishReason);
+        return new StepFunAiApi.ChatCompletionChunk("7f1c2a9e3b5d4e0f", "chat.completion.chunk", 1717000000L,
+                "step-1-8k", null, List.of(choice));
+    }
+
+}
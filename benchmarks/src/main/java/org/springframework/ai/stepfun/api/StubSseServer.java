@@ -0,0 +1,70 @@
+package org.springframework.ai.stepfun.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal local HTTP server replaying a recorded {@code text/event-stream} body for {@code /v1/chat/completions},
+ * so the streaming path can be measured without network noise or API costs.
+ */
+public class StubSseServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final byte[] body;
+
+    private final int writeSize;
+
+    /**
+     * @param body the recorded event stream body
+     * @param writeSize the size of the flushed writes the body is sent in, mimicking the server's framing
+     */
+    public StubSseServer(byte[] body, int writeSize) throws IOException {
+        this.body = body;
+        this.writeSize = writeSize;
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/v1/chat/completions", this::handle);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+    }
+
+    /**
+     * @return the base URL to pass to {@link StepFunAiApi}.
+     */
+    public String getBaseUrl() {
+        return "http://" + this.server.getAddress().getHostString() + ":" + this.server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream request = exchange.getRequestBody()) {
+            request.transferTo(OutputStream.nullOutputStream());
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream;charset=UTF-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream response = exchange.getResponseBody()) {
+            for (int offset = 0; offset < this.body.length; offset += this.writeSize) {
+                response.write(this.body, offset, Math.min(this.writeSize, this.body.length - offset));
+                response.flush();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+}
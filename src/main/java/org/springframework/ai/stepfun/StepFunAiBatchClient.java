@@ -0,0 +1,478 @@
+package org.springframework.ai.stepfun;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.Generation;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiChatOptions;
+import org.springframework.ai.stepfun.api.StepFunAiRequestDigest;
+import org.springframework.ai.stepfun.api.StepFunAiRequestPriority;
+import org.springframework.ai.stepfun.metadata.StepFunAiChatResponseMetadata;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs large numbers of independent prompts through a {@link StepFunAiChatClient}, for offline workloads.
+ * <p>
+ * Up to {@code concurrency} prompts are in flight, each through {@link StepFunAiChatClient#callAsync(Prompt)} so
+ * retries wait without holding a thread, and new prompts are started at most {@code requestsPerMinute} times a minute.
+ * Results are emitted in the order of the prompts or as they complete. A failed prompt is reported by its result and
+ * does not stop the batch. Prompts without a priority are sent with {@link StepFunAiRequestPriority#BATCH}, so that
+ * a request scheduler serves interactive traffic first.
+ * <p>
+ * With a checkpoint file, every completed prompt is appended to the file as a JSON line. A batch resumed with the same
+ * prompts and file replays the recorded responses instead of calling StepFun again, so a crashed job only redoes the
+ * prompts that were in flight.
+ */
+public class StepFunAiBatchClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepFunAiBatchClient.class);
+
+    private final StepFunAiChatClient chatClient;
+
+    private final int concurrency;
+
+    private final boolean ordered;
+
+    private final long intervalNanos;
+
+    private final ObjectMapper objectMapper;
+
+    private StepFunAiBatchClient(Builder builder) {
+        this.chatClient = builder.chatClient;
+        this.concurrency = builder.concurrency;
+        this.ordered = builder.ordered;
+        this.intervalNanos = (builder.requestsPerMinute > 0 ? TimeUnit.MINUTES.toNanos(1) / builder.requestsPerMinute : 0);
+        this.objectMapper = builder.objectMapper;
+    }
+
+    /**
+     * @param prompts the prompts
+     * @return the batch, started when its results are subscribed to
+     */
+    public Batch submit(List<Prompt> prompts) {
+        return submit(Flux.fromIterable(prompts), null);
+    }
+
+    /**
+     * @param prompts the prompts, requested as capacity frees up
+     * @return the batch, started when its results are subscribed to
+     */
+    public Batch submit(Flux<Prompt> prompts) {
+        return submit(prompts, null);
+    }
+
+    /**
+     * @param prompts the prompts, requested as capacity frees up
+     * @param checkpoint the checkpoint file, created if missing, or {@code null} for none
+     * @return the batch, started when its results are subscribed to
+     */
+    public Batch submit(Flux<Prompt> prompts, Path checkpoint) {
+        Assert.notNull(prompts, "Prompts must not be null");
+        return new Batch(prompts, checkpoint);
+    }
+
+    private Mono<Result> call(long index, Prompt prompt, Checkpoint checkpoint, String digest, AtomicLong nextStart) {
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            long delay = 0;
+            if (this.intervalNanos > 0) {
+                long start = nextStart.getAndAccumulate(now, (next, time) -> Math.max(next, time) + this.intervalNanos);
+                delay = Math.max(0, start - now);
+            }
+            Mono<ChatResponse> response = Mono.fromFuture(() -> this.chatClient.callAsync(withPriority(prompt)));
+            return (delay > 0 ? Mono.delay(Duration.ofNanos(delay)).then(response) : response);
+        })
+                .map(response -> {
+                    if (checkpoint != null) {
+                        checkpoint.record(index, digest, response);
+                    }
+                    return new Result(index, response, null, false);
+                })
+                .onErrorResume(ex -> Mono.just(new Result(index, null, ex, false)));
+    }
+
+    private static Prompt withPriority(Prompt prompt) {
+        if (prompt.getOptions() == null) {
+            return new Prompt(prompt.getInstructions(),
+                    StepFunAiChatOptions.builder().withPriority(StepFunAiRequestPriority.BATCH).build());
+        }
+        if (prompt.getOptions() instanceof StepFunAiChatOptions options && options.getPriority() == null) {
+            // A copy, the options of the prompt may be shared with other callers.
+            StepFunAiChatOptions batchOptions = StepFunAiChatOptions.fromOptions(options);
+            batchOptions.setPriority(StepFunAiRequestPriority.BATCH);
+            return new Prompt(prompt.getInstructions(), batchOptions);
+        }
+        return prompt;
+    }
+
+    /**
+     * @return the digest of the request sent for the prompt: its messages, model, sampling options and tools, so that
+     * a prompt whose request changed is not answered from the checkpoint
+     */
+    private String digest(Prompt prompt) {
+        return StepFunAiRequestDigest.of(this.chatClient.createRequest(prompt, false));
+    }
+
+    public static Builder builder(StepFunAiChatClient chatClient) {
+        return new Builder(chatClient);
+    }
+
+    /**
+     * The outcome of one prompt.
+     *
+     * @param index the position of the prompt in the batch
+     * @param response the response, {@code null} if the prompt failed
+     * @param error the failure, {@code null} if the prompt succeeded
+     * @param restored whether the response was replayed from the checkpoint file
+     */
+    public record Result(long index, ChatResponse response, Throwable error, boolean restored) {
+
+        public boolean isSuccess() {
+            return this.error == null;
+        }
+
+    }
+
+    /**
+     * A submitted batch: its results and running totals. Every subscription to {@link #results()} runs the batch and
+     * adds to the totals.
+     */
+    public final class Batch {
+
+        private final Flux<Prompt> prompts;
+
+        private final Path checkpointFile;
+
+        private final LongAdder succeeded = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        private final LongAdder restored = new LongAdder();
+
+        private final LongAdder promptTokens = new LongAdder();
+
+        private final LongAdder generationTokens = new LongAdder();
+
+        private final LongAdder totalTokens = new LongAdder();
+
+        private Batch(Flux<Prompt> prompts, Path checkpointFile) {
+            this.prompts = prompts;
+            this.checkpointFile = checkpointFile;
+        }
+
+        /**
+         * @return the results, in the order of the prompts or of completion as configured
+         */
+        public Flux<Result> results() {
+            return Flux.using(
+                    () -> (this.checkpointFile != null ? Checkpoint.open(this.checkpointFile, objectMapper) : null),
+                    checkpoint -> {
+                        AtomicLong nextStart = new AtomicLong(System.nanoTime());
+                        Flux<Tuple2<Long, Prompt>> indexed = this.prompts.index();
+                        Flux<Result> results = (ordered
+                                ? indexed.flatMapSequential(item -> process(item.getT1(), item.getT2(), checkpoint, nextStart), concurrency)
+                                : indexed.flatMap(item -> process(item.getT1(), item.getT2(), checkpoint, nextStart), concurrency));
+                        return results.doOnNext(this::account);
+                    },
+                    checkpoint -> {
+                        if (checkpoint != null) {
+                            checkpoint.close();
+                        }
+                    });
+        }
+
+        private Mono<Result> process(long index, Prompt prompt, Checkpoint checkpoint, AtomicLong nextStart) {
+            if (checkpoint == null) {
+                return call(index, prompt, null, null, nextStart);
+            }
+            String digest;
+            try {
+                digest = digest(prompt);
+            }
+            catch (RuntimeException ex) {
+                return Mono.just(new Result(index, null, ex, false));
+            }
+            ChatResponse response = checkpoint.restore(index, digest);
+            if (response != null) {
+                return Mono.just(new Result(index, response, null, true));
+            }
+            return call(index, prompt, checkpoint, digest, nextStart);
+        }
+
+        private void account(Result result) {
+            if (!result.isSuccess()) {
+                this.failed.increment();
+                return;
+            }
+            (result.restored() ? this.restored : this.succeeded).increment();
+            ChatResponseMetadata metadata = result.response().getMetadata();
+            Usage usage = (metadata != null ? metadata.getUsage() : null);
+            if (usage != null) {
+                this.promptTokens.add(usage.getPromptTokens() != null ? usage.getPromptTokens() : 0);
+                this.generationTokens.add(usage.getGenerationTokens() != null ? usage.getGenerationTokens() : 0);
+                this.totalTokens.add(usage.getTotalTokens() != null ? usage.getTotalTokens() : 0);
+            }
+        }
+
+        /**
+         * @return the number of prompts answered by StepFun.
+         */
+        public long getSucceededCount() {
+            return this.succeeded.sum();
+        }
+
+        /**
+         * @return the number of prompts that failed.
+         */
+        public long getFailedCount() {
+            return this.failed.sum();
+        }
+
+        /**
+         * @return the number of prompts replayed from the checkpoint file.
+         */
+        public long getRestoredCount() {
+            return this.restored.sum();
+        }
+
+        /**
+         * @return the usage of the answered and replayed prompts.
+         */
+        public BatchUsage getUsage() {
+            return new BatchUsage(this.promptTokens.sum(), this.generationTokens.sum(), this.totalTokens.sum());
+        }
+
+    }
+
+    /**
+     * The tokens used by a batch.
+     */
+    public record BatchUsage(long promptTokens, long generationTokens, long totalTokens) implements Usage {
+
+        @Override
+        public Long getPromptTokens() {
+            return this.promptTokens;
+        }
+
+        @Override
+        public Long getGenerationTokens() {
+            return this.generationTokens;
+        }
+
+        @Override
+        public Long getTotalTokens() {
+            return this.totalTokens;
+        }
+
+    }
+
+    /**
+     * The checkpoint file of a batch: one JSON line per completed prompt. A line cut short by a crash is ignored.
+     */
+    private static final class Checkpoint {
+
+        private final Map<Long, Entry> entries;
+
+        private final BufferedWriter writer;
+
+        private final ObjectMapper objectMapper;
+
+        private Checkpoint(Map<Long, Entry> entries, BufferedWriter writer, ObjectMapper objectMapper) {
+            this.entries = entries;
+            this.writer = writer;
+            this.objectMapper = objectMapper;
+        }
+
+        static Checkpoint open(Path file, ObjectMapper objectMapper) {
+            Map<Long, Entry> entries = new HashMap<>();
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                if (Files.exists(file)) {
+                    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        try {
+                            Entry entry = objectMapper.readValue(line, Entry.class);
+                            entries.put(entry.index(), entry);
+                        }
+                        catch (JsonProcessingException ex) {
+                            logger.warn("Ignoring unreadable line of batch checkpoint {}", file);
+                        }
+                    }
+                }
+                BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+                return new Checkpoint(entries, writer, objectMapper);
+            }
+            catch (IOException ex) {
+                throw new UncheckedIOException("Failed to open batch checkpoint " + file, ex);
+            }
+        }
+
+        /**
+         * @return the recorded response of the prompt, or {@code null} if it was not completed with this prompt
+         */
+        ChatResponse restore(long index, String digest) {
+            Entry entry = this.entries.remove(index);
+            if (entry == null || !entry.digest().equals(digest)) {
+                return null;
+            }
+            List<Generation> generations = new ArrayList<>();
+            for (GenerationEntry generation : entry.generations()) {
+                Generation restored = new Generation(generation.content(), generation.properties());
+                if (generation.finishReason() != null) {
+                    restored = restored.withGenerationMetadata(ChatGenerationMetadata.from(generation.finishReason(), null));
+                }
+                generations.add(restored);
+            }
+            StepFunAiApi.ChatCompletion completion = new StepFunAiApi.ChatCompletion(entry.id(), null, null, null,
+                    List.of(), null, entry.usage());
+            return new ChatResponse(generations, StepFunAiChatResponseMetadata.from(completion));
+        }
+
+        synchronized void record(long index, String digest, ChatResponse response) {
+            List<GenerationEntry> generations = new ArrayList<>();
+            for (Generation generation : response.getResults()) {
+                String finishReason = (generation.getMetadata() != null ? generation.getMetadata().getFinishReason() : null);
+                generations.add(new GenerationEntry(generation.getOutput().getContent(),
+                        generation.getOutput().getProperties(), finishReason));
+            }
+            String id = null;
+            StepFunAiApi.Usage usage = null;
+            if (response.getMetadata() instanceof StepFunAiChatResponseMetadata metadata) {
+                id = metadata.getId();
+                Usage responseUsage = metadata.getUsage();
+                usage = new StepFunAiApi.Usage(toInteger(responseUsage.getPromptTokens()),
+                        toInteger(responseUsage.getTotalTokens()), toInteger(responseUsage.getGenerationTokens()));
+            }
+            try {
+                this.writer.write(this.objectMapper.writeValueAsString(new Entry(index, digest, id, generations, usage)));
+                this.writer.newLine();
+                // A completed prompt must survive a crash of the job, not only of the file handle.
+                this.writer.flush();
+            }
+            catch (IOException ex) {
+                throw new UncheckedIOException("Failed to write batch checkpoint", ex);
+            }
+        }
+
+        synchronized void close() {
+            try {
+                this.writer.close();
+            }
+            catch (IOException ex) {
+                logger.warn("Failed to close batch checkpoint", ex);
+            }
+        }
+
+        private static Integer toInteger(Long tokens) {
+            return (tokens != null ? Math.toIntExact(tokens) : null);
+        }
+
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record Entry(@JsonProperty("index") long index,
+                         @JsonProperty("digest") String digest,
+                         @JsonProperty("id") String id,
+                         @JsonProperty("generations") List<GenerationEntry> generations,
+                         @JsonProperty("usage") StepFunAiApi.Usage usage) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record GenerationEntry(@JsonProperty("content") String content,
+                                   @JsonProperty("properties") Map<String, Object> properties,
+                                   @JsonProperty("finish_reason") String finishReason) {
+    }
+
+    public static class Builder {
+
+        private final StepFunAiChatClient chatClient;
+
+        private int concurrency = 16;
+
+        private boolean ordered = true;
+
+        private int requestsPerMinute = 0;
+
+        private ObjectMapper objectMapper = ModelOptionsUtils.OBJECT_MAPPER;
+
+        private Builder(StepFunAiChatClient chatClient) {
+            this.chatClient = chatClient;
+        }
+
+        /**
+         * @param concurrency the maximum number of prompts in flight
+         */
+        public Builder withConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * @param ordered whether results are emitted in the order of the prompts rather than as they complete
+         */
+        public Builder withOrdered(boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        /**
+         * @param requestsPerMinute the maximum number of prompts started per minute, 0 for no limit
+         */
+        public Builder withRequestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+            return this;
+        }
+
+        /**
+         * @param objectMapper the mapper used to read and write the checkpoint file
+         */
+        public Builder withObjectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        public StepFunAiBatchClient build() {
+            Assert.notNull(this.chatClient, "Chat client must not be null");
+            Assert.isTrue(this.concurrency >= 1, "Concurrency must be at least 1");
+            Assert.isTrue(this.requestsPerMinute >= 0, "Requests per minute must not be negative");
+            Assert.notNull(this.objectMapper, "ObjectMapper must not be null");
+            return new StepFunAiBatchClient(this);
+        }
+
+    }
+
+}
@@ -1,29 +1,40 @@
 package org.springframework.ai.stepfun;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.ChatClient;
 import org.springframework.ai.chat.ChatResponse;
 import org.springframework.ai.chat.Generation;
 import org.springframework.ai.chat.StreamingChatClient;
+import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
 import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.model.ModelOptionsUtils;
 import org.springframework.ai.model.function.AbstractFunctionCallSupport;
 import org.springframework.ai.model.function.FunctionCallbackContext;
 import org.springframework.ai.retry.RetryUtils;
 import org.springframework.ai.stepfun.api.StepFunAiApi;
 import org.springframework.ai.stepfun.api.StepFunAiChatOptions;
+import org.springframework.ai.stepfun.cache.StepFunAiResponseCache;
+import org.springframework.ai.stepfun.metadata.StepFunAiChatResponseMetadata;
+import org.springframework.ai.stepfun.observation.StepFunAiChatCompletionObservationContext;
+import org.springframework.ai.stepfun.observation.StepFunAiChatObservationContext;
+import org.springframework.ai.stepfun.observation.StepFunAiObservationDocumentation;
 import org.springframework.ai.stepfun.util.ApiUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 
 public class StepFunAiChatClient
         extends AbstractFunctionCallSupport<StepFunAiApi.ChatCompletionMessage, StepFunAiApi.ChatCompletionRequest, ResponseEntity<StepFunAiApi.ChatCompletion>>
@@ -39,6 +50,47 @@ public class StepFunAiChatClient
      */
     private final StepFunAiApi stepFunAiApi;
     private final RetryTemplate retryTemplate;
+    /**
+     * Request template compiled from the default options.
+     */
+    private final StepFunAiChatRequestTemplate requestTemplate;
+    /**
+     * Functions enabled by the default options.
+     */
+    private final Set<String> defaultFunctions;
+    /**
+     * Function tools compiled from the function callbacks.
+     */
+    private final StepFunAiFunctionToolRegistry functionToolRegistry = new StepFunAiFunctionToolRegistry();
+    /**
+     * Optional exact-match cache of blocking responses.
+     */
+    private StepFunAiResponseCache responseCache;
+    /**
+     * Executes the tool calls requested by the model.
+     */
+    private StepFunAiToolExecutor toolExecutor = new StepFunAiToolExecutor();
+    /**
+     * Scheduler running the tool calls of streamed responses, off the I/O threads.
+     */
+    private Scheduler toolScheduler = Schedulers.boundedElastic();
+    /**
+     * Registry of the chat, chat completion and tool call observations.
+     */
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+    /**
+     * Scheduler of asynchronous calls, backed by the task executor.
+     */
+    private Scheduler asyncScheduler;
+    /**
+     * Scheduler of asynchronous calls when no task executor is set: bounded, so bursts queue instead of starting
+     * a thread per call.
+     */
+    private final Scheduler defaultAsyncScheduler = Schedulers.boundedElastic();
+    /**
+     * Retries streams and asynchronous calls without blocking.
+     */
+    private StepFunAiReactiveRetry reactiveRetry = new StepFunAiReactiveRetry();
 
     public StepFunAiChatClient(StepFunAiApi stepFunAiApi) {
         this(stepFunAiApi, StepFunAiChatOptions.builder()
@@ -63,32 +115,97 @@ public class StepFunAiChatClient
         this.stepFunAiApi = stepFunAiApi;
         this.defaultOptions = options;
         this.retryTemplate = retryTemplate;
+        this.requestTemplate = new StepFunAiChatRequestTemplate(options);
+        this.defaultFunctions = this.handleFunctionCallbackConfigurations(options, !IS_RUNTIME_CALL);
     }
 
 
     @Override
     public ChatResponse call(Prompt prompt) {
+        return call(createRequest(prompt, false));
+    }
 
-        var request = createRequest(prompt, false);
+    ChatResponse call(StepFunAiApi.ChatCompletionRequest request) {
 
-        return retryTemplate.execute(ctx -> {
+        String cacheKey = (this.responseCache != null ? this.responseCache.keyOf(request) : null);
+        if (cacheKey != null) {
+            var cachedCompletion = this.responseCache.get(cacheKey);
+            if (cachedCompletion != null) {
+                return toChatResponse(cachedCompletion);
+            }
+        }
 
-            ResponseEntity<StepFunAiApi.ChatCompletion> completionEntity = this.callWithFunctionSupport(request);
+        StepFunAiChatObservationContext observationContext = new StepFunAiChatObservationContext(request);
+        Observation observation = StepFunAiObservationDocumentation.CHAT.observation(this.observationRegistry,
+                () -> observationContext);
 
-            var chatCompletion = completionEntity.getBody();
-            if (chatCompletion == null) {
-                log.warn("No chat completion returned for prompt: {}", prompt);
-                return new ChatResponse(List.of());
+        return observation.observe(() -> retryTemplate.execute(ctx -> {
+            observationContext.setRetryCount(ctx.getRetryCount());
+            return callOnce(request, cacheKey, observationContext);
+        }));
+    }
+
+    private ChatResponse callOnce(StepFunAiApi.ChatCompletionRequest request, String cacheKey,
+                                  StepFunAiChatObservationContext observationContext) {
+
+        ResponseEntity<StepFunAiApi.ChatCompletion> completionEntity = this.callWithFunctionSupport(request);
+
+        var chatCompletion = completionEntity.getBody();
+        if (chatCompletion == null) {
+            log.warn("No chat completion returned for request: {}", request);
+            return new ChatResponse(List.of());
+        }
+        observationContext.recordCompletion(chatCompletion);
+
+        if (cacheKey != null) {
+            this.responseCache.put(cacheKey, chatCompletion);
+        }
+
+        return toChatResponse(chatCompletion);
+    }
+
+    /**
+     * Execute a blocking call asynchronously on the task executor, or on the bounded elastic scheduler when none is
+     * set.
+     * <p>
+     * Unlike {@link #call(Prompt)}, failed attempts are retried by the reactive retry: no thread is held while
+     * waiting for the next attempt.
+     * @param prompt the prompt
+     * @return the future chat response
+     */
+    public CompletableFuture<ChatResponse> callAsync(Prompt prompt) {
+        Scheduler scheduler = (this.asyncScheduler != null ? this.asyncScheduler : this.defaultAsyncScheduler);
+        return Mono.defer(() -> {
+            var request = createRequest(prompt, false);
+
+            String cacheKey = (this.responseCache != null ? this.responseCache.keyOf(request) : null);
+            if (cacheKey != null) {
+                var cachedCompletion = this.responseCache.get(cacheKey);
+                if (cachedCompletion != null) {
+                    return Mono.just(toChatResponse(cachedCompletion));
+                }
             }
 
-            List<Generation> generations = chatCompletion.choices()
-                    .stream()
-                    .map(choice -> new Generation(choice.message().content(), toMap(chatCompletion.id(), choice))
-                            .withGenerationMetadata(ChatGenerationMetadata.from(choice.finishReason().name(), null)))
-                    .toList();
+            StepFunAiChatObservationContext observationContext = new StepFunAiChatObservationContext(request);
+            Observation observation = StepFunAiObservationDocumentation.CHAT.start(this.observationRegistry,
+                    () -> observationContext);
+            Mono<ChatResponse> attempt = Mono
+                    .fromCallable(() -> observation.scoped(() -> callOnce(request, cacheKey, observationContext)))
+                    .subscribeOn(scheduler);
+            return this.reactiveRetry.retryCall(attempt, observationContext::setRetryCount)
+                    .doOnError(observation::error)
+                    .doFinally(signal -> observation.stop());
+        }).toFuture();
+    }
 
-            return new ChatResponse(generations);
-        });
+    private ChatResponse toChatResponse(StepFunAiApi.ChatCompletion chatCompletion) {
+        List<Generation> generations = chatCompletion.choices()
+                .stream()
+                .map(choice -> new Generation(choice.message().content(), toMap(chatCompletion.id(), choice))
+                        .withGenerationMetadata(ChatGenerationMetadata.from(choice.finishReason().name(), null)))
+                .toList();
+
+        return new ChatResponse(generations, StepFunAiChatResponseMetadata.from(chatCompletion));
     }
 
     private Map<String, Object> toMap(String id, StepFunAiApi.ChatCompletion.Choice choice) {
@@ -107,40 +224,102 @@ public class StepFunAiChatClient
 
     @Override
     public Flux<ChatResponse> stream(Prompt prompt) {
-        var request = createRequest(prompt, true);
-
-        return retryTemplate.execute(ctx -> {
+        return stream(createRequest(prompt, true));
+    }
 
-            var completionChunks = this.stepFunAiApi.chatCompletionStream(request);
+    Flux<ChatResponse> stream(StepFunAiApi.ChatCompletionRequest request) {
+        return Flux.defer(() -> {
+            StepFunAiStreamResponseAssembler assembler = new StepFunAiStreamResponseAssembler();
+            return observeStream(request).map(assembler::assemble);
+        });
+    }
 
-            // For chunked responses, only the first chunk contains the choice role.
-            // The rest of the chunks with same ID share the same role.
-            ConcurrentHashMap<String, String> roleMap = new ConcurrentHashMap<>();
+    /**
+     * Stream only the text of the reply, for callers forwarding it as it comes: no {@link ChatResponse}, generation
+     * or metadata is created per chunk, and chunks without text are skipped.
+     * @param prompt the prompt
+     * @return the text deltas of the first choice
+     */
+    public Flux<String> streamContent(Prompt prompt) {
+        var request = createRequest(prompt, true);
+        return observeStream(request).mapNotNull(chatCompletion -> {
+            if (CollectionUtils.isEmpty(chatCompletion.choices())) {
+                return null;
+            }
+            String content = chatCompletion.choices().get(0).message().content();
+            return (content != null && !content.isEmpty() ? content : null);
+        });
+    }
 
-            return completionChunks.map(this::toChatCompletion).map(chatCompletion -> {
+    /**
+     * Stream a chat turn within its own observation, started on subscription.
+     */
+    private Flux<StepFunAiApi.ChatCompletion> observeStream(StepFunAiApi.ChatCompletionRequest request) {
+        return Flux.defer(() -> {
+            StepFunAiChatObservationContext observationContext = new StepFunAiChatObservationContext(request);
+            Observation observation = StepFunAiObservationDocumentation.CHAT.start(this.observationRegistry,
+                    () -> observationContext);
+            Flux<StepFunAiApi.ChatCompletion> completions = streamWithFunctionSupport(request, observation, observationContext);
+            if (!observation.isNoop()) {
+                completions = completions.doOnNext(observationContext::recordCompletion);
+            }
+            return completions.doOnError(observation::error).doFinally(signal -> observation.stop());
+        });
+    }
 
-                chatCompletion = handleFunctionCallOrReturn(request, ResponseEntity.of(Optional.of(chatCompletion)))
-                        .getBody();
+    /**
+     * Stream a request, answering tool calls without blocking: the tools run on the tool scheduler and the follow-up
+     * request is streamed in place of the tool call chunk. Each upstream call is retried until its first chunk.
+     */
+    private Flux<StepFunAiApi.ChatCompletion> streamWithFunctionSupport(StepFunAiApi.ChatCompletionRequest request,
+                                                                        Observation parentObservation,
+                                                                        StepFunAiChatObservationContext parentContext) {
+        Flux<StepFunAiApi.ChatCompletion> upstream = Flux.defer(() -> {
+            StepFunAiChatCompletionObservationContext observationContext = new StepFunAiChatCompletionObservationContext(request);
+            Observation observation = StepFunAiObservationDocumentation.CHAT_COMPLETION
+                    .observation(this.observationRegistry, () -> observationContext)
+                    .parentObservation(parentObservation)
+                    .start();
+            Flux<StepFunAiApi.ChatCompletion> completions = this.stepFunAiApi
+                    .chatCompletionStream(withTraceContext(observationContext))
+                    .map(this::toChatCompletion);
+            if (!observation.isNoop()) {
+                completions = completions.doOnNext(observationContext::recordCompletion);
+            }
+            return completions.doOnError(observation::error).doFinally(signal -> observation.stop());
+        });
+        return this.reactiveRetry.retryStream(upstream, parentContext::setRetryCount)
+                .concatMap(chatCompletion -> {
+                    if (!isToolCall(chatCompletion)) {
+                        return Flux.just(chatCompletion);
+                    }
+                    StepFunAiApi.ChatCompletionMessage responseMessage = chatCompletion.choices().get(0).message();
+                    // The tool calls are observed as children of the chat turn.
+                    return Mono.fromCallable(() -> parentObservation.scoped(() -> createStreamingToolResponseRequest(request, responseMessage)))
+                            .subscribeOn(this.toolScheduler)
+                            .flatMapMany(toolResponseRequest -> streamWithFunctionSupport(toolResponseRequest, parentObservation, parentContext));
+                });
+    }
 
-                @SuppressWarnings("null")
-                String id = chatCompletion.id();
+    /**
+     * Carry the trace context propagated into the observation context as the request ID, unless one is set.
+     */
+    private static StepFunAiApi.ChatCompletionRequest withTraceContext(StepFunAiChatCompletionObservationContext observationContext) {
+        StepFunAiApi.ChatCompletionRequest request = observationContext.getRequest();
+        String traceContext = observationContext.getTraceContext();
+        if (request.requestId() == null && traceContext != null) {
+            request = StepFunAiChatRequestTemplate.withRequestId(request, traceContext);
+        }
+        observationContext.recordRequestId(request.requestId());
+        return request;
+    }
 
-                List<Generation> generations = chatCompletion.choices().stream().map(choice -> {
-                    if (choice.message().role() != null) {
-                        roleMap.putIfAbsent(id, choice.message().role().name());
-                    }
-                    String finish = (choice.finishReason() != null ? choice.finishReason().name() : "");
-                    var generation = new Generation(choice.message().content(),
-                            Map.of("id", id, "role", roleMap.get(id), "finishReason", finish));
-                    if (choice.finishReason() != null) {
-                        generation = generation
-                                .withGenerationMetadata(ChatGenerationMetadata.from(choice.finishReason().name(), null));
-                    }
-                    return generation;
-                }).toList();
-                return new ChatResponse(generations);
-            });
-        });
+    private StepFunAiApi.ChatCompletionRequest createStreamingToolResponseRequest(StepFunAiApi.ChatCompletionRequest previousRequest,
+                                                                                 StepFunAiApi.ChatCompletionMessage responseMessage) {
+        List<StepFunAiApi.ChatCompletionMessage> conversationHistory = new ArrayList<>(previousRequest.messages());
+        conversationHistory.add(responseMessage);
+        conversationHistory.addAll(this.toolExecutor.execute(responseMessage.toolCalls(), this.functionCallbackRegister));
+        return StepFunAiChatRequestTemplate.withMessages(previousRequest, conversationHistory, true);
     }
 
     private StepFunAiApi.ChatCompletion toChatCompletion(StepFunAiApi.ChatCompletionChunk chunk) {
@@ -149,7 +328,7 @@ public class StepFunAiChatClient
                 .map(cc -> new StepFunAiApi.ChatCompletion.Choice(cc.index(), cc.delta(), cc.finishReason()))
                 .toList();
 
-        return new StepFunAiApi.ChatCompletion(chunk.id(), "chat.completion", chunk.created(), chunk.model(), choices, chunk.requestId(),null);
+        return new StepFunAiApi.ChatCompletion(chunk.id(), "chat.completion", chunk.created(), chunk.model(), choices, chunk.requestId(), chunk.usage());
     }
 
     /**
@@ -157,60 +336,107 @@ public class StepFunAiChatClient
      */
     StepFunAiApi.ChatCompletionRequest createRequest(Prompt prompt, boolean stream) {
 
-        Set<String> functionsForThisRequest = new HashSet<>();
-
         var chatCompletionMessages = prompt.getInstructions()
                 .stream()
-                .map(m -> new StepFunAiApi.ChatCompletionMessage(m.getContent(),
-                        StepFunAiApi.ChatCompletionMessage.Role.valueOf(m.getMessageType().name())))
+                .map(StepFunAiChatClient::toChatCompletionMessage)
                 .toList();
 
-        var request = new StepFunAiApi.ChatCompletionRequest(null, chatCompletionMessages, stream);
-
-        if (this.defaultOptions != null) {
-            Set<String> defaultEnabledFunctions = this.handleFunctionCallbackConfigurations(this.defaultOptions,
-                    !IS_RUNTIME_CALL);
-
-            functionsForThisRequest.addAll(defaultEnabledFunctions);
-
-            request = ModelOptionsUtils.merge(request, this.defaultOptions, StepFunAiApi.ChatCompletionRequest.class);
-        }
+        return createRequest(chatCompletionMessages, runtimeOptions(prompt), stream);
+    }
 
-        if (prompt.getOptions() != null) {
-            if (prompt.getOptions() instanceof ChatOptions runtimeOptions) {
-                var updatedRuntimeOptions = ModelOptionsUtils.copyToTarget(runtimeOptions, ChatOptions.class,
-                        StepFunAiChatOptions.class);
+    /**
+     * Create a request from messages already converted, e.g. the history of a {@link StepFunAiChatSession}.
+     */
+    StepFunAiApi.ChatCompletionRequest createRequest(List<StepFunAiApi.ChatCompletionMessage> chatCompletionMessages,
+                                                     ChatOptions runtimeOptions, boolean stream) {
 
-                Set<String> promptEnabledFunctions = this.handleFunctionCallbackConfigurations(updatedRuntimeOptions,
-                        IS_RUNTIME_CALL);
-                functionsForThisRequest.addAll(promptEnabledFunctions);
+        Set<String> functionsForThisRequest = new HashSet<>(this.defaultFunctions);
 
-                request = ModelOptionsUtils.merge(updatedRuntimeOptions, request,
-                        StepFunAiApi.ChatCompletionRequest.class);
-            }
-            else {
-                throw new IllegalArgumentException("Prompt options are not of type ChatOptions: "
-                        + prompt.getOptions().getClass().getSimpleName());
-            }
+        if (runtimeOptions instanceof StepFunAiChatOptions stepFunAiChatOptions) {
+            Set<String> promptEnabledFunctions = this.handleFunctionCallbackConfigurations(stepFunAiChatOptions,
+                    IS_RUNTIME_CALL);
+            functionsForThisRequest.addAll(promptEnabledFunctions);
         }
 
         // Add the enabled functions definitions to the request's tools parameter.
+        List<StepFunAiApi.FunctionTool> functionTools = null;
         if (!CollectionUtils.isEmpty(functionsForThisRequest)) {
+            functionTools = this.getFunctionTools(functionsForThisRequest);
+        }
 
-            request = ModelOptionsUtils.merge(
-                    StepFunAiChatOptions.builder().withTools(this.getFunctionTools(functionsForThisRequest)).build(),
-                    request, StepFunAiApi.ChatCompletionRequest.class);
+        return this.requestTemplate.create(chatCompletionMessages, stream, runtimeOptions, functionTools);
+    }
+
+    static ChatOptions runtimeOptions(Prompt prompt) {
+        if (prompt.getOptions() == null) {
+            return null;
+        }
+        if (prompt.getOptions() instanceof ChatOptions chatOptions) {
+            return chatOptions;
         }
+        throw new IllegalArgumentException("Prompt options are not of type ChatOptions: "
+                + prompt.getOptions().getClass().getSimpleName());
+    }
 
-        return request;
+    static StepFunAiApi.ChatCompletionMessage toChatCompletionMessage(Message message) {
+        return new StepFunAiApi.ChatCompletionMessage(message.getContent(),
+                StepFunAiApi.ChatCompletionMessage.Role.valueOf(message.getMessageType().name()));
     }
 
     private List<StepFunAiApi.FunctionTool> getFunctionTools(Set<String> functionNames) {
-        return this.resolveFunctionCallbacks(functionNames).stream().map(functionCallback -> {
-            var function = new StepFunAiApi.FunctionTool.Function(functionCallback.getDescription(),
-                    functionCallback.getName(), functionCallback.getInputTypeSchema());
-            return new StepFunAiApi.FunctionTool(function);
-        }).toList();
+        return this.functionToolRegistry.getFunctionTools(this.resolveFunctionCallbacks(functionNames));
+    }
+
+    /**
+     * Answer identical blocking requests from the given cache.
+     * @param responseCache the response cache, or {@code null} to disable caching
+     */
+    public void setResponseCache(StepFunAiResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Run asynchronous calls on the given executor, e.g. one backed by virtual threads.
+     * @param taskExecutor the executor, or {@code null} to use the bounded elastic scheduler
+     */
+    public void setTaskExecutor(AsyncTaskExecutor taskExecutor) {
+        this.asyncScheduler = (taskExecutor != null ? Schedulers.fromExecutor(taskExecutor) : null);
+    }
+
+    /**
+     * Set how streams and asynchronous calls are retried.
+     * @param reactiveRetry the reactive retry
+     */
+    public void setReactiveRetry(StepFunAiReactiveRetry reactiveRetry) {
+        Assert.notNull(reactiveRetry, "Reactive retry must not be null");
+        this.reactiveRetry = reactiveRetry;
+    }
+
+    /**
+     * Set how the tool calls requested by the model are executed.
+     * @param toolExecutor the tool executor
+     */
+    public void setToolExecutor(StepFunAiToolExecutor toolExecutor) {
+        Assert.notNull(toolExecutor, "Tool executor must not be null");
+        this.toolExecutor = toolExecutor;
+    }
+
+    /**
+     * Observe chat turns, upstream calls and tool calls with the given registry.
+     * @param observationRegistry the observation registry
+     */
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        Assert.notNull(observationRegistry, "Observation registry must not be null");
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * Set the scheduler running the tool calls of streamed responses.
+     * @param toolScheduler a scheduler allowing blocking work
+     */
+    public void setToolScheduler(Scheduler toolScheduler) {
+        Assert.notNull(toolScheduler, "Tool scheduler must not be null");
+        this.toolScheduler = toolScheduler;
     }
 
     //
@@ -222,29 +448,12 @@ public class StepFunAiChatClient
                                                                              List<StepFunAiApi.ChatCompletionMessage> conversationHistory) {
 
         // Every tool-call item requires a separate function call and a response (TOOL)
-        // message.
-        for (StepFunAiApi.ChatCompletionMessage.ToolCall toolCall : responseMessage.toolCalls()) {
-
-            var functionName = toolCall.function().name();
-            String functionArguments = toolCall.function().arguments();
-
-            if (!this.functionCallbackRegister.containsKey(functionName)) {
-                throw new IllegalStateException("No function callback found for function name: " + functionName);
-            }
-
-            String functionResponse = this.functionCallbackRegister.get(functionName).call(functionArguments);
-
-            // Add the function response to the conversation.
-            conversationHistory
-                    .add(new StepFunAiApi.ChatCompletionMessage(functionResponse, StepFunAiApi.ChatCompletionMessage.Role.TOOL, functionName, null));
-        }
+        // message, added to the conversation in the order of the tool calls.
+        conversationHistory.addAll(this.toolExecutor.execute(responseMessage.toolCalls(), this.functionCallbackRegister));
 
         // Recursively call chatCompletionWithTools until the model doesn't call a
         // functions anymore.
-        StepFunAiApi.ChatCompletionRequest newRequest = new StepFunAiApi.ChatCompletionRequest(previousRequest.requestId(), conversationHistory, false);
-        newRequest = ModelOptionsUtils.merge(newRequest, previousRequest, StepFunAiApi.ChatCompletionRequest.class);
-
-        return newRequest;
+        return StepFunAiChatRequestTemplate.withMessages(previousRequest, conversationHistory, false);
     }
 
     @Override
@@ -260,13 +469,24 @@ public class StepFunAiChatClient
 
     @Override
     protected ResponseEntity<StepFunAiApi.ChatCompletion> doChatCompletion(StepFunAiApi.ChatCompletionRequest request) {
-        return this.stepFunAiApi.chatCompletionEntity(request);
+        StepFunAiChatCompletionObservationContext observationContext = new StepFunAiChatCompletionObservationContext(request);
+        return StepFunAiObservationDocumentation.CHAT_COMPLETION
+                .observation(this.observationRegistry, () -> observationContext)
+                .observe(() -> {
+                    ResponseEntity<StepFunAiApi.ChatCompletion> completionEntity = this.stepFunAiApi
+                            .chatCompletionEntity(withTraceContext(observationContext));
+                    observationContext.setResponse(completionEntity.getBody());
+                    observationContext.recordCompletion(completionEntity.getBody());
+                    return completionEntity;
+                });
     }
 
     @Override
     protected boolean isToolFunctionCall(ResponseEntity<StepFunAiApi.ChatCompletion> chatCompletion) {
+        return isToolCall(chatCompletion.getBody());
+    }
 
-        var body = chatCompletion.getBody();
+    private static boolean isToolCall(StepFunAiApi.ChatCompletion body) {
         if (body == null) {
             return false;
         }
@@ -0,0 +1,134 @@
+package org.springframework.ai.stepfun;
+
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiChatOptions;
+import org.springframework.ai.stepfun.api.StepFunAiRequestPriority;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Request template compiled once from the default {@link StepFunAiChatOptions} of a {@link StepFunAiChatClient}.
+ * <p>
+ * Requests are created by copying the compiled defaults and overlaying the runtime options field by field, which
+ * gives the same result as merging the options through {@code ModelOptionsUtils} without the reflective
+ * bean-to-map-to-JSON round trips.
+ */
+class StepFunAiChatRequestTemplate {
+
+    private final String model;
+
+    private final Boolean doSample;
+
+    private final Float temperature;
+
+    private final Float topP;
+
+    private final Integer maxTokens;
+
+    private final List<String> stop;
+
+    private final List<StepFunAiApi.FunctionTool> tools;
+
+    private final String toolChoice;
+
+    private final String user;
+
+    private final StepFunAiRequestPriority priority;
+
+    StepFunAiChatRequestTemplate(StepFunAiChatOptions defaultOptions) {
+        StepFunAiChatOptions options = (defaultOptions != null ? defaultOptions : StepFunAiChatOptions.create());
+        this.model = options.getModel();
+        this.doSample = options.getDoSample();
+        this.temperature = options.getTemperature();
+        this.topP = options.getTopP();
+        this.maxTokens = options.getMaxTokens();
+        this.stop = options.getStop();
+        this.tools = options.getTools();
+        this.toolChoice = toolChoice(options.getToolChoice());
+        this.user = options.getUser();
+        this.priority = options.getPriority();
+    }
+
+    /**
+     * Create a request from the compiled defaults.
+     * @param messages the conversation messages
+     * @param stream whether the response is streamed
+     * @param runtimeOptions the options of the prompt, may be null
+     * @param functionTools the enabled function tools, replacing any default tools when not empty
+     * @return the chat completion request
+     */
+    StepFunAiApi.ChatCompletionRequest create(List<StepFunAiApi.ChatCompletionMessage> messages, boolean stream,
+                                              ChatOptions runtimeOptions, List<StepFunAiApi.FunctionTool> functionTools) {
+
+        String model = this.model;
+        Boolean doSample = this.doSample;
+        Float temperature = this.temperature;
+        Float topP = this.topP;
+        Integer maxTokens = this.maxTokens;
+        List<String> stop = this.stop;
+        List<StepFunAiApi.FunctionTool> tools = this.tools;
+        String toolChoice = this.toolChoice;
+        String user = this.user;
+        StepFunAiRequestPriority priority = this.priority;
+
+        if (runtimeOptions instanceof StepFunAiChatOptions options) {
+            model = (options.getModel() != null ? options.getModel() : model);
+            doSample = (options.getDoSample() != null ? options.getDoSample() : doSample);
+            temperature = (options.getTemperature() != null ? options.getTemperature() : temperature);
+            topP = (options.getTopP() != null ? options.getTopP() : topP);
+            maxTokens = (options.getMaxTokens() != null ? options.getMaxTokens() : maxTokens);
+            stop = (options.getStop() != null ? options.getStop() : stop);
+            tools = (options.getTools() != null ? options.getTools() : tools);
+            toolChoice = (options.getToolChoice() != null ? toolChoice(options.getToolChoice()) : toolChoice);
+            user = (options.getUser() != null ? options.getUser() : user);
+            priority = (options.getPriority() != null ? options.getPriority() : priority);
+        }
+        else if (runtimeOptions != null) {
+            // Portable options only carry the sampling parameters StepFun understands.
+            temperature = (runtimeOptions.getTemperature() != null ? runtimeOptions.getTemperature() : temperature);
+            topP = (runtimeOptions.getTopP() != null ? runtimeOptions.getTopP() : topP);
+        }
+
+        if (!CollectionUtils.isEmpty(functionTools)) {
+            tools = functionTools;
+        }
+
+        return new StepFunAiApi.ChatCompletionRequest(null, model, messages, doSample, stream, temperature, topP,
+                maxTokens, stop, tools, toolChoice, user, priority);
+    }
+
+    /**
+     * Copy a request with a new conversation, as needed to answer tool calls.
+     * @param request the request to copy
+     * @param messages the conversation messages
+     * @param stream whether the response is streamed
+     * @return the new chat completion request
+     */
+    static StepFunAiApi.ChatCompletionRequest withMessages(StepFunAiApi.ChatCompletionRequest request,
+                                                           List<StepFunAiApi.ChatCompletionMessage> messages, boolean stream) {
+        return new StepFunAiApi.ChatCompletionRequest(request.requestId(), request.model(), messages, request.doSample(),
+                stream, request.temperature(), request.topP(), request.maxTokens(), request.stop(), request.tools(),
+                request.toolChoice(), request.user(), request.priority());
+    }
+
+    /**
+     * Copy a request with a new request ID, e.g. to carry the trace context.
+     * @param request the request to copy
+     * @param requestId the request ID
+     * @return the new chat completion request
+     */
+    static StepFunAiApi.ChatCompletionRequest withRequestId(StepFunAiApi.ChatCompletionRequest request, String requestId) {
+        return new StepFunAiApi.ChatCompletionRequest(requestId, request.model(), request.messages(), request.doSample(),
+                request.stream(), request.temperature(), request.topP(), request.maxTokens(), request.stop(), request.tools(),
+                request.toolChoice(), request.user(), request.priority());
+    }
+
+    private static String toolChoice(StepFunAiApi.ChatCompletionRequest.ToolChoice toolChoice) {
+        // Matches the @JsonProperty value of the enum constant.
+        return (toolChoice != null ? toolChoice.name().toLowerCase(Locale.ROOT) : null);
+    }
+
+}
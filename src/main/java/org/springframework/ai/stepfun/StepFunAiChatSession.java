@@ -0,0 +1,271 @@
+package org.springframework.ai.stepfun;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.Generation;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A conversation with a {@link StepFunAiChatClient} that remembers its history, so each turn only sends the new
+ * messages of the caller: the reply of the model is appended to the history once the turn completes.
+ * <p>
+ * Each message is converted and serialized to JSON once, when it joins the history. The request body is then written
+ * by copying the cached fragments, so a turn costs time and allocation in proportion to the new messages rather than
+ * to the whole conversation, which matters for long sessions with large context models.
+ * <p>
+ * A session runs one turn at a time; a failed turn leaves the history unchanged.
+ */
+public class StepFunAiChatSession {
+
+    private final StepFunAiChatClient chatClient;
+
+    private final ChatOptions options;
+
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    private volatile History history = History.EMPTY;
+
+    /**
+     * @param chatClient the chat client
+     */
+    public StepFunAiChatSession(StepFunAiChatClient chatClient) {
+        this(chatClient, null);
+    }
+
+    /**
+     * @param chatClient the chat client
+     * @param options the options of the turns whose prompt has none, may be {@code null}
+     */
+    public StepFunAiChatSession(StepFunAiChatClient chatClient, ChatOptions options) {
+        Assert.notNull(chatClient, "Chat client must not be null");
+        this.chatClient = chatClient;
+        this.options = options;
+    }
+
+    /**
+     * Take a turn with the given new messages.
+     * @param messages the new messages
+     * @return the chat response
+     */
+    public ChatResponse call(Message... messages) {
+        return call(new Prompt(List.of(messages)));
+    }
+
+    /**
+     * Take a turn with the instructions of the prompt as new messages.
+     * @param prompt the new messages and, optionally, the options of this turn
+     * @return the chat response
+     */
+    public ChatResponse call(Prompt prompt) {
+        begin();
+        try {
+            History turn = this.history.append(convert(prompt));
+            ChatResponse response = this.chatClient.call(
+                    this.chatClient.createRequest(turn.messages(), options(prompt), false));
+            this.history = turn.append(reply(response));
+            return response;
+        }
+        finally {
+            this.busy.set(false);
+        }
+    }
+
+    /**
+     * Take a streamed turn with the instructions of the prompt as new messages. The reply is added to the history when
+     * the stream completes.
+     * @param prompt the new messages and, optionally, the options of this turn
+     * @return the chat responses
+     */
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            begin();
+            History turn;
+            Flux<ChatResponse> responses;
+            try {
+                turn = this.history.append(convert(prompt));
+                responses = this.chatClient.stream(this.chatClient.createRequest(turn.messages(), options(prompt), true));
+            }
+            catch (RuntimeException ex) {
+                this.busy.set(false);
+                throw ex;
+            }
+            StringBuilder content = new StringBuilder();
+            return responses
+                    .doOnNext(response -> {
+                        Generation generation = response.getResult();
+                        if (generation != null && generation.getOutput().getContent() != null) {
+                            content.append(generation.getOutput().getContent());
+                        }
+                    })
+                    .doOnComplete(() -> this.history = turn.append(List.of(assistant(content.toString()))))
+                    // Released before the completion reaches the subscriber, which may take the next turn at once.
+                    .doOnTerminate(() -> this.busy.set(false))
+                    .doOnCancel(() -> this.busy.set(false));
+        });
+    }
+
+    /**
+     * @return the messages of the conversation so far
+     */
+    public List<StepFunAiApi.ChatCompletionMessage> getMessages() {
+        return this.history.messages();
+    }
+
+    /**
+     * Forget the conversation.
+     */
+    public void clear() {
+        this.history = History.EMPTY;
+    }
+
+    private void begin() {
+        if (!this.busy.compareAndSet(false, true)) {
+            throw new IllegalStateException("A turn of this session is already in progress");
+        }
+    }
+
+    private ChatOptions options(Prompt prompt) {
+        ChatOptions runtimeOptions = StepFunAiChatClient.runtimeOptions(prompt);
+        return (runtimeOptions != null ? runtimeOptions : this.options);
+    }
+
+    private static List<StepFunAiApi.ChatCompletionMessage> convert(Prompt prompt) {
+        return prompt.getInstructions().stream().map(StepFunAiChatClient::toChatCompletionMessage).toList();
+    }
+
+    private static List<StepFunAiApi.ChatCompletionMessage> reply(ChatResponse response) {
+        Generation generation = response.getResult();
+        if (generation == null || generation.getOutput().getContent() == null) {
+            return List.of();
+        }
+        return List.of(assistant(generation.getOutput().getContent()));
+    }
+
+    private static StepFunAiApi.ChatCompletionMessage assistant(String content) {
+        return new StepFunAiApi.ChatCompletionMessage(content, StepFunAiApi.ChatCompletionMessage.Role.ASSISTANT);
+    }
+
+    /**
+     * An immutable prefix of an append-only array of serialized messages. Appending to the latest history fills the
+     * free slots of the shared array in place; appending to an older history, or to a full array, copies the array.
+     */
+    private static final class History {
+
+        static final History EMPTY = new History(new Fragment[0], 0);
+
+        private final Fragment[] fragments;
+
+        private final int size;
+
+        private History(Fragment[] fragments, int size) {
+            this.fragments = fragments;
+            this.size = size;
+        }
+
+        History append(List<StepFunAiApi.ChatCompletionMessage> messages) {
+            if (messages.isEmpty()) {
+                return this;
+            }
+            Fragment[] added = new Fragment[messages.size()];
+            for (int i = 0; i < added.length; i++) {
+                added[i] = Fragment.of(messages.get(i));
+            }
+            Fragment[] target = this.fragments;
+            int newSize = this.size + added.length;
+            synchronized (target) {
+                if (newSize > target.length || target[this.size] != null) {
+                    target = Arrays.copyOf(this.fragments, Math.max(newSize, this.size * 2));
+                    Arrays.fill(target, this.size, target.length, null);
+                }
+                System.arraycopy(added, 0, target, this.size, added.length);
+            }
+            return new History(target, newSize);
+        }
+
+        List<StepFunAiApi.ChatCompletionMessage> messages() {
+            return new SerializedMessages(this.fragments, this.size);
+        }
+
+    }
+
+    private record Fragment(StepFunAiApi.ChatCompletionMessage message, SerializedString json) {
+
+        static Fragment of(StepFunAiApi.ChatCompletionMessage message) {
+            try {
+                return new Fragment(message, new SerializedString(ModelOptionsUtils.OBJECT_MAPPER.writeValueAsString(message)));
+            }
+            catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Failed to serialize chat completion message", ex);
+            }
+        }
+
+    }
+
+    /**
+     * The messages of a request, serialized as the concatenation of their cached JSON fragments.
+     */
+    @JsonSerialize(using = SerializedMessagesSerializer.class)
+    static final class SerializedMessages extends AbstractList<StepFunAiApi.ChatCompletionMessage> implements RandomAccess {
+
+        private final Fragment[] fragments;
+
+        private final int size;
+
+        SerializedMessages(Fragment[] fragments, int size) {
+            this.fragments = fragments;
+            this.size = size;
+        }
+
+        @Override
+        public StepFunAiApi.ChatCompletionMessage get(int index) {
+            return this.fragments[checkIndex(index)].message();
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        private int checkIndex(int index) {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+            }
+            return index;
+        }
+
+    }
+
+    static final class SerializedMessagesSerializer extends JsonSerializer<SerializedMessages> {
+
+        @Override
+        public void serialize(SerializedMessages messages, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartArray(messages, messages.size);
+            for (int i = 0; i < messages.size; i++) {
+                // The UTF-8 bytes of a serialized string are encoded once and copied as they are.
+                generator.writeRawValue(messages.fragments[i].json());
+            }
+            generator.writeEndArray();
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.springframework.ai.stepfun;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.util.ExpiringLruCache;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Function tools of a {@link StepFunAiChatClient}, compiled once per {@link FunctionCallback} and per set of enabled
+ * functions.
+ * <p>
+ * The JSON schema of a callback is parsed once into its {@link StepFunAiApi.FunctionTool}, and the {@code tools} array
+ * of each distinct set of callbacks is serialized once; requests then embed the cached bytes as they are. Tools are
+ * ordered by function name, so that the same set of functions always gives the same request.
+ */
+class StepFunAiFunctionToolRegistry {
+
+    private static final int MAX_TOOLS = 1024;
+
+    private static final int MAX_TOOL_SETS = 256;
+
+    /**
+     * Keyed by callback, so a callback registered again under the same name is compiled again.
+     */
+    private final ExpiringLruCache<FunctionCallback, StepFunAiApi.FunctionTool> tools = new ExpiringLruCache<>(MAX_TOOLS, null);
+
+    private final ExpiringLruCache<List<FunctionCallback>, SerializedTools> toolSets = new ExpiringLruCache<>(MAX_TOOL_SETS, null);
+
+    /**
+     * @param functionCallbacks the callbacks of the enabled functions
+     * @return the function tools of the callbacks, serialized as a cached JSON array
+     */
+    List<StepFunAiApi.FunctionTool> getFunctionTools(List<FunctionCallback> functionCallbacks) {
+        List<FunctionCallback> key = new ArrayList<>(functionCallbacks);
+        key.sort(Comparator.comparing(FunctionCallback::getName));
+        SerializedTools serializedTools = this.toolSets.get(key);
+        if (serializedTools == null) {
+            List<StepFunAiApi.FunctionTool> functionTools = key.stream().map(this::getFunctionTool).toList();
+            serializedTools = new SerializedTools(functionTools, serialize(functionTools));
+            this.toolSets.put(List.copyOf(key), serializedTools);
+        }
+        return serializedTools;
+    }
+
+    private StepFunAiApi.FunctionTool getFunctionTool(FunctionCallback functionCallback) {
+        StepFunAiApi.FunctionTool functionTool = this.tools.get(functionCallback);
+        if (functionTool == null) {
+            var function = new StepFunAiApi.FunctionTool.Function(functionCallback.getDescription(),
+                    functionCallback.getName(), functionCallback.getInputTypeSchema());
+            functionTool = new StepFunAiApi.FunctionTool(function);
+            this.tools.put(functionCallback, functionTool);
+        }
+        return functionTool;
+    }
+
+    private static SerializedString serialize(List<StepFunAiApi.FunctionTool> functionTools) {
+        try {
+            return new SerializedString(ModelOptionsUtils.OBJECT_MAPPER.writeValueAsString(functionTools));
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Failed to serialize function tools", ex);
+        }
+    }
+
+    /**
+     * The tools of a request, serialized as their cached JSON array.
+     */
+    @JsonSerialize(using = SerializedToolsSerializer.class)
+    static final class SerializedTools extends AbstractList<StepFunAiApi.FunctionTool> implements RandomAccess {
+
+        private final List<StepFunAiApi.FunctionTool> functionTools;
+
+        private final SerializedString json;
+
+        SerializedTools(List<StepFunAiApi.FunctionTool> functionTools, SerializedString json) {
+            this.functionTools = functionTools;
+            this.json = json;
+        }
+
+        @Override
+        public StepFunAiApi.FunctionTool get(int index) {
+            return this.functionTools.get(index);
+        }
+
+        @Override
+        public int size() {
+            return this.functionTools.size();
+        }
+
+    }
+
+    static final class SerializedToolsSerializer extends JsonSerializer<SerializedTools> {
+
+        @Override
+        public void serialize(SerializedTools tools, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeRawValue(tools.json);
+        }
+
+    }
+
+}
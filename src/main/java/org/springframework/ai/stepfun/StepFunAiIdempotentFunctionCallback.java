@@ -0,0 +1,174 @@
+package org.springframework.ai.stepfun;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.stepfun.util.ExpiringLruCache;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Declares a {@link FunctionCallback} idempotent: its results are remembered by arguments for a time to live, so a
+ * model repeating a call with the same arguments, within or across conversations, is answered without calling the
+ * function again.
+ * <p>
+ * Arguments are compared as canonical JSON, ignoring the order of object fields and insignificant whitespace. Failed
+ * calls and {@code null} results are not cached. Register the wrapper in place of the function callback:
+ * <pre class="code">
+ * StepFunAiChatOptions.builder()
+ *     .withFunctionCallbacks(List.of(StepFunAiIdempotentFunctionCallback.builder(weatherCallback)
+ *         .withTtl(Duration.ofMinutes(5))
+ *         .build()))
+ * </pre>
+ */
+public class StepFunAiIdempotentFunctionCallback implements FunctionCallback {
+
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private final FunctionCallback delegate;
+
+    private final ExpiringLruCache<String, String> results;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private StepFunAiIdempotentFunctionCallback(Builder builder) {
+        this.delegate = builder.delegate;
+        this.results = new ExpiringLruCache<>(builder.maxSize, builder.ttl);
+    }
+
+    @Override
+    public String getName() {
+        return this.delegate.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return this.delegate.getDescription();
+    }
+
+    @Override
+    public String getInputTypeSchema() {
+        return this.delegate.getInputTypeSchema();
+    }
+
+    @Override
+    public String call(String functionArguments) {
+        String key = canonicalize(functionArguments);
+        String result = this.results.get(key);
+        if (result != null) {
+            this.hits.increment();
+            return result;
+        }
+        this.misses.increment();
+        result = this.delegate.call(functionArguments);
+        if (result != null) {
+            this.results.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param functionArguments the arguments of a call
+     * @return the remembered result of a call with the same arguments, or {@code null} if there is none
+     */
+    public String getCachedResult(String functionArguments) {
+        String result = this.results.get(canonicalize(functionArguments));
+        if (result != null) {
+            this.hits.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Forget the remembered results, e.g. after the data behind the function changed.
+     */
+    public void clear() {
+        this.results.clear();
+    }
+
+    /**
+     * @return the number of calls answered from remembered results.
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of calls passed to the function.
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the wrapped function callback
+     */
+    public FunctionCallback getDelegate() {
+        return this.delegate;
+    }
+
+    private static String canonicalize(String functionArguments) {
+        if (functionArguments == null) {
+            return "";
+        }
+        try {
+            return CANONICAL_MAPPER.writeValueAsString(CANONICAL_MAPPER.readValue(functionArguments, Object.class));
+        }
+        catch (JsonProcessingException ex) {
+            // Not JSON, compared as is.
+            return functionArguments.strip();
+        }
+    }
+
+    /**
+     * @param delegate the function callback to declare idempotent
+     */
+    public static Builder builder(FunctionCallback delegate) {
+        return new Builder(delegate);
+    }
+
+    public static class Builder {
+
+        private final FunctionCallback delegate;
+
+        private Duration ttl = Duration.ofMinutes(1);
+
+        private int maxSize = 1000;
+
+        private Builder(FunctionCallback delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * @param ttl how long a result is remembered, {@code null} or zero for as long as it stays in the cache
+         */
+        public Builder withTtl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * @param maxSize the maximum number of remembered results, the least recently used are forgotten first
+         */
+        public Builder withMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        public StepFunAiIdempotentFunctionCallback build() {
+            Assert.notNull(this.delegate, "Function callback must not be null");
+            Assert.isTrue(this.maxSize >= 1, "Max size must be at least 1");
+            return new StepFunAiIdempotentFunctionCallback(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,234 @@
+package org.springframework.ai.stepfun;
+
+import org.springframework.ai.stepfun.api.StepFunAiTransientHttpException;
+import org.springframework.ai.stepfun.util.ApiUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Retries failed chat completions without blocking a thread while waiting: the backoff is a timer on a Reactor
+ * scheduler.
+ * <p>
+ * Transient failures (429 and 5xx responses, I/O errors and {@code TransientAiException}) are retried with an
+ * exponential backoff randomized by a jitter factor, or after the delay given by a {@code Retry-After} header. A
+ * stream is only retried while none of its elements has been emitted, so a subscriber never sees an element twice.
+ */
+public class StepFunAiReactiveRetry {
+
+    private final int maxAttempts;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final double jitter;
+
+    private final Duration maxRetryAfter;
+
+    private final Scheduler scheduler;
+
+    /**
+     * Create a retry with the default settings.
+     */
+    public StepFunAiReactiveRetry() {
+        this(builder());
+    }
+
+    private StepFunAiReactiveRetry(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.jitter = builder.jitter;
+        this.maxRetryAfter = builder.maxRetryAfter;
+        this.scheduler = builder.scheduler;
+    }
+
+    /**
+     * Retry a stream until its first element has been emitted.
+     * @param source the stream, subscribed again on every attempt
+     * @param retryListener notified with the number of the retry before it is attempted
+     * @return the retrying stream
+     */
+    public <T> Flux<T> retryStream(Flux<T> source, IntConsumer retryListener) {
+        if (this.maxAttempts <= 1) {
+            return source;
+        }
+        return Flux.defer(() -> {
+            AtomicBoolean emitted = new AtomicBoolean();
+            return source
+                    .doOnNext(element -> {
+                        if (!emitted.get()) {
+                            emitted.set(true);
+                        }
+                    })
+                    .retryWhen(retry(error -> !emitted.get() && isRetryable(error), retryListener));
+        });
+    }
+
+    /**
+     * Retry a single call.
+     * @param source the call, subscribed again on every attempt
+     * @param retryListener notified with the number of the retry before it is attempted
+     * @return the retrying call
+     */
+    public <T> Mono<T> retryCall(Mono<T> source, IntConsumer retryListener) {
+        if (this.maxAttempts <= 1) {
+            return source;
+        }
+        return source.retryWhen(retry(this::isRetryable, retryListener));
+    }
+
+    private Retry retry(Predicate<Throwable> filter, IntConsumer retryListener) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            long retry = signal.totalRetries() + 1;
+            if (retry >= this.maxAttempts || !filter.test(failure)) {
+                return Mono.error(failure);
+            }
+            Duration delay = retryAfter(failure);
+            if (delay == null) {
+                delay = backoff(retry);
+            }
+            else if (delay.compareTo(this.maxRetryAfter) > 0) {
+                // Waiting that long would outlast any caller, fail now instead.
+                return Mono.error(failure);
+            }
+            retryListener.accept((int) retry);
+            return Mono.delay(delay, this.scheduler);
+        }));
+    }
+
+    /**
+     * @param error the failure of an attempt
+     * @return whether the failure is transient
+     */
+    protected boolean isRetryable(Throwable error) {
+        return ApiUtils.isTransientFailure(error);
+    }
+
+    /**
+     * @param error the failure of an attempt
+     * @return the delay requested by the server, or {@code null} if none
+     */
+    protected Duration retryAfter(Throwable error) {
+        if (error instanceof StepFunAiTransientHttpException ex) {
+            return ex.getRetryAfter();
+        }
+        HttpHeaders headers = null;
+        if (error instanceof WebClientResponseException ex) {
+            headers = ex.getHeaders();
+        }
+        else if (error instanceof RestClientResponseException ex) {
+            headers = ex.getResponseHeaders();
+        }
+        return (headers != null ? ApiUtils.parseRetryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER)) : null);
+    }
+
+    private Duration backoff(long retry) {
+        long initial = this.initialBackoff.toMillis();
+        long max = this.maxBackoff.toMillis();
+        long delay = (retry > 30 ? max : Math.min(max, initial << (retry - 1)));
+        if (this.jitter > 0) {
+            long spread = (long) (delay * this.jitter);
+            delay += ThreadLocalRandom.current().nextLong(-spread, spread + 1);
+        }
+        return Duration.ofMillis(Math.max(0, Math.min(max, delay)));
+    }
+
+    public int getMaxAttempts() {
+        return this.maxAttempts;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int maxAttempts = 3;
+
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        private Duration maxBackoff = Duration.ofSeconds(20);
+
+        private double jitter = 0.5;
+
+        private Duration maxRetryAfter = Duration.ofMinutes(1);
+
+        private Scheduler scheduler = Schedulers.parallel();
+
+        /**
+         * @param maxAttempts the maximum number of attempts, including the first one, 1 to disable retries
+         */
+        public Builder withMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param initialBackoff the backoff before the first retry, doubled for every further retry
+         */
+        public Builder withInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * @param maxBackoff the maximum backoff
+         */
+        public Builder withMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * @param jitter the randomization of the backoff, as a fraction of it between 0 and 1
+         */
+        public Builder withJitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * @param maxRetryAfter the longest {@code Retry-After} honoured, a longer one fails the request
+         */
+        public Builder withMaxRetryAfter(Duration maxRetryAfter) {
+            this.maxRetryAfter = maxRetryAfter;
+            return this;
+        }
+
+        /**
+         * @param scheduler the scheduler of the backoff timers
+         */
+        public Builder withScheduler(Scheduler scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        public StepFunAiReactiveRetry build() {
+            Assert.isTrue(this.maxAttempts >= 1, "Max attempts must be at least 1");
+            Assert.notNull(this.initialBackoff, "Initial backoff must not be null");
+            Assert.notNull(this.maxBackoff, "Max backoff must not be null");
+            Assert.isTrue(this.maxBackoff.compareTo(this.initialBackoff) >= 0, "Max backoff must not be less than the initial backoff");
+            Assert.isTrue(this.jitter >= 0 && this.jitter <= 1, "Jitter must be between 0 and 1");
+            Assert.notNull(this.maxRetryAfter, "Max Retry-After must not be null");
+            Assert.notNull(this.scheduler, "Scheduler must not be null");
+            return new StepFunAiReactiveRetry(this);
+        }
+
+    }
+
+}
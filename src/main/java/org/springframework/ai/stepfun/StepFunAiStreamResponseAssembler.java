@@ -0,0 +1,91 @@
+package org.springframework.ai.stepfun;
+
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.Generation;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.metadata.StepFunAiChatResponseMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Assembles the {@link ChatResponse chat responses} of one subscription to a streamed chat turn.
+ * <p>
+ * Only the first chunk of a completion carries the role of its choices, so the assembler remembers the role of the
+ * current completion id, and forgets it when a follow-up completion, e.g. after tool calls, starts. The metadata
+ * repeated on every chunk of a completion, the generation properties and the response metadata without usage, are
+ * created once per completion and shared by its chunks. An assembler is used by one subscription at a time.
+ */
+class StepFunAiStreamResponseAssembler {
+
+    private static final String DEFAULT_ROLE = StepFunAiApi.ChatCompletionMessage.Role.ASSISTANT.name();
+
+    private String id;
+
+    private String role;
+
+    private Map<String, Object> properties;
+
+    private StepFunAiChatResponseMetadata metadata;
+
+    ChatResponse assemble(StepFunAiApi.ChatCompletion chatCompletion) {
+        String id = (chatCompletion.id() != null ? chatCompletion.id() : "");
+        if (!id.equals(this.id)) {
+            this.id = id;
+            this.role = null;
+            this.properties = null;
+            this.metadata = null;
+        }
+
+        List<StepFunAiApi.ChatCompletion.Choice> choices = chatCompletion.choices();
+        List<Generation> generations;
+        if (choices.size() == 1) {
+            generations = List.of(toGeneration(choices.get(0)));
+        }
+        else {
+            generations = new ArrayList<>(choices.size());
+            for (StepFunAiApi.ChatCompletion.Choice choice : choices) {
+                generations.add(toGeneration(choice));
+            }
+        }
+
+        if (chatCompletion.usage() != null) {
+            return new ChatResponse(generations, StepFunAiChatResponseMetadata.from(chatCompletion));
+        }
+        if (this.metadata == null) {
+            this.metadata = StepFunAiChatResponseMetadata.from(chatCompletion);
+        }
+        return new ChatResponse(generations, this.metadata);
+    }
+
+    private Generation toGeneration(StepFunAiApi.ChatCompletion.Choice choice) {
+        if (this.role == null && choice.message().role() != null) {
+            this.role = choice.message().role().name();
+            this.properties = null;
+        }
+        if (choice.finishReason() == null) {
+            return new Generation(choice.message().content(), properties());
+        }
+        String finish = choice.finishReason().name();
+        return new Generation(choice.message().content(), Map.of("id", this.id, "role", role(), "finishReason", finish))
+                .withGenerationMetadata(ChatGenerationMetadata.from(finish, null));
+    }
+
+    /**
+     * @return the properties of the generations of the current completion before it finishes
+     */
+    private Map<String, Object> properties() {
+        if (this.properties == null) {
+            this.properties = Map.of("id", this.id, "role", role(), "finishReason", "");
+        }
+        return this.properties;
+    }
+
+    private String role() {
+        return Objects.requireNonNullElse(this.role, DEFAULT_ROLE);
+    }
+
+}
@@ -0,0 +1,326 @@
+package org.springframework.ai.stepfun;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.observation.StepFunAiObservationDocumentation;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes the tool calls of a model turn and turns their results into {@code TOOL} messages.
+ * <p>
+ * Without an executor, tool calls run one after another on the calling thread. With an executor, each call runs as
+ * a task bounded by a timeout; in parallel mode the calls of one turn run concurrently, capped by a concurrency limit
+ * shared by all turns. The timeout of a call, which may be set per function, starts once the call holds its slot, so
+ * waiting for a free slot does not count against it. The resulting messages always follow the order of the tool calls. Calls of a
+ * {@link StepFunAiIdempotentFunctionCallback} whose result is remembered are answered at once.
+ * <p>
+ * Each call is observed as a child of the observation current on the calling thread.
+ */
+public class StepFunAiToolExecutor {
+
+    private final Executor executor;
+
+    private final boolean parallel;
+
+    private final Semaphore permits;
+
+    private final Duration timeout;
+
+    private final Map<String, Duration> functionTimeouts;
+
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * Create an executor running tool calls sequentially on the calling thread.
+     */
+    public StepFunAiToolExecutor() {
+        this(builder());
+    }
+
+    private StepFunAiToolExecutor(Builder builder) {
+        this.executor = builder.executor;
+        this.parallel = builder.parallel;
+        this.permits = (builder.maxConcurrency > 0 ? new Semaphore(builder.maxConcurrency, true) : null);
+        this.timeout = builder.timeout;
+        this.functionTimeouts = Map.copyOf(builder.functionTimeouts);
+        this.observationRegistry = builder.observationRegistry;
+    }
+
+    /**
+     * Execute the tool calls of a model turn.
+     * @param toolCalls the tool calls requested by the model
+     * @param functionCallbacks the registered function callbacks by name
+     * @return one {@code TOOL} message per tool call, in the order of the tool calls
+     */
+    public List<StepFunAiApi.ChatCompletionMessage> execute(List<StepFunAiApi.ChatCompletionMessage.ToolCall> toolCalls,
+                                                            Map<String, FunctionCallback> functionCallbacks) {
+        List<FunctionCallback> callbacks = new ArrayList<>(toolCalls.size());
+        for (StepFunAiApi.ChatCompletionMessage.ToolCall toolCall : toolCalls) {
+            var functionName = toolCall.function().name();
+            if (!functionCallbacks.containsKey(functionName)) {
+                throw new IllegalStateException("No function callback found for function name: " + functionName);
+            }
+            callbacks.add(functionCallbacks.get(functionName));
+        }
+
+        // Calls of idempotent functions answered from their results are neither run nor observed.
+        String[] responses = new String[toolCalls.size()];
+        for (int i = 0; i < toolCalls.size(); i++) {
+            if (callbacks.get(i) instanceof StepFunAiIdempotentFunctionCallback idempotentCallback) {
+                responses[i] = idempotentCallback.getCachedResult(toolCalls.get(i).function().arguments());
+            }
+        }
+
+        Observation parentObservation = this.observationRegistry.getCurrentObservation();
+        List<StepFunAiApi.ChatCompletionMessage> messages = new ArrayList<>(toolCalls.size());
+        if (this.executor == null) {
+            for (int i = 0; i < toolCalls.size(); i++) {
+                String response = (responses[i] != null ? responses[i] : call(callbacks.get(i), toolCalls.get(i), parentObservation));
+                messages.add(toolMessage(toolCalls.get(i), response));
+            }
+            return messages;
+        }
+
+        if (!this.parallel) {
+            for (int i = 0; i < toolCalls.size(); i++) {
+                String response = responses[i];
+                if (response == null) {
+                    ToolCallTask task = submit(callbacks.get(i), toolCalls.get(i), parentObservation);
+                    response = await(task, toolCalls.get(i), List.of(task));
+                }
+                messages.add(toolMessage(toolCalls.get(i), response));
+            }
+            return messages;
+        }
+
+        List<ToolCallTask> tasks = new ArrayList<>(toolCalls.size());
+        for (int i = 0; i < toolCalls.size(); i++) {
+            tasks.add(responses[i] == null ? submit(callbacks.get(i), toolCalls.get(i), parentObservation) : null);
+        }
+        List<ToolCallTask> submitted = tasks.stream().filter(Objects::nonNull).toList();
+        // Waiting in order keeps the messages in the order of the tool calls; the calls themselves overlap.
+        for (int i = 0; i < toolCalls.size(); i++) {
+            String response = (responses[i] != null ? responses[i] : await(tasks.get(i), toolCalls.get(i), submitted));
+            messages.add(toolMessage(toolCalls.get(i), response));
+        }
+        return messages;
+    }
+
+    private ToolCallTask submit(FunctionCallback callback, StepFunAiApi.ChatCompletionMessage.ToolCall toolCall,
+                                Observation parentObservation) {
+        ToolCallTask task = new ToolCallTask(() -> call(callback, toolCall, parentObservation));
+        this.executor.execute(task);
+        return task;
+    }
+
+    /**
+     * @param functionName the name of the function
+     * @return the timeout of the calls of the function
+     */
+    public Duration getTimeout(String functionName) {
+        return this.functionTimeouts.getOrDefault(functionName, this.timeout);
+    }
+
+    private String call(FunctionCallback callback, StepFunAiApi.ChatCompletionMessage.ToolCall toolCall,
+                        Observation parentObservation) {
+        return StepFunAiObservationDocumentation.TOOL_CALL.observation(this.observationRegistry)
+                .parentObservation(parentObservation)
+                .lowCardinalityKeyValue(StepFunAiObservationDocumentation.LowCardinalityKeyNames.TOOL_NAME.withValue(callback.getName()))
+                .observe(() -> callback.call(toolCall.function().arguments()));
+    }
+
+    private String await(ToolCallTask task, StepFunAiApi.ChatCompletionMessage.ToolCall toolCall,
+                         List<ToolCallTask> tasks) {
+        String functionName = toolCall.function().name();
+        Duration timeout = getTimeout(functionName);
+        try {
+            // The clock of a call starts once it holds its slot.
+            task.started.await();
+            long deadline = task.startNanos + timeout.toNanos();
+            return task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException ex) {
+            cancel(tasks);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling function " + functionName, ex);
+        }
+        catch (TimeoutException ex) {
+            cancel(tasks);
+            throw new IllegalStateException("Function " + functionName + " did not complete within " + timeout, ex);
+        }
+        catch (ExecutionException ex) {
+            cancel(tasks);
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Function " + functionName + " failed", ex.getCause());
+        }
+    }
+
+    private static void cancel(List<ToolCallTask> tasks) {
+        for (ToolCallTask task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+    private static StepFunAiApi.ChatCompletionMessage toolMessage(StepFunAiApi.ChatCompletionMessage.ToolCall toolCall,
+                                                                 String response) {
+        return new StepFunAiApi.ChatCompletionMessage(response, StepFunAiApi.ChatCompletionMessage.Role.TOOL,
+                toolCall.function().name(), null);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * One tool call running on the executor, which records when it started to hold its slot.
+     */
+    private final class ToolCallTask extends FutureTask<String> {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private volatile long startNanos;
+
+        ToolCallTask(Callable<String> call) {
+            super(call);
+        }
+
+        @Override
+        public void run() {
+            if (isDone()) {
+                // Cancelled before it ran, the slot is left to the other calls.
+                return;
+            }
+            if (permits != null) {
+                try {
+                    permits.acquire();
+                }
+                catch (InterruptedException ex) {
+                    // Interrupted while waiting for a slot, e.g. on shutdown.
+                    Thread.currentThread().interrupt();
+                    setException(ex);
+                    return;
+                }
+            }
+            try {
+                this.startNanos = System.nanoTime();
+                this.started.countDown();
+                super.run();
+            }
+            finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        }
+
+        @Override
+        protected void done() {
+            // Also wakes up the waiter of a call that completed or was cancelled without starting.
+            this.started.countDown();
+        }
+
+    }
+
+    public static class Builder {
+
+        private Executor executor;
+
+        private boolean parallel = false;
+
+        private int maxConcurrency = 0;
+
+        private Duration timeout = Duration.ofMinutes(1);
+
+        private final Map<String, Duration> functionTimeouts = new HashMap<>();
+
+        private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+        /**
+         * @param executor the executor of tool calls, {@code null} to run them on the calling thread
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param parallel whether the tool calls of one turn run concurrently
+         */
+        public Builder withParallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrency the maximum number of tool calls running at once, 0 for no limit
+         */
+        public Builder withMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param timeout the maximum time a tool call on the executor may take, from the moment it holds its slot
+         */
+        public Builder withTimeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * @param functionName the name of a function
+         * @param timeout the maximum time a call of this function may take, instead of the default timeout
+         */
+        public Builder withTimeout(String functionName, Duration timeout) {
+            Assert.hasText(functionName, "Function name must not be empty");
+            Assert.notNull(timeout, "Timeout must not be null");
+            this.functionTimeouts.put(functionName, timeout);
+            return this;
+        }
+
+        /**
+         * @param functionTimeouts the maximum time the calls of each function may take, by function name
+         */
+        public Builder withFunctionTimeouts(Map<String, Duration> functionTimeouts) {
+            functionTimeouts.forEach(this::withTimeout);
+            return this;
+        }
+
+        /**
+         * @param observationRegistry the registry observing each tool call
+         */
+        public Builder withObservationRegistry(ObservationRegistry observationRegistry) {
+            this.observationRegistry = observationRegistry;
+            return this;
+        }
+
+        public StepFunAiToolExecutor build() {
+            Assert.isTrue(!this.parallel || this.executor != null, "Parallel tool execution requires an executor");
+            Assert.isTrue(this.maxConcurrency >= 0, "Max concurrency must not be negative");
+            Assert.notNull(this.timeout, "Timeout must not be null");
+            Assert.notNull(this.observationRegistry, "Observation registry must not be null");
+            return new StepFunAiToolExecutor(this);
+        }
+
+    }
+
+}
@@ -1,39 +1,68 @@
 package org.springframework.ai.stepfun.api;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.model.ModelOptionsUtils;
 import org.springframework.ai.retry.RetryUtils;
+import org.springframework.ai.retry.TransientAiException;
 import org.springframework.ai.stepfun.util.ApiUtils;
 import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 
 public class StepFunAiApi {
 
     private static final Logger logger = LoggerFactory.getLogger(StepFunAiApi.class);
-    private static final Predicate<String> SSE_DONE_PREDICATE = "[DONE]"::equals;
     private static final String REQUEST_BODY_NULL_ERROR = "The request body can not be null.";
+    private static final String CHAT_COMPLETIONS_PATH = "/v1/chat/completions";
 
     private final RestClient restClient;
 
     private final WebClient webClient;
 
+    private final ResponseErrorHandler responseErrorHandler;
+
+    private StepFunAiKeyPool keyPool;
+
+    private List<StepFunAiApiInterceptor> interceptors = List.of();
+
+    private StepFunAiApiInterceptor.CallExecution callExecution = this::doChatCompletionEntity;
+
+    private StepFunAiApiInterceptor.StreamExecution streamExecution = this::doChatCompletionStream;
+
+    private StepFunAiApiListener listener;
+
+    private StepFunAiKeyAdmission keyAdmission;
+
     /**
      * Create a new client api with DEFAULT_BASE_URL
      *
@@ -63,15 +92,121 @@ public class StepFunAiApi {
      */
     public StepFunAiApi(String baseUrl, String apiKey, RestClient.Builder restClientBuilder,
                         ResponseErrorHandler responseErrorHandler) {
+        this(baseUrl, apiKey, restClientBuilder, WebClient.builder(), responseErrorHandler);
+    }
+
+    /**
+     * Create a new client api whose blocking and streaming calls share one connection pool.
+     *
+     * @param baseUrl              api base URL.
+     * @param apiKey               stepfun api Key.
+     * @param httpConnector        shared HTTP connector.
+     * @param responseErrorHandler Response error handler.
+     */
+    public StepFunAiApi(String baseUrl, String apiKey, StepFunAiHttpConnector httpConnector,
+                        ResponseErrorHandler responseErrorHandler) {
+        this(baseUrl, apiKey, httpConnector.apply(RestClient.builder()), httpConnector.apply(WebClient.builder()),
+                responseErrorHandler);
+    }
+
+    /**
+     * Create a new client api.
+     *
+     * @param baseUrl              api base URL.
+     * @param apiKey               stepfun api Key.
+     * @param restClientBuilder    RestClient builder.
+     * @param webClientBuilder     WebClient builder.
+     * @param responseErrorHandler Response error handler.
+     */
+    public StepFunAiApi(String baseUrl, String apiKey, RestClient.Builder restClientBuilder,
+                        WebClient.Builder webClientBuilder, ResponseErrorHandler responseErrorHandler) {
 
         Consumer<HttpHeaders> jsonContentHeaders = ApiUtils.getJsonContentHeaders(apiKey);
 
+        this.responseErrorHandler = responseErrorHandler;
         this.restClient = restClientBuilder.baseUrl(baseUrl)
                 .defaultHeaders(jsonContentHeaders)
                 .defaultStatusHandler(responseErrorHandler)
                 .build();
 
-        this.webClient = WebClient.builder().baseUrl(baseUrl).defaultHeaders(jsonContentHeaders).build();
+        this.webClient = webClientBuilder.baseUrl(baseUrl).defaultHeaders(jsonContentHeaders).build();
+    }
+
+    /**
+     * Spread requests over a pool of API keys instead of the key this client was created with.
+     *
+     * @param keyPool the key pool, or {@code null} to use the single key.
+     */
+    public void setKeyPool(StepFunAiKeyPool keyPool) {
+        this.keyPool = keyPool;
+    }
+
+    public StepFunAiKeyPool getKeyPool() {
+        return this.keyPool;
+    }
+
+    /**
+     * Set the interceptors applied to chat completion calls, ordered by
+     * {@link AnnotationAwareOrderComparator}. Expected to be called once, before the first request.
+     *
+     * @param interceptors the interceptors.
+     */
+    public void setInterceptors(List<StepFunAiApiInterceptor> interceptors) {
+        Assert.notNull(interceptors, "Interceptors must not be null");
+        List<StepFunAiApiInterceptor> sorted = new ArrayList<>(interceptors);
+        AnnotationAwareOrderComparator.sort(sorted);
+
+        // Build the chains once, from the innermost interceptor outwards.
+        StepFunAiApiInterceptor.CallExecution call = this::doChatCompletionEntity;
+        StepFunAiApiInterceptor.StreamExecution stream = this::doChatCompletionStream;
+        for (int i = sorted.size() - 1; i >= 0; i--) {
+            StepFunAiApiInterceptor interceptor = sorted.get(i);
+            StepFunAiApiInterceptor.CallExecution nextCall = call;
+            StepFunAiApiInterceptor.StreamExecution nextStream = stream;
+            call = request -> interceptor.aroundCall(request, nextCall);
+            stream = request -> interceptor.aroundStream(request, nextStream);
+        }
+        this.interceptors = List.copyOf(sorted);
+        this.callExecution = call;
+        this.streamExecution = stream;
+    }
+
+    /**
+     * @return the interceptors in the order they are applied.
+     */
+    public List<StepFunAiApiInterceptor> getInterceptors() {
+        return this.interceptors;
+    }
+
+    /**
+     * Set the listeners notified of every HTTP exchange, ordered by {@link AnnotationAwareOrderComparator}.
+     * Expected to be called once, before the first request.
+     *
+     * @param listeners the listeners.
+     */
+    public void setListeners(List<StepFunAiApiListener> listeners) {
+        Assert.notNull(listeners, "Listeners must not be null");
+        List<StepFunAiApiListener> sorted = new ArrayList<>(listeners);
+        AnnotationAwareOrderComparator.sort(sorted);
+        this.listener = StepFunAiApiListener.of(sorted);
+    }
+
+    /**
+     * Admit the requests sent with a key of the key pool once their key is leased, e.g. to rate limit each key.
+     * Only applies when a key pool is set.
+     *
+     * @param keyAdmission the key admission, or {@code null} for none.
+     */
+    public void setKeyAdmission(StepFunAiKeyAdmission keyAdmission) {
+        this.keyAdmission = keyAdmission;
+    }
+
+    public StepFunAiKeyAdmission getKeyAdmission() {
+        return this.keyAdmission;
+    }
+
+    private StepFunAiApiListener.Exchange startExchange(ChatCompletionRequest chatRequest) {
+        return (this.listener != null ? this.listener.exchangeStarted(chatRequest) : StepFunAiApiListener.Exchange.NONE);
     }
 
     // --------------------------------------------------------------------------
@@ -162,6 +297,7 @@ public class StepFunAiApi {
      * @param tools
      * @param toolChoice
      * @param user
+     * @param priority    the scheduling priority of the request on the client side, not sent to StepFun
      */
     @JsonInclude(JsonInclude.Include.NON_NULL)
     public record ChatCompletionRequest(
@@ -176,7 +312,18 @@ public class StepFunAiApi {
             @JsonProperty("stop") List<String> stop,
             @JsonProperty("tools") List<FunctionTool> tools,
             @JsonProperty("tool_choice") String toolChoice,
-            @JsonProperty("user_id") String user) {
+            @JsonProperty("user_id") String user,
+            @JsonIgnore StepFunAiRequestPriority priority) {
+
+        /**
+         * Create a request with the default priority.
+         */
+        public ChatCompletionRequest(String requestId, String model, List<ChatCompletionMessage> messages,
+                                     Boolean doSample, Boolean stream, Float temperature, Float topP, Integer maxTokens,
+                                     List<String> stop, List<FunctionTool> tools, String toolChoice, String user) {
+            this(requestId, model, messages, doSample, stream, temperature, topP, maxTokens, stop, tools, toolChoice,
+                    user, null);
+        }
 
         /**
          * Shortcut constructor for a chat completion request with the given messages and model.
@@ -465,6 +612,7 @@ public class StepFunAiApi {
      * @param model   The model used for the chat completion.
      * @param choices A list of chat completion choices. Can be more than one if n is
      *                greater than 1.
+     * @param usage   Usage statistics, sent with the last chunk of the stream.
      */
     @JsonInclude(JsonInclude.Include.NON_NULL)
     public record ChatCompletionChunk(
@@ -474,9 +622,15 @@ public class StepFunAiApi {
             @JsonProperty("created") Long created,
             @JsonProperty("model") String model,
             @JsonProperty("request_id") String requestId,
-            @JsonProperty("choices") List<ChatCompletionChunk.ChunkChoice> choices) {
+            @JsonProperty("choices") List<ChatCompletionChunk.ChunkChoice> choices,
+            @JsonProperty("usage") Usage usage) {
         // @formatter:on
 
+        public ChatCompletionChunk(String id, String object, Long created, String model, String requestId,
+                                   List<ChatCompletionChunk.ChunkChoice> choices) {
+            this(id, object, created, model, requestId, choices, null);
+        }
+
         /**
          * Chat completion choice.
          *
@@ -514,23 +668,46 @@ public class StepFunAiApi {
      */
     public enum ChatModel {
 
-        STEP_1("step-1"),
-        STEP_1V("step-1v"),
-        STEP_1_32K("step-1-32k"),
-        STEP_1V_32K("step-1v-32k"),
-        STEP_1_200K("step-1-200k"),
+        STEP_1("step-1", 8_000),
+        STEP_1V("step-1v", 8_000),
+        STEP_1_32K("step-1-32k", 32_000),
+        STEP_1V_32K("step-1v-32k", 32_000),
+        STEP_1_200K("step-1-200k", 200_000),
         ;
 
         private final String value;
 
-        ChatModel(String value) {
+        private final int contextWindow;
+
+        ChatModel(String value, int contextWindow) {
             this.value = value;
+            this.contextWindow = contextWindow;
         }
 
         public String getValue() {
             return this.value;
         }
 
+        /**
+         * @return the maximum number of prompt and completion tokens of a request
+         */
+        public int getContextWindow() {
+            return this.contextWindow;
+        }
+
+        /**
+         * @param value the model name
+         * @return the model, or {@code null} if the name is not a known model
+         */
+        public static ChatModel fromValue(String value) {
+            for (ChatModel model : values()) {
+                if (model.value.equals(value)) {
+                    return model;
+                }
+            }
+            return null;
+        }
+
     }
 
     /**
@@ -545,11 +722,148 @@ public class StepFunAiApi {
         Assert.notNull(chatRequest, "The request body can not be null.");
         Assert.isTrue(!chatRequest.stream(), "Request must set the steam property to false.");
 
-        return this.restClient.post()
-                .uri("/v1/chat/completions")
-                .body(chatRequest)
-                .retrieve()
-                .toEntity(StepFunAiApi.ChatCompletion.class);
+        return this.callExecution.execute(chatRequest);
+    }
+
+    private ResponseEntity<StepFunAiApi.ChatCompletion> doChatCompletionEntity(StepFunAiApi.ChatCompletionRequest chatRequest) {
+        if (this.keyPool == null && this.listener == null) {
+            return this.restClient.post()
+                    .uri(CHAT_COMPLETIONS_PATH)
+                    .body(chatRequest)
+                    .retrieve()
+                    .onStatus(StepFunAiApi::isTransientStatus,
+                            (request, response) -> handleTransient(request.getURI(), request.getMethod(), response))
+                    .toEntity(StepFunAiApi.ChatCompletion.class);
+        }
+
+        StepFunAiApiListener.Exchange exchange = startExchange(chatRequest);
+        StepFunAiKeyPool.Lease lease = null;
+        StepFunAiKeyAdmission.Permit permit = null;
+        try {
+            if (this.keyPool != null) {
+                lease = this.keyPool.acquire();
+                exchange.keySelected(lease.getEndpoint().alias());
+                permit = awaitAdmission(lease, chatRequest);
+            }
+            StepFunAiKeyPool.Lease acquired = lease;
+            ResponseEntity<StepFunAiApi.ChatCompletion> entity = this.restClient.post()
+                    .uri(chatCompletionsUri(acquired))
+                    .headers(headers -> authorize(headers, acquired))
+                    .body(chatRequest)
+                    .retrieve()
+                    // Sees every response before the default status handler, and only handles 429 and 5xx responses.
+                    .onStatus(new ResponseErrorHandler() {
+                        @Override
+                        public boolean hasError(ClientHttpResponse response) throws IOException {
+                            if (acquired != null) {
+                                acquired.release(response.getStatusCode(), response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                            }
+                            long contentLength = response.getHeaders().getContentLength();
+                            if (contentLength > 0) {
+                                exchange.bytesReceived(contentLength);
+                            }
+                            return isTransientStatus(response.getStatusCode());
+                        }
+
+                        @Override
+                        public void handleError(URI url, HttpMethod method, ClientHttpResponse response) throws IOException {
+                            handleTransient(url, method, response);
+                        }
+
+                        @Override
+                        public void handleError(ClientHttpResponse response) throws IOException {
+                            handleTransient(null, null, response);
+                        }
+                    })
+                    .toEntity(StepFunAiApi.ChatCompletion.class);
+            if (acquired != null && entity.getBody() != null) {
+                acquired.recordUsage(entity.getBody().usage());
+            }
+            if (permit != null) {
+                permit.settle(entity.getBody() != null ? entity.getBody().usage() : null);
+            }
+            exchange.completed(entity.getBody());
+            return entity;
+        }
+        catch (RuntimeException ex) {
+            if (ApiUtils.isCancellation(ex)) {
+                // Stopped by the caller, e.g. the losing attempt of a hedged call: not a failure of the key, and the
+                // request may still be billed.
+                if (lease != null) {
+                    lease.cancel();
+                }
+                exchange.cancelled();
+                throw ex;
+            }
+            if (permit != null) {
+                permit.refund();
+            }
+            if (lease != null) {
+                lease.releaseOnError();
+            }
+            exchange.failed(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Admit a blocking request with its leased key, waiting on the calling thread if needed.
+     * @return the permit, or {@code null} without key admission
+     */
+    private StepFunAiKeyAdmission.Permit awaitAdmission(StepFunAiKeyPool.Lease lease, ChatCompletionRequest chatRequest) {
+        if (this.keyAdmission == null) {
+            return null;
+        }
+        try {
+            StepFunAiKeyAdmission.Permit permit = this.keyAdmission.admit(lease.getEndpoint().alias(), chatRequest);
+            permit.await();
+            return permit;
+        }
+        catch (RuntimeException ex) {
+            // Rejected on the client side, not a failure of the key.
+            lease.cancel();
+            throw ex;
+        }
+    }
+
+    private static boolean isTransientStatus(HttpStatusCode status) {
+        return (status.value() == HttpStatus.TOO_MANY_REQUESTS.value() || status.is5xxServerError());
+    }
+
+    /**
+     * Let the configured response error handler fail a 429 or 5xx response. When it fails it as transient, the failure
+     * gets the status and the {@code Retry-After} header of the response, which the handler drops.
+     */
+    private void handleTransient(URI url, HttpMethod method, ClientHttpResponse response) throws IOException {
+        if (!this.responseErrorHandler.hasError(response)) {
+            return;
+        }
+        try {
+            if (url != null && method != null) {
+                this.responseErrorHandler.handleError(url, method, response);
+            }
+            else {
+                this.responseErrorHandler.handleError(response);
+            }
+        }
+        catch (TransientAiException ex) {
+            if (ex instanceof StepFunAiTransientHttpException) {
+                throw ex;
+            }
+            throw new StepFunAiTransientHttpException(response.getStatusCode(), ex.getMessage(),
+                    response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), ex);
+        }
+    }
+
+    private static String chatCompletionsUri(StepFunAiKeyPool.Lease lease) {
+        String baseUrl = (lease != null ? lease.getEndpoint().baseUrl() : null);
+        return (StringUtils.hasText(baseUrl) ? baseUrl + CHAT_COMPLETIONS_PATH : CHAT_COMPLETIONS_PATH);
+    }
+
+    private static void authorize(HttpHeaders headers, StepFunAiKeyPool.Lease lease) {
+        if (lease != null) {
+            headers.setBearerAuth(lease.getEndpoint().apiKey());
+        }
     }
 
     private StepFunAiStreamFunctionCallingHelper chunkMerger = new StepFunAiStreamFunctionCallingHelper();
@@ -566,16 +880,73 @@ public class StepFunAiApi {
         Assert.notNull(chatRequest, "The request body can not be null.");
         Assert.isTrue(chatRequest.stream(), "Request must set the steam property to true.");
 
+        return this.streamExecution.execute(chatRequest);
+    }
+
+    /**
+     * Relays the raw {@code text/event-stream} body of a streaming chat completion, e.g. to the client of a proxy,
+     * without deserializing it into chunks.
+     *
+     * @param chatRequest The chat completion request. Must have the stream property set
+     *                    to true.
+     * @return Returns the {@link Flux} of the upstream buffers, which the subscriber must release.
+     * @see #chatCompletionEventStream(ChatCompletionRequest, StepFunAiEventStreamHooks)
+     */
+    public Flux<DataBuffer> chatCompletionEventStream(ChatCompletionRequest chatRequest) {
+        return chatCompletionEventStream(chatRequest, StepFunAiEventStreamHooks.NONE);
+    }
+
+    /**
+     * Relays the raw {@code text/event-stream} body of a streaming chat completion, e.g. to the client of a proxy,
+     * applying lightweight hooks to its frames. The relay does not go through the {@link StepFunAiApiInterceptor
+     * interceptors}; the key pool and the listeners still apply, the listeners receiving one empty chunk per frame
+     * and the usage chunk.
+     *
+     * @param chatRequest The chat completion request. Must have the stream property set
+     *                    to true.
+     * @param hooks The hooks of the stream, {@link StepFunAiEventStreamHooks#NONE} for a plain relay.
+     * @return Returns the {@link Flux} of the buffers to relay, which the subscriber must release.
+     */
+    public Flux<DataBuffer> chatCompletionEventStream(ChatCompletionRequest chatRequest, StepFunAiEventStreamHooks hooks) {
+
+        Assert.notNull(chatRequest, "The request body can not be null.");
+        Assert.isTrue(chatRequest.stream(), "Request must set the steam property to true.");
+        Assert.notNull(hooks, "The event stream hooks can not be null.");
+
+        if (hooks == StepFunAiEventStreamHooks.NONE && this.keyPool == null && this.listener == null) {
+            return eventStream(chatRequest, null, StepFunAiApiListener.Exchange.NONE);
+        }
+        return Flux.defer(() -> exchange(chatRequest, (lease, exchange) -> {
+            Consumer<ChatCompletionChunk> chunkListener = null;
+            if (lease != null || exchange != StepFunAiApiListener.Exchange.NONE) {
+                chunkListener = chunk -> {
+                    if (lease != null) {
+                        lease.recordUsage(chunk.usage());
+                    }
+                    exchange.chunkReceived(chunk);
+                };
+            }
+            StepFunAiSseFrameProcessor processor = new StepFunAiSseFrameProcessor(hooks, chunkListener);
+            Flux<DataBuffer> body = eventStream(chatRequest, lease, exchange);
+            return body.concatMapIterable(processor::process)
+                    .concatWith(Mono.fromSupplier(() -> processor.flush(DefaultDataBufferFactory.sharedInstance)))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        }));
+    }
+
+    private Flux<ChatCompletionChunk> doChatCompletionStream(ChatCompletionRequest chatRequest) {
+
         AtomicBoolean isInsideTool = new AtomicBoolean(false);
 
-        return this.webClient.post()
-                .uri("/v1/chat/completions")
-                .body(Mono.just(chatRequest), ChatCompletionRequest.class)
-                .retrieve()
-                .bodyToFlux(String.class)
-                .takeUntil(SSE_DONE_PREDICATE)
-                .filter(SSE_DONE_PREDICATE.negate())
-                .map(content -> ModelOptionsUtils.jsonToObject(content, ChatCompletionChunk.class))
+        Flux<ChatCompletionChunk> chunks;
+        if (this.keyPool == null && this.listener == null) {
+            chunks = chatCompletionChunks(chatRequest, null, StepFunAiApiListener.Exchange.NONE);
+        }
+        else {
+            chunks = Flux.defer(() -> exchangeChunks(chatRequest));
+        }
+
+        return chunks
                 .map(chunk -> {
                     if (this.chunkMerger.isStreamingToolFunctionCall(chunk)) {
                         isInsideTool.set(true);
@@ -589,12 +960,139 @@ public class StepFunAiApi {
                     }
                     return !isInsideTool.get();
                 })
-                .concatMapIterable(window -> {
-                    Mono<ChatCompletionChunk> mono1 = window.reduce(new ChatCompletionChunk(null, null, null, null, null, null),
-                            (previous, current) -> this.chunkMerger.merge(previous, current));
-                    return List.of(mono1);
+                // Fold each window with a mutable accumulator so tool call arguments are appended
+                // once instead of being copied again for every chunk.
+                .concatMap(window -> window.reduceWith(StepFunAiStreamChunkAccumulator::new, StepFunAiStreamChunkAccumulator::append)
+                        .mapNotNull(StepFunAiStreamChunkAccumulator::toChunk));
+    }
+
+    /**
+     * Stream the chunks of one exchange, reporting the usage of each chunk to the key pool and the chunk to the listeners.
+     */
+    private Flux<ChatCompletionChunk> exchangeChunks(ChatCompletionRequest chatRequest) {
+        return exchange(chatRequest, (lease, exchange) -> chatCompletionChunks(chatRequest, lease, exchange)
+                .doOnNext(chunk -> {
+                    if (lease != null) {
+                        lease.recordUsage(chunk.usage());
+                    }
+                    exchange.chunkReceived(chunk);
+                }));
+    }
+
+    /**
+     * Stream one exchange, holding a lease of the key pool and reporting the end of the exchange to the listeners.
+     */
+    private <T> Flux<T> exchange(ChatCompletionRequest chatRequest,
+                                 BiFunction<StepFunAiKeyPool.Lease, StepFunAiApiListener.Exchange, Flux<T>> source) {
+        StepFunAiApiListener.Exchange exchange = startExchange(chatRequest);
+        StepFunAiKeyPool.Lease lease = null;
+        if (this.keyPool != null) {
+            try {
+                lease = this.keyPool.acquire();
+            }
+            catch (RuntimeException ex) {
+                exchange.failed(ex);
+                return Flux.error(ex);
+            }
+            exchange.keySelected(lease.getEndpoint().alias());
+        }
+        StepFunAiKeyPool.Lease acquired = lease;
+        Flux<T> elements = source.apply(acquired, exchange);
+        if (acquired != null && this.keyAdmission != null) {
+            StepFunAiKeyAdmission.Permit permit;
+            try {
+                permit = this.keyAdmission.admit(acquired.getEndpoint().alias(), chatRequest);
+            }
+            catch (RuntimeException ex) {
+                // Rejected on the client side, not a failure of the key.
+                acquired.cancel();
+                exchange.failed(ex);
+                return Flux.error(ex);
+            }
+            elements = admitted(elements, permit, acquired);
+        }
+        return elements
+                .doOnComplete(() -> {
+                    if (acquired != null) {
+                        acquired.release(HttpStatus.OK, null);
+                    }
+                    exchange.completed(null);
                 })
-                .flatMap(mono -> mono);
+                .doOnError(ex -> {
+                    if (acquired != null) {
+                        acquired.releaseOnError();
+                    }
+                    exchange.failed(ex);
+                })
+                .doOnCancel(() -> {
+                    if (acquired != null) {
+                        acquired.cancel();
+                    }
+                    exchange.cancelled();
+                });
+    }
+
+    /**
+     * Delay a stream until its permit allows it, without blocking, and settle the permit from the usage of the lease
+     * once the stream terminates or is cancelled; a stream that ends before its first element is refunded.
+     */
+    private static <T> Flux<T> admitted(Flux<T> elements, StepFunAiKeyAdmission.Permit permit, StepFunAiKeyPool.Lease lease) {
+        AtomicBoolean received = new AtomicBoolean();
+        Flux<T> admitted = elements
+                .doOnNext(element -> {
+                    if (!received.get()) {
+                        received.set(true);
+                    }
+                });
+        if (!permit.getDelay().isZero()) {
+            admitted = Mono.delay(permit.getDelay())
+                    .doFinally(signal -> permit.release())
+                    .thenMany(admitted);
+        }
+        return admitted.doFinally(signal -> {
+            if (signal != SignalType.ON_COMPLETE && !received.get()) {
+                permit.refund();
+            }
+            else {
+                permit.settle(lease.getUsage());
+            }
+        });
+    }
+
+    private Flux<ChatCompletionChunk> chatCompletionChunks(ChatCompletionRequest chatRequest, StepFunAiKeyPool.Lease lease,
+                                                           StepFunAiApiListener.Exchange exchange) {
+        // Each subscription decodes the raw event stream with its own decoder, feeding the
+        // data: payloads straight into a non-blocking JSON parser.
+        return Flux.using(StepFunAiSseChunkDecoder::new,
+                        decoder -> eventStream(chatRequest, lease, exchange)
+                                .concatMapIterable(decoder::decode)
+                                .doOnDiscard(DataBuffer.class, DataBufferUtils::release),
+                        StepFunAiSseChunkDecoder::close)
+                .takeWhile(chunk -> chunk != StepFunAiSseChunkDecoder.DONE);
+    }
+
+    /**
+     * The raw {@code text/event-stream} body of one exchange.
+     */
+    private Flux<DataBuffer> eventStream(ChatCompletionRequest chatRequest, StepFunAiKeyPool.Lease lease,
+                                         StepFunAiApiListener.Exchange exchange) {
+        Flux<DataBuffer> body = this.webClient.post()
+                .uri(chatCompletionsUri(lease))
+                .headers(headers -> authorize(headers, lease))
+                .body(Mono.just(chatRequest), ChatCompletionRequest.class)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response -> {
+                    if (lease != null) {
+                        lease.release(response.statusCode(),
+                                response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                    }
+                    return response.createException();
+                })
+                .bodyToFlux(DataBuffer.class);
+        if (exchange != StepFunAiApiListener.Exchange.NONE) {
+            body = body.doOnNext(buffer -> exchange.bytesReceived(buffer.readableByteCount()));
+        }
+        return body;
     }
 
     /**
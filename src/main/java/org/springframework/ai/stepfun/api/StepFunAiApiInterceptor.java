@@ -0,0 +1,56 @@
+package org.springframework.ai.stepfun.api;
+
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+/**
+ * Intercepts the chat completion calls of {@link StepFunAiApi}, for cross-cutting concerns such as request
+ * coalescing or admission control. Interceptors are applied in {@link org.springframework.core.Ordered order},
+ * the first one being the outermost.
+ */
+public interface StepFunAiApiInterceptor {
+
+    /**
+     * Intercept a blocking chat completion.
+     * @param request the request
+     * @param execution the rest of the chain
+     * @return the response entity
+     */
+    default ResponseEntity<StepFunAiApi.ChatCompletion> aroundCall(StepFunAiApi.ChatCompletionRequest request,
+                                                                  CallExecution execution) {
+        return execution.execute(request);
+    }
+
+    /**
+     * Intercept a streaming chat completion. Implementations are invoked on assembly and should defer their work
+     * to subscription time.
+     * @param request the request
+     * @param execution the rest of the chain
+     * @return the merged chunks of the stream
+     */
+    default Flux<StepFunAiApi.ChatCompletionChunk> aroundStream(StepFunAiApi.ChatCompletionRequest request,
+                                                               StreamExecution execution) {
+        return execution.execute(request);
+    }
+
+    /**
+     * The remainder of a blocking interceptor chain.
+     */
+    @FunctionalInterface
+    interface CallExecution {
+
+        ResponseEntity<StepFunAiApi.ChatCompletion> execute(StepFunAiApi.ChatCompletionRequest request);
+
+    }
+
+    /**
+     * The remainder of a streaming interceptor chain.
+     */
+    @FunctionalInterface
+    interface StreamExecution {
+
+        Flux<StepFunAiApi.ChatCompletionChunk> execute(StepFunAiApi.ChatCompletionRequest request);
+
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.springframework.ai.stepfun.api;
+
+import java.util.List;
+
+/**
+ * Listens to the HTTP exchanges of {@link StepFunAiApi}, below all {@link StepFunAiApiInterceptor interceptors}, for
+ * instrumentation such as metrics. Every attempt that reaches the wire is reported as its own exchange.
+ * <p>
+ * The callbacks of an exchange run on the thread handling the response, some of them once per chunk, so they must be
+ * cheap and must not block.
+ */
+public interface StepFunAiApiListener {
+
+    /**
+     * Called before a request is sent.
+     * @param request the request, {@link StepFunAiApi.ChatCompletionRequest#stream()} telling a stream from a call
+     * @return the callbacks of this exchange
+     */
+    Exchange exchangeStarted(StepFunAiApi.ChatCompletionRequest request);
+
+    /**
+     * Combine listeners into one.
+     * @param listeners the listeners, in the order they are called
+     * @return the combined listener, or {@code null} if there is none
+     */
+    static StepFunAiApiListener of(List<StepFunAiApiListener> listeners) {
+        if (listeners.isEmpty()) {
+            return null;
+        }
+        if (listeners.size() == 1) {
+            return listeners.get(0);
+        }
+        List<StepFunAiApiListener> delegates = List.copyOf(listeners);
+        return request -> {
+            Exchange[] exchanges = new Exchange[delegates.size()];
+            for (int i = 0; i < exchanges.length; i++) {
+                exchanges[i] = delegates.get(i).exchangeStarted(request);
+            }
+            return new CompositeExchange(exchanges);
+        };
+    }
+
+    /**
+     * The callbacks of a single exchange. Exactly one of {@link #completed}, {@link #failed} and {@link #cancelled}
+     * ends an exchange.
+     */
+    interface Exchange {
+
+        /**
+         * No-op callbacks.
+         */
+        Exchange NONE = new Exchange() {
+        };
+
+        /**
+         * Called when the request is assigned an API key of the {@link StepFunAiKeyPool}.
+         * @param alias the alias of the key
+         */
+        default void keySelected(String alias) {
+        }
+
+        /**
+         * Called as response bytes arrive. Blocking calls report the {@code Content-Length} of the response, if any.
+         * @param bytes the number of bytes received
+         */
+        default void bytesReceived(long bytes) {
+        }
+
+        /**
+         * Called for every decoded chunk of a stream, before tool call chunks are merged.
+         * @param chunk the chunk
+         */
+        default void chunkReceived(StepFunAiApi.ChatCompletionChunk chunk) {
+        }
+
+        /**
+         * Called once the response is complete.
+         * @param completion the completion of a blocking call, {@code null} for a stream
+         */
+        default void completed(StepFunAiApi.ChatCompletion completion) {
+        }
+
+        /**
+         * Called when the exchange failed.
+         * @param error the failure
+         */
+        default void failed(Throwable error) {
+        }
+
+        /**
+         * Called when the subscriber of a stream cancelled it, or when a blocking call was interrupted by its caller.
+         */
+        default void cancelled() {
+        }
+
+    }
+
+    /**
+     * Fans the callbacks of an exchange out to several listeners.
+     */
+    final class CompositeExchange implements Exchange {
+
+        private final Exchange[] exchanges;
+
+        private CompositeExchange(Exchange[] exchanges) {
+            this.exchanges = exchanges;
+        }
+
+        @Override
+        public void keySelected(String alias) {
+            for (Exchange exchange : this.exchanges) {
+                exchange.keySelected(alias);
+            }
+        }
+
+        @Override
+        public void bytesReceived(long bytes) {
+            for (Exchange exchange : this.exchanges) {
+                exchange.bytesReceived(bytes);
+            }
+        }
+
+        @Override
+        public void chunkReceived(StepFunAiApi.ChatCompletionChunk chunk) {
+            for (Exchange exchange : this.exchanges) {
+                exchange.chunkReceived(chunk);
+            }
+        }
+
+        @Override
+        public void completed(StepFunAiApi.ChatCompletion completion) {
+            for (Exchange exchange : this.exchanges) {
+                exchange.completed(completion);
+            }
+        }
+
+        @Override
+        public void failed(Throwable error) {
+            for (Exchange exchange : this.exchanges) {
+                exchange.failed(error);
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            for (Exchange exchange : this.exchanges) {
+                exchange.cancelled();
+            }
+        }
+
+    }
+
+}
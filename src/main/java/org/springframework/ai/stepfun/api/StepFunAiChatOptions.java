@@ -11,6 +11,8 @@ import org.springframework.ai.model.function.FunctionCallback;
 import org.springframework.ai.model.function.FunctionCallingOptions;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -73,24 +75,44 @@ public class StepFunAiChatOptions implements FunctionCallingOptions, ChatOptions
     @NestedConfigurationProperty
     private @JsonProperty("tool_choice") StepFunAiApi.ChatCompletionRequest.ToolChoice toolChoice;
 
+    /**
+     * 注册到客户端的函数回调，运行时传入的回调会自动启用
+     */
+    @NestedConfigurationProperty
+    @JsonIgnore
+    private List<FunctionCallback> functionCallbacks = new ArrayList<>();
+
+    /**
+     * 当前请求启用的函数名称，函数需已注册到客户端
+     */
+    @NestedConfigurationProperty
+    @JsonIgnore
+    private Set<String> functions = new HashSet<>();
+
+    /**
+     * 请求在客户端调度器中的优先级，不会发送给模型
+     */
+    @JsonIgnore
+    private StepFunAiRequestPriority priority;
+
     @Override
     public List<FunctionCallback> getFunctionCallbacks() {
-        return null;
+        return this.functionCallbacks;
     }
 
     @Override
     public void setFunctionCallbacks(List<FunctionCallback> functionCallbacks) {
-
+        this.functionCallbacks = functionCallbacks;
     }
 
     @Override
     public Set<String> getFunctions() {
-        return null;
+        return this.functions;
     }
 
     @Override
     public void setFunctions(Set<String> functions) {
-
+        this.functions = functions;
     }
 
     public static Builder builder() {
@@ -146,6 +168,26 @@ public class StepFunAiChatOptions implements FunctionCallingOptions, ChatOptions
             return this;
         }
 
+        public Builder withFunctionCallbacks(List<FunctionCallback> functionCallbacks) {
+            this.options.setFunctionCallbacks(functionCallbacks);
+            return this;
+        }
+
+        public Builder withFunctions(Set<String> functionNames) {
+            this.options.setFunctions(functionNames);
+            return this;
+        }
+
+        public Builder withFunction(String functionName) {
+            this.options.getFunctions().add(functionName);
+            return this;
+        }
+
+        public Builder withPriority(StepFunAiRequestPriority priority) {
+            this.options.setPriority(priority);
+            return this;
+        }
+
         public StepFunAiChatOptions build() {
             return this.options;
         }
@@ -237,6 +279,14 @@ public class StepFunAiChatOptions implements FunctionCallingOptions, ChatOptions
         this.toolChoice = toolChoice;
     }
 
+    public StepFunAiRequestPriority getPriority() {
+        return this.priority;
+    }
+
+    public void setPriority(StepFunAiRequestPriority priority) {
+        this.priority = priority;
+    }
+
     /**
      * Convert the {@link StepFunAiChatOptions} object to a {@link Map} of key/value pairs.
      * @return The {@link Map} of key/value pairs.
@@ -260,6 +310,28 @@ public class StepFunAiChatOptions implements FunctionCallingOptions, ChatOptions
         return new StepFunAiChatOptions();
     }
 
+    /**
+     * Copy the given options, e.g. to change some of them without affecting other users of the original.
+     * @param fromOptions The options to copy.
+     * @return A new {@link StepFunAiChatOptions} instance.
+     */
+    public static StepFunAiChatOptions fromOptions(StepFunAiChatOptions fromOptions) {
+        return StepFunAiChatOptions.builder()
+                .withModel(fromOptions.getModel())
+                .withMaxToken(fromOptions.getMaxTokens())
+                .withDoSample(fromOptions.getDoSample())
+                .withTemperature(fromOptions.getTemperature())
+                .withTopP(fromOptions.getTopP())
+                .withUser(fromOptions.getUser())
+                .withStop(fromOptions.getStop() != null ? new ArrayList<>(fromOptions.getStop()) : null)
+                .withTools(fromOptions.getTools() != null ? new ArrayList<>(fromOptions.getTools()) : null)
+                .withToolChoice(fromOptions.getToolChoice())
+                .withFunctionCallbacks(fromOptions.getFunctionCallbacks() != null ? new ArrayList<>(fromOptions.getFunctionCallbacks()) : null)
+                .withFunctions(fromOptions.getFunctions() != null ? new HashSet<>(fromOptions.getFunctions()) : null)
+                .withPriority(fromOptions.getPriority())
+                .build();
+    }
+
     /**
      * Filter out the non supported fields from the options.
      * @param options The options to filter.
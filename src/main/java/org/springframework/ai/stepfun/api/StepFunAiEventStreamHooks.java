@@ -0,0 +1,78 @@
+package org.springframework.ai.stepfun.api;
+
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lightweight hooks of a raw event stream relayed by
+ * {@link StepFunAiApi#chatCompletionEventStream(StepFunAiApi.ChatCompletionRequest, StepFunAiEventStreamHooks)}. Frames
+ * are never deserialized into chunks: the usage is read from the frames carrying one, and the delta contents are read
+ * with a streaming parser only when a content filter is set.
+ * <p>
+ * The hooks run on the thread receiving the response, once per frame, so they must be cheap and must not block.
+ */
+public final class StepFunAiEventStreamHooks {
+
+    /**
+     * No hooks: the upstream buffers are relayed as they are.
+     */
+    public static final StepFunAiEventStreamHooks NONE = builder().build();
+
+    private final Consumer<StepFunAiApi.Usage> usageConsumer;
+
+    private final UnaryOperator<String> contentFilter;
+
+    private StepFunAiEventStreamHooks(Builder builder) {
+        this.usageConsumer = builder.usageConsumer;
+        this.contentFilter = builder.contentFilter;
+    }
+
+    /**
+     * @return the consumer of the usage reported by the stream, or {@code null}
+     */
+    public Consumer<StepFunAiApi.Usage> getUsageConsumer() {
+        return this.usageConsumer;
+    }
+
+    /**
+     * @return the filter of the delta contents, or {@code null}
+     */
+    public UnaryOperator<String> getContentFilter() {
+        return this.contentFilter;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Consumer<StepFunAiApi.Usage> usageConsumer;
+
+        private UnaryOperator<String> contentFilter;
+
+        /**
+         * @param usageConsumer called with the usage reported by the stream, usually once at its end
+         */
+        public Builder withUsageConsumer(Consumer<StepFunAiApi.Usage> usageConsumer) {
+            this.usageConsumer = usageConsumer;
+            return this;
+        }
+
+        /**
+         * @param contentFilter called with the content of each delta; returns the content to relay, or {@code null}
+         * to drop the frame. A frame whose content is returned unchanged is relayed byte for byte, otherwise it is
+         * re-encoded with the new content. The filter may also throw to end the stream.
+         */
+        public Builder withContentFilter(UnaryOperator<String> contentFilter) {
+            this.contentFilter = contentFilter;
+            return this;
+        }
+
+        public StepFunAiEventStreamHooks build() {
+            return new StepFunAiEventStreamHooks(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,211 @@
+package org.springframework.ai.stepfun.api;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ReactorNettyClientRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Shared Reactor Netty connection pool used by both the blocking ({@link RestClient}) and the streaming
+ * ({@link WebClient}) side of {@link StepFunAiApi}, so that both paths reuse the same warm, TLS-established
+ * connections instead of each opening their own.
+ */
+public class StepFunAiHttpConnector {
+
+    private final ConnectionProvider connectionProvider;
+
+    private final HttpClient httpClient;
+
+    private final Duration readTimeout;
+
+    private final Duration responseTimeout;
+
+    private StepFunAiHttpConnector(Builder builder) {
+        ConnectionProvider.Builder pool = ConnectionProvider.builder(builder.name)
+                .maxConnections(builder.maxConnections)
+                .pendingAcquireMaxCount(builder.pendingAcquireMaxCount)
+                .pendingAcquireTimeout(builder.pendingAcquireTimeout)
+                .maxIdleTime(builder.maxIdleTime);
+        if (builder.maxLifeTime != null) {
+            pool.maxLifeTime(builder.maxLifeTime);
+        }
+        if (builder.evictionInterval != null && !builder.evictionInterval.isZero()) {
+            pool.evictInBackground(builder.evictionInterval);
+        }
+        this.connectionProvider = pool.build();
+
+        HttpClient client = HttpClient.create(this.connectionProvider)
+                .keepAlive(builder.keepAlive)
+                .option(ChannelOption.SO_KEEPALIVE, builder.keepAlive)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) builder.connectTimeout.toMillis())
+                // Maximum gap between two reads of a response, which bounds a stalled stream.
+                .responseTimeout(builder.readTimeout);
+        if (builder.http2) {
+            // HTTP/2 is negotiated through ALPN, HTTP/1.1 remains the fallback.
+            client = client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        this.httpClient = client;
+        this.readTimeout = builder.readTimeout;
+        this.responseTimeout = builder.responseTimeout;
+    }
+
+    /**
+     * @return the underlying Reactor Netty client.
+     */
+    public HttpClient getHttpClient() {
+        return this.httpClient;
+    }
+
+    /**
+     * @return a request factory for {@link RestClient} backed by the shared pool.
+     */
+    public ClientHttpRequestFactory requestFactory() {
+        ReactorNettyClientRequestFactory requestFactory = new ReactorNettyClientRequestFactory(this.httpClient);
+        requestFactory.setReadTimeout(this.readTimeout);
+        requestFactory.setExchangeTimeout(this.responseTimeout);
+        return requestFactory;
+    }
+
+    /**
+     * @return a connector for {@link WebClient} backed by the shared pool.
+     */
+    public ClientHttpConnector clientConnector() {
+        return new ReactorClientHttpConnector(this.httpClient);
+    }
+
+    /**
+     * Apply the shared pool to the given {@link RestClient.Builder}.
+     * @param builder the builder to customize
+     * @return the same builder
+     */
+    public RestClient.Builder apply(RestClient.Builder builder) {
+        return builder.requestFactory(requestFactory());
+    }
+
+    /**
+     * Apply the shared pool to the given {@link WebClient.Builder}.
+     * @param builder the builder to customize
+     * @return the same builder
+     */
+    public WebClient.Builder apply(WebClient.Builder builder) {
+        return builder.clientConnector(clientConnector());
+    }
+
+    /**
+     * Close all pooled connections.
+     */
+    public void dispose() {
+        this.connectionProvider.dispose();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private String name = "stepfun";
+
+        private int maxConnections = 200;
+
+        private int pendingAcquireMaxCount = 1000;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(45);
+
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        private Duration maxLifeTime;
+
+        private Duration evictionInterval = Duration.ofSeconds(30);
+
+        private boolean keepAlive = true;
+
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        private Duration readTimeout = Duration.ofMinutes(5);
+
+        private Duration responseTimeout = Duration.ofMinutes(5);
+
+        private boolean http2 = false;
+
+        public Builder withName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder withMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public Builder withPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+            return this;
+        }
+
+        public Builder withPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+            return this;
+        }
+
+        public Builder withMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+            return this;
+        }
+
+        public Builder withMaxLifeTime(Duration maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+            return this;
+        }
+
+        public Builder withEvictionInterval(Duration evictionInterval) {
+            this.evictionInterval = evictionInterval;
+            return this;
+        }
+
+        public Builder withKeepAlive(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        public Builder withConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder withReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        public Builder withResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        public Builder withHttp2(boolean http2) {
+            this.http2 = http2;
+            return this;
+        }
+
+        public StepFunAiHttpConnector build() {
+            Assert.hasText(this.name, "Pool name must not be empty");
+            Assert.isTrue(this.maxConnections > 0, "Max connections must be greater than 0");
+            Assert.notNull(this.connectTimeout, "Connect timeout must not be null");
+            Assert.notNull(this.readTimeout, "Read timeout must not be null");
+            Assert.notNull(this.responseTimeout, "Response timeout must not be null");
+            return new StepFunAiHttpConnector(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.springframework.ai.stepfun.api;
+
+import java.time.Duration;
+
+/**
+ * Admits the requests sent with a key of the {@link StepFunAiKeyPool}. {@link StepFunAiApi} consults it once the key
+ * of a request is leased, so limits can be enforced per key, which interceptors running before the lease cannot do.
+ */
+public interface StepFunAiKeyAdmission {
+
+    /**
+     * Admit a request, reserving its capacity without waiting for it.
+     * @param keyAlias the alias of the leased key
+     * @param request the request
+     * @return the permit, with the delay after which the request may be sent
+     * @throws StepFunAiRequestRejectedException if the request cannot wait for capacity
+     */
+    Permit admit(String keyAlias, StepFunAiApi.ChatCompletionRequest request);
+
+    /**
+     * Capacity reserved for one request.
+     */
+    interface Permit {
+
+        /**
+         * @return the delay after which the request may be sent.
+         */
+        Duration getDelay();
+
+        /**
+         * Block until the request may be sent.
+         */
+        void await();
+
+        /**
+         * Stop waiting for the request, once it was sent or given up after a non-blocking delay.
+         */
+        void release();
+
+        /**
+         * Correct the reserved capacity from the reported usage.
+         * @param usage the usage reported by StepFun, may be {@code null}
+         */
+        void settle(StepFunAiApi.Usage usage);
+
+        /**
+         * Give back the capacity of a request that failed before consuming any.
+         */
+        void refund();
+
+    }
+
+}
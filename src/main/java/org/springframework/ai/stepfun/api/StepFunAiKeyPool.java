@@ -0,0 +1,267 @@
+package org.springframework.ai.stepfun.api;
+
+import org.springframework.ai.stepfun.util.ApiUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of StepFun API keys, optionally on different base URLs, used by {@link StepFunAiApi} to spread requests
+ * over several per-key quotas.
+ * <p>
+ * Each request leases the healthy endpoint with the fewest requests in flight, bounded by the endpoint's maximum
+ * concurrency. An endpoint answering with 429, a 5xx status or an I/O error is put into a cooldown that honours
+ * {@code Retry-After} and doubles with consecutive failures. Requests, failures and token usage are tracked per
+ * endpoint.
+ */
+public class StepFunAiKeyPool {
+
+    private final List<EndpointState> endpoints;
+
+    private final Duration cooldown;
+
+    private final Duration maxCooldown;
+
+    private int next;
+
+    /**
+     * @param endpoints the endpoints of the pool
+     */
+    public StepFunAiKeyPool(List<Endpoint> endpoints) {
+        this(endpoints, Duration.ofSeconds(10), Duration.ofMinutes(5));
+    }
+
+    /**
+     * @param endpoints the endpoints of the pool
+     * @param cooldown the cooldown after a first failure, doubled for every consecutive failure
+     * @param maxCooldown the maximum cooldown
+     */
+    public StepFunAiKeyPool(List<Endpoint> endpoints, Duration cooldown, Duration maxCooldown) {
+        Assert.notEmpty(endpoints, "At least one endpoint is required");
+        Assert.notNull(cooldown, "Cooldown must not be null");
+        Assert.notNull(maxCooldown, "Max cooldown must not be null");
+        List<EndpointState> states = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            states.add(new EndpointState(endpoint));
+        }
+        this.endpoints = List.copyOf(states);
+        this.cooldown = cooldown;
+        this.maxCooldown = maxCooldown;
+    }
+
+    /**
+     * Lease the least loaded healthy endpoint. The lease must be released once the request completes.
+     * @return the lease
+     * @throws StepFunAiRequestRejectedException if every endpoint is cooling down or at its maximum concurrency
+     */
+    public synchronized Lease acquire() {
+        long now = System.nanoTime();
+        EndpointState selected = null;
+        int size = this.endpoints.size();
+        // Start after the previous pick so that ties are spread round-robin.
+        for (int i = 0; i < size; i++) {
+            EndpointState candidate = this.endpoints.get((this.next + i) % size);
+            if (candidate.isAvailable(now) && (selected == null || candidate.inFlight < selected.inFlight)) {
+                selected = candidate;
+            }
+        }
+        if (selected == null) {
+            throw new StepFunAiRequestRejectedException("No StepFun API key available: all " + size
+                    + " keys are cooling down or at their maximum concurrency");
+        }
+        this.next = (this.endpoints.indexOf(selected) + 1) % size;
+        selected.inFlight++;
+        selected.requests.increment();
+        return new Lease(selected);
+    }
+
+    private synchronized void release(EndpointState state, HttpStatusCode status, String retryAfter, boolean ioError) {
+        state.inFlight--;
+        boolean failed = ioError || (status != null
+                && (status.value() == HttpStatus.TOO_MANY_REQUESTS.value() || status.is5xxServerError()));
+        if (!failed) {
+            state.consecutiveFailures = 0;
+            return;
+        }
+        state.failures.increment();
+        state.consecutiveFailures++;
+        Duration delay = ApiUtils.parseRetryAfter(retryAfter);
+        if (delay == null) {
+            long factor = 1L << Math.min(state.consecutiveFailures - 1, 20);
+            delay = this.cooldown.multipliedBy(factor);
+        }
+        if (delay.compareTo(this.maxCooldown) > 0) {
+            delay = this.maxCooldown;
+        }
+        state.coolingDownUntil = System.nanoTime() + delay.toNanos();
+    }
+
+    /**
+     * @return the endpoints of the pool.
+     */
+    public List<Endpoint> getEndpoints() {
+        return this.endpoints.stream().map(state -> state.endpoint).toList();
+    }
+
+    /**
+     * @return a snapshot of the state of every endpoint.
+     */
+    public synchronized List<EndpointStatistics> getStatistics() {
+        long now = System.nanoTime();
+        List<EndpointStatistics> statistics = new ArrayList<>(this.endpoints.size());
+        for (EndpointState state : this.endpoints) {
+            long remaining = Math.max(0, state.coolingDownUntil - now);
+            statistics.add(new EndpointStatistics(state.endpoint.alias(), state.inFlight, Duration.ofNanos(remaining),
+                    state.requests.sum(), state.failures.sum(), state.promptTokens.sum(), state.completionTokens.sum()));
+        }
+        return statistics;
+    }
+
+    /**
+     * An API key of the pool.
+     *
+     * @param alias          name of the endpoint in logs and statistics, never the key itself.
+     * @param baseUrl        base URL, or {@code null} for the base URL of the {@link StepFunAiApi}.
+     * @param apiKey         the API key.
+     * @param maxConcurrency maximum number of requests in flight, 0 for no limit.
+     */
+    public record Endpoint(String alias, String baseUrl, String apiKey, int maxConcurrency) {
+
+        public Endpoint {
+            Assert.hasText(alias, "Endpoint alias must not be empty");
+            Assert.hasText(apiKey, "Endpoint API key must not be empty");
+            Assert.isTrue(maxConcurrency >= 0, "Max concurrency must not be negative");
+        }
+
+        @Override
+        public String toString() {
+            return "Endpoint[alias=" + this.alias + ", baseUrl=" + this.baseUrl + ", maxConcurrency="
+                    + this.maxConcurrency + "]";
+        }
+
+    }
+
+    /**
+     * Point in time statistics of an endpoint.
+     *
+     * @param alias            the endpoint alias.
+     * @param inFlight         requests currently in flight.
+     * @param cooldown         remaining cooldown, zero when healthy.
+     * @param requests         requests sent.
+     * @param failures         requests answered with 429, 5xx or an I/O error.
+     * @param promptTokens     prompt tokens reported by StepFun.
+     * @param completionTokens completion tokens reported by StepFun.
+     */
+    public record EndpointStatistics(String alias, int inFlight, Duration cooldown, long requests, long failures,
+                                     long promptTokens, long completionTokens) {
+    }
+
+    /**
+     * An endpoint leased for one request.
+     */
+    public final class Lease {
+
+        private final EndpointState state;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private volatile StepFunAiApi.Usage usage;
+
+        private Lease(EndpointState state) {
+            this.state = state;
+        }
+
+        public Endpoint getEndpoint() {
+            return this.state.endpoint;
+        }
+
+        /**
+         * Record the token usage of the request.
+         * @param usage the usage reported by StepFun, may be {@code null}
+         */
+        public void recordUsage(StepFunAiApi.Usage usage) {
+            if (usage != null) {
+                this.usage = usage;
+                if (usage.promptTokens() != null) {
+                    this.state.promptTokens.add(usage.promptTokens());
+                }
+                if (usage.completionTokens() != null) {
+                    this.state.completionTokens.add(usage.completionTokens());
+                }
+            }
+        }
+
+        /**
+         * @return the last usage recorded for the request, or {@code null}
+         */
+        public StepFunAiApi.Usage getUsage() {
+            return this.usage;
+        }
+
+        /**
+         * Release the endpoint once a response was received.
+         * @param status the response status
+         * @param retryAfter the {@code Retry-After} header of the response, may be {@code null}
+         */
+        public void release(HttpStatusCode status, String retryAfter) {
+            if (this.released.compareAndSet(false, true)) {
+                StepFunAiKeyPool.this.release(this.state, status, retryAfter, false);
+            }
+        }
+
+        /**
+         * Release the endpoint after the request failed without a response, e.g. on a connection error.
+         */
+        public void releaseOnError() {
+            if (this.released.compareAndSet(false, true)) {
+                StepFunAiKeyPool.this.release(this.state, null, null, true);
+            }
+        }
+
+        /**
+         * Release the endpoint after the caller cancelled the request, without counting a failure.
+         */
+        public void cancel() {
+            if (this.released.compareAndSet(false, true)) {
+                StepFunAiKeyPool.this.release(this.state, null, null, false);
+            }
+        }
+
+    }
+
+    private static final class EndpointState {
+
+        private final Endpoint endpoint;
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder promptTokens = new LongAdder();
+
+        private final LongAdder completionTokens = new LongAdder();
+
+        private int inFlight;
+
+        private int consecutiveFailures;
+
+        private long coolingDownUntil = System.nanoTime();
+
+        EndpointState(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        boolean isAvailable(long now) {
+            return (now - this.coolingDownUntil >= 0)
+                    && (this.endpoint.maxConcurrency() == 0 || this.inFlight < this.endpoint.maxConcurrency());
+        }
+
+    }
+
+}
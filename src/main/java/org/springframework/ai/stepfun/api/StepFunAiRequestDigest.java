@@ -0,0 +1,58 @@
+package org.springframework.ai.stepfun.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.util.Assert;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Canonical digest of a {@link StepFunAiApi.ChatCompletionRequest}, identifying requests that are guaranteed to be
+ * answered from the same input: model, messages, sampling parameters and tools.
+ * <p>
+ * The request is serialized with sorted properties and map entries so that the digest does not depend on the
+ * declaration order of tool schemas. The {@code request_id} and {@code stream} fields are not part of the digest.
+ */
+public final class StepFunAiRequestDigest {
+
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    private StepFunAiRequestDigest() {
+    }
+
+    /**
+     * @param request the request to digest
+     * @return the lower case hex encoded SHA-256 digest of the canonical request
+     */
+    public static String of(StepFunAiApi.ChatCompletionRequest request) {
+        Assert.notNull(request, "The request can not be null.");
+        // Plain copies of the lists, which may otherwise be written as pre-serialized fragments.
+        var messages = (request.messages() != null ? List.copyOf(request.messages()) : null);
+        var tools = (request.tools() != null ? List.copyOf(request.tools()) : null);
+        var canonical = new StepFunAiApi.ChatCompletionRequest(null, request.model(), messages,
+                request.doSample(), null, request.temperature(), request.topP(), request.maxTokens(), request.stop(),
+                tools, request.toolChoice(), request.user());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(CANONICAL_MAPPER.writeValueAsBytes(canonical));
+            return HexFormat.of().formatHex(hash);
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Failed to serialize chat completion request", ex);
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package org.springframework.ai.stepfun.api;
+
+/**
+ * Priority classes of chat requests, honoured by a request scheduler on the client side.
+ */
+public enum StepFunAiRequestPriority {
+
+    /**
+     * A user is waiting for the answer.
+     */
+    INTERACTIVE,
+
+    /**
+     * The priority of requests that do not set one.
+     */
+    DEFAULT,
+
+    /**
+     * Background work that can wait, such as bulk summarization.
+     */
+    BATCH
+
+}
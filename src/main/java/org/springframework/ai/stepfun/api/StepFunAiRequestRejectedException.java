@@ -0,0 +1,20 @@
+package org.springframework.ai.stepfun.api;
+
+import org.springframework.ai.retry.NonTransientAiException;
+
+/**
+ * Thrown when a chat request is rejected on the client side before reaching StepFun, for example because a
+ * client-side limit is exhausted and the request could not wait for capacity. Such requests should not be retried
+ * immediately.
+ */
+public class StepFunAiRequestRejectedException extends NonTransientAiException {
+
+    public StepFunAiRequestRejectedException(String message) {
+        super(message);
+    }
+
+    public StepFunAiRequestRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
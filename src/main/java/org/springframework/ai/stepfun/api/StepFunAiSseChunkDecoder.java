@@ -0,0 +1,237 @@
+package org.springframework.ai.stepfun.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental decoder turning the raw {@code text/event-stream} body of a streaming chat completion into
+ * {@link StepFunAiApi.ChatCompletionChunk} instances.
+ * <p>
+ * The decoder scans each {@link DataBuffer} for {@code data:} fields and feeds the field values straight into a
+ * Jackson non-blocking parser, so a frame is never materialized as an intermediate {@link String}. A decoder holds
+ * the parsing state of exactly one stream and must not be shared between subscriptions.
+ */
+public class StepFunAiSseChunkDecoder implements Closeable {
+
+    /**
+     * Marker returned once the terminating {@code data: [DONE]} frame has been decoded.
+     */
+    static final StepFunAiApi.ChatCompletionChunk DONE = new StepFunAiApi.ChatCompletionChunk(null, null, null, null, null, null);
+
+    private static final byte[] DATA_FIELD = "data:".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] DONE_VALUE = "[DONE]".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int LINE_START = 0;
+    private static final int VALUE_START = 1;
+    private static final int VALUE_FIRST_BYTE = 2;
+    private static final int JSON_VALUE = 3;
+    private static final int DONE_VALUE_BYTES = 4;
+    private static final int SKIP_LINE = 5;
+
+    private final ObjectReader chunkReader;
+
+    private final JsonParser parser;
+
+    private final ByteBufferFeeder feeder;
+
+    private TokenBuffer tokenBuffer;
+
+    private int depth;
+
+    private int state = LINE_START;
+
+    /**
+     * Number of bytes of {@link #DATA_FIELD} or {@link #DONE_VALUE} matched so far.
+     */
+    private int matched;
+
+    private boolean done;
+
+    public StepFunAiSseChunkDecoder() {
+        this(ModelOptionsUtils.OBJECT_MAPPER);
+    }
+
+    public StepFunAiSseChunkDecoder(ObjectMapper objectMapper) {
+        this.chunkReader = objectMapper.readerFor(StepFunAiApi.ChatCompletionChunk.class);
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteBufferParser();
+        }
+        catch (IOException ex) {
+            throw new IllegalStateException("Failed to create non-blocking JSON parser", ex);
+        }
+        this.feeder = (ByteBufferFeeder) this.parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Decode the next part of the event stream. The buffer is always released.
+     * @param buffer the next buffer received from the server
+     * @return the chunks completed by this buffer, followed by {@link #DONE} if the stream end was reached
+     */
+    public List<StepFunAiApi.ChatCompletionChunk> decode(DataBuffer buffer) {
+        List<StepFunAiApi.ChatCompletionChunk> chunks = null;
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (!this.done && iterator.hasNext()) {
+                chunks = decode(iterator.next(), chunks);
+            }
+        }
+        catch (IOException ex) {
+            throw new DecodingException("Failed to decode chat completion chunk", ex);
+        }
+        finally {
+            DataBufferUtils.release(buffer);
+        }
+        if (this.done) {
+            chunks = add(chunks, DONE);
+        }
+        return (chunks != null ? chunks : List.of());
+    }
+
+    /**
+     * @return true once the {@code data: [DONE]} frame has been decoded.
+     */
+    public boolean isDone() {
+        return this.done;
+    }
+
+    private List<StepFunAiApi.ChatCompletionChunk> decode(ByteBuffer input, List<StepFunAiApi.ChatCompletionChunk> chunks)
+            throws IOException {
+
+        int limit = input.limit();
+        // A JSON value may continue from the previous buffer.
+        int valueStart = (this.state == JSON_VALUE ? input.position() : -1);
+
+        for (int i = input.position(); i < limit && !this.done; i++) {
+            byte b = input.get(i);
+            boolean endOfLine = (b == '\n' || b == '\r');
+            switch (this.state) {
+                case LINE_START -> {
+                    if (endOfLine) {
+                        this.matched = 0;
+                    }
+                    else if (b == DATA_FIELD[this.matched]) {
+                        if (++this.matched == DATA_FIELD.length) {
+                            this.matched = 0;
+                            this.state = VALUE_START;
+                        }
+                    }
+                    else {
+                        // event, id, retry or comment lines carry nothing we need.
+                        this.matched = 0;
+                        this.state = SKIP_LINE;
+                    }
+                }
+                case VALUE_START, VALUE_FIRST_BYTE -> {
+                    if (endOfLine) {
+                        this.state = LINE_START;
+                    }
+                    else if (b == ' ' && this.state == VALUE_START) {
+                        this.state = VALUE_FIRST_BYTE;
+                    }
+                    else if (b == DONE_VALUE[0]) {
+                        this.matched = 1;
+                        this.state = DONE_VALUE_BYTES;
+                    }
+                    else {
+                        valueStart = i;
+                        this.state = JSON_VALUE;
+                    }
+                }
+                case JSON_VALUE -> {
+                    if (endOfLine) {
+                        chunks = feed(input, valueStart, i, chunks);
+                        valueStart = -1;
+                        this.state = LINE_START;
+                    }
+                }
+                case DONE_VALUE_BYTES -> {
+                    if (endOfLine) {
+                        this.done = (this.matched == DONE_VALUE.length);
+                        this.matched = 0;
+                        this.state = LINE_START;
+                    }
+                    else if (this.matched < DONE_VALUE.length && b == DONE_VALUE[this.matched]) {
+                        this.matched++;
+                    }
+                    else {
+                        this.matched = 0;
+                        this.state = SKIP_LINE;
+                    }
+                }
+                default -> {
+                    if (endOfLine) {
+                        this.state = LINE_START;
+                    }
+                }
+            }
+        }
+
+        if (this.state == JSON_VALUE && valueStart >= 0) {
+            chunks = feed(input, valueStart, limit, chunks);
+        }
+        return chunks;
+    }
+
+    private List<StepFunAiApi.ChatCompletionChunk> feed(ByteBuffer input, int start, int end,
+                                                         List<StepFunAiApi.ChatCompletionChunk> chunks) throws IOException {
+        if (start >= end) {
+            return chunks;
+        }
+        this.feeder.feedInput(input.slice(start, end - start));
+
+        JsonToken token;
+        while ((token = this.parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            if (this.tokenBuffer == null) {
+                this.tokenBuffer = new TokenBuffer(this.parser, null);
+            }
+            this.tokenBuffer.copyCurrentEvent(this.parser);
+            if (token.isStructStart()) {
+                this.depth++;
+            }
+            else if (token.isStructEnd()) {
+                this.depth--;
+            }
+            if (this.depth == 0) {
+                StepFunAiApi.ChatCompletionChunk chunk = this.chunkReader.readValue(this.tokenBuffer.asParser());
+                this.tokenBuffer = null;
+                chunks = add(chunks, chunk);
+            }
+        }
+        return chunks;
+    }
+
+    private static List<StepFunAiApi.ChatCompletionChunk> add(List<StepFunAiApi.ChatCompletionChunk> chunks,
+                                                               StepFunAiApi.ChatCompletionChunk chunk) {
+        if (chunks == null) {
+            chunks = new ArrayList<>(2);
+        }
+        chunks.add(chunk);
+        return chunks;
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.parser.close();
+        }
+        catch (IOException ex) {
+            // nothing left to release
+        }
+    }
+
+}
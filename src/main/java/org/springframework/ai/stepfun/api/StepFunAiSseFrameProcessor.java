@@ -0,0 +1,364 @@
+package org.springframework.ai.stepfun.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Applies the {@link StepFunAiEventStreamHooks} of one relayed event stream to its frames.
+ * <p>
+ * The bytes of each frame, up to the blank line ending it, are gathered to find its {@code data:} value. Without a
+ * content filter the upstream buffers are relayed as they are, and a frame is only parsed when it mentions a usage;
+ * with a filter, the kept frames of each buffer are relayed as one new buffer, and only the frames whose content
+ * changed are re-encoded. A processor holds the state of exactly one stream and must not be shared between
+ * subscriptions.
+ */
+class StepFunAiSseFrameProcessor {
+
+    /**
+     * Passed to the chunk listener for each frame without usage, which is never deserialized.
+     */
+    static final StepFunAiApi.ChatCompletionChunk FRAME = new StepFunAiApi.ChatCompletionChunk(null, null, null, null, null, null);
+
+    private static final byte[] DATA_FIELD = "data:".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] DONE_VALUE = "[DONE]".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] USAGE_FIELD = "\"usage\"".getBytes(StandardCharsets.US_ASCII);
+
+    private static final JsonFactory JSON_FACTORY = ModelOptionsUtils.OBJECT_MAPPER.getFactory();
+
+    private static final ObjectReader USAGE_READER = ModelOptionsUtils.OBJECT_MAPPER.readerFor(StepFunAiApi.Usage.class);
+
+    private final Consumer<StepFunAiApi.Usage> usageConsumer;
+
+    private final UnaryOperator<String> contentFilter;
+
+    private final Consumer<StepFunAiApi.ChatCompletionChunk> chunkListener;
+
+    private byte[] frame = new byte[512];
+
+    private int length;
+
+    private int lineLength;
+
+    private boolean lastCr;
+
+    /**
+     * A blank line ended by a {@code \r}, which may still be followed by a {@code \n}.
+     */
+    private boolean pendingEnd;
+
+    /**
+     * The kept frames of the current buffer, when a content filter is set.
+     */
+    private ByteArrayOutputStream relayed;
+
+    /**
+     * @param hooks the hooks of the stream
+     * @param chunkListener called for each data frame with its usage chunk, or with {@link #FRAME}; may be {@code null}
+     */
+    StepFunAiSseFrameProcessor(StepFunAiEventStreamHooks hooks, Consumer<StepFunAiApi.ChatCompletionChunk> chunkListener) {
+        this.usageConsumer = hooks.getUsageConsumer();
+        this.contentFilter = hooks.getContentFilter();
+        this.chunkListener = chunkListener;
+        if (this.contentFilter != null) {
+            this.relayed = new ByteArrayOutputStream(1024);
+        }
+    }
+
+    /**
+     * Process the next part of the event stream.
+     * @param buffer the next buffer received from the server
+     * @return the buffers to relay: the given buffer itself without a content filter, otherwise a new buffer with the
+     * kept frames, if any, in which case the given buffer is released
+     */
+    List<DataBuffer> process(DataBuffer buffer) {
+        boolean filtering = (this.contentFilter != null);
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                scan(iterator.next());
+            }
+        }
+        catch (RuntimeException ex) {
+            if (!filtering) {
+                DataBufferUtils.release(buffer);
+            }
+            throw ex;
+        }
+        finally {
+            if (filtering) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+        if (!filtering) {
+            return List.of(buffer);
+        }
+        DataBuffer kept = drainRelayed(buffer.factory());
+        return (kept != null ? List.of(kept) : List.of());
+    }
+
+    /**
+     * Process the last frame of a stream that did not end with a blank line.
+     * @param bufferFactory the factory of the relayed buffers
+     * @return the last kept frame to relay, or {@code null}
+     */
+    DataBuffer flush(DataBufferFactory bufferFactory) {
+        this.pendingEnd = false;
+        if (this.length > 0) {
+            endFrame();
+        }
+        return (this.contentFilter != null ? drainRelayed(bufferFactory) : null);
+    }
+
+    private void scan(ByteBuffer input) {
+        int limit = input.limit();
+        int segmentStart = input.position();
+        for (int i = segmentStart; i < limit; i++) {
+            byte b = input.get(i);
+            if (this.pendingEnd) {
+                this.pendingEnd = false;
+                if (b == '\n') {
+                    append(input, segmentStart, i + 1);
+                    segmentStart = i + 1;
+                    endFrame();
+                    this.lastCr = false;
+                    continue;
+                }
+                append(input, segmentStart, i);
+                segmentStart = i;
+                endFrame();
+            }
+            if (b == '\n' && this.lastCr) {
+                this.lastCr = false;
+                continue;
+            }
+            this.lastCr = (b == '\r');
+            if (b == '\n' || b == '\r') {
+                if (this.lineLength == 0) {
+                    if (b == '\r') {
+                        this.pendingEnd = true;
+                    }
+                    else {
+                        append(input, segmentStart, i + 1);
+                        segmentStart = i + 1;
+                        endFrame();
+                    }
+                }
+                this.lineLength = 0;
+            }
+            else {
+                this.lineLength++;
+            }
+        }
+        append(input, segmentStart, limit);
+    }
+
+    private void append(ByteBuffer input, int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        if (this.length + count > this.frame.length) {
+            this.frame = Arrays.copyOf(this.frame, Math.max(this.length + count, this.frame.length * 2));
+        }
+        input.get(from, this.frame, this.length, count);
+        this.length += count;
+    }
+
+    private void endFrame() {
+        try {
+            byte[] kept = processFrame(this.frame, this.length);
+            if (kept != null && this.relayed != null) {
+                this.relayed.write(kept, 0, (kept == this.frame ? this.length : kept.length));
+            }
+        }
+        catch (IOException ex) {
+            throw new DecodingException("Failed to process event stream frame", ex);
+        }
+        finally {
+            this.length = 0;
+        }
+    }
+
+    /**
+     * @return the frame to relay, possibly the given array itself, or {@code null} to drop the frame
+     */
+    private byte[] processFrame(byte[] frame, int length) throws IOException {
+        int valueStart = dataValue(frame, length);
+        if (valueStart < 0) {
+            return frame;
+        }
+        int valueEnd = valueStart;
+        while (valueEnd < length && frame[valueEnd] != '\n' && frame[valueEnd] != '\r') {
+            valueEnd++;
+        }
+        if (Arrays.equals(frame, valueStart, valueEnd, DONE_VALUE, 0, DONE_VALUE.length)) {
+            return frame;
+        }
+
+        boolean wantUsage = (this.usageConsumer != null || this.chunkListener != null)
+                && indexOf(frame, valueStart, valueEnd, USAGE_FIELD) >= 0;
+        List<String> contents = (this.contentFilter != null ? new ArrayList<>(1) : null);
+        StepFunAiApi.Usage usage = null;
+        if (wantUsage || contents != null) {
+            usage = read(frame, valueStart, valueEnd - valueStart, wantUsage, contents);
+        }
+        if (usage != null && this.usageConsumer != null) {
+            this.usageConsumer.accept(usage);
+        }
+        if (this.chunkListener != null) {
+            this.chunkListener.accept(usage != null
+                    ? new StepFunAiApi.ChatCompletionChunk(null, null, null, null, null, null, usage) : FRAME);
+        }
+        if (contents == null || contents.isEmpty()) {
+            return frame;
+        }
+
+        List<String> filtered = new ArrayList<>(contents.size());
+        boolean changed = false;
+        for (String content : contents) {
+            String result = this.contentFilter.apply(content);
+            if (result == null) {
+                return null;
+            }
+            changed |= !Objects.equals(result, content);
+            filtered.add(result);
+        }
+        return (changed ? rewrite(frame, length, valueStart, valueEnd, filtered) : frame);
+    }
+
+    /**
+     * Walk the JSON value of a frame.
+     * @return the usage at the root of the value if wanted, or {@code null}
+     */
+    private static StepFunAiApi.Usage read(byte[] frame, int offset, int count, boolean wantUsage, List<String> contents)
+            throws IOException {
+        StepFunAiApi.Usage usage = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(frame, offset, count)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            if (contents == null) {
+                // Only the root fields are visited.
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    if (parser.nextToken() == JsonToken.START_OBJECT && "usage".equals(name)) {
+                        usage = USAGE_READER.readValue(parser);
+                    }
+                    else {
+                        parser.skipChildren();
+                    }
+                }
+                return usage;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT && wantUsage && isRootField(parser, "usage")) {
+                    usage = USAGE_READER.readValue(parser);
+                }
+                else if (token == JsonToken.VALUE_STRING && isDeltaContent(parser)) {
+                    contents.add(parser.getText());
+                }
+            }
+        }
+        return usage;
+    }
+
+    private static byte[] rewrite(byte[] frame, int length, int valueStart, int valueEnd, List<String> contents)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length + 16);
+        out.write(frame, 0, valueStart);
+        try (JsonParser parser = JSON_FACTORY.createParser(frame, valueStart, valueEnd - valueStart);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            int index = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.VALUE_STRING && isDeltaContent(parser)) {
+                    generator.writeString(contents.get(index++));
+                }
+                else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        }
+        out.write(frame, valueEnd, length - valueEnd);
+        return out.toByteArray();
+    }
+
+    private static boolean isRootField(JsonParser parser, String name) {
+        // The context of the object just started, inside the root object.
+        JsonStreamContext parent = parser.getParsingContext().getParent();
+        return (parent != null && parent.getParent() != null && parent.getParent().inRoot()
+                && name.equals(parent.getCurrentName()));
+    }
+
+    private static boolean isDeltaContent(JsonParser parser) {
+        JsonStreamContext context = parser.getParsingContext();
+        return ("content".equals(context.getCurrentName()) && context.getParent() != null
+                && "delta".equals(context.getParent().getCurrentName()));
+    }
+
+    /**
+     * @return the start of the value of the first {@code data:} field of the frame, or -1 if there is none
+     */
+    private static int dataValue(byte[] frame, int length) {
+        int lineStart = 0;
+        while (lineStart < length) {
+            if (length - lineStart >= DATA_FIELD.length
+                    && Arrays.equals(frame, lineStart, lineStart + DATA_FIELD.length, DATA_FIELD, 0, DATA_FIELD.length)) {
+                int valueStart = lineStart + DATA_FIELD.length;
+                return (valueStart < length && frame[valueStart] == ' ' ? valueStart + 1 : valueStart);
+            }
+            while (lineStart < length && frame[lineStart] != '\n' && frame[lineStart] != '\r') {
+                lineStart++;
+            }
+            while (lineStart < length && (frame[lineStart] == '\n' || frame[lineStart] == '\r')) {
+                lineStart++;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte[] target) {
+        outer:
+        for (int i = from; i <= to - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private DataBuffer drainRelayed(DataBufferFactory bufferFactory) {
+        if (this.relayed.size() == 0) {
+            return null;
+        }
+        DataBuffer buffer = bufferFactory.wrap(this.relayed.toByteArray());
+        this.relayed.reset();
+        return buffer;
+    }
+
+}
@@ -0,0 +1,228 @@
+package org.springframework.ai.stepfun.api;
+
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mutable accumulator folding the chunks of one streaming window into a single {@link StepFunAiApi.ChatCompletionChunk}.
+ * <p>
+ * It follows the merge rules of {@link StepFunAiStreamFunctionCallingHelper}, but appends every tool call argument
+ * fragment exactly once and creates the immutable result only in {@link #toChunk()}, so merging a tool call is linear
+ * in the size of its arguments. An accumulator belongs to a single window and is not thread-safe.
+ */
+public class StepFunAiStreamChunkAccumulator {
+
+    private StepFunAiApi.ChatCompletionChunk first;
+
+    private int count;
+
+    private String id;
+
+    private String object;
+
+    private Long created;
+
+    private String model;
+
+    private String requestId;
+
+    private StepFunAiApi.Usage usage;
+
+    private boolean hasChoice;
+
+    private Integer index;
+
+    private StepFunAiApi.ChatCompletionFinishReason finishReason;
+
+    private String content;
+
+    private StepFunAiApi.ChatCompletionMessage.Role role;
+
+    private String name;
+
+    private List<ToolCallBuilder> toolCalls;
+
+    /**
+     * Set when the first chunk needs rewriting, e.g. because its tool calls arrived without an ID.
+     */
+    private boolean rewritten;
+
+    /**
+     * Add the next chunk of the window.
+     * @param chunk the chunk to add
+     * @return this accumulator
+     */
+    public StepFunAiStreamChunkAccumulator append(StepFunAiApi.ChatCompletionChunk chunk) {
+        boolean isFirst = (this.count++ == 0);
+        if (isFirst) {
+            this.first = chunk;
+        }
+
+        this.id = (chunk.id() != null ? chunk.id() : this.id);
+        this.object = (chunk.object() != null ? chunk.object() : this.object);
+        this.created = (chunk.created() != null ? chunk.created() : this.created);
+        this.model = (chunk.model() != null ? chunk.model() : this.model);
+        this.requestId = (chunk.requestId() != null ? chunk.requestId() : this.requestId);
+        this.usage = (chunk.usage() != null ? chunk.usage() : this.usage);
+
+        if (CollectionUtils.isEmpty(chunk.choices())) {
+            return this;
+        }
+        StepFunAiApi.ChatCompletionChunk.ChunkChoice choice = chunk.choices().get(0);
+        this.hasChoice = true;
+        this.index = (choice.index() != null ? choice.index() : this.index);
+        this.finishReason = (choice.finishReason() != null ? choice.finishReason() : this.finishReason);
+
+        StepFunAiApi.ChatCompletionMessage delta = choice.delta();
+        if (delta == null) {
+            return this;
+        }
+        this.content = (delta.content() != null ? delta.content() : this.content);
+        this.role = (delta.role() != null ? delta.role() : this.role);
+        this.name = (delta.name() != null ? delta.name() : this.name);
+
+        if (!CollectionUtils.isEmpty(delta.toolCalls())) {
+            if (isFirst) {
+                appendFirstToolCalls(delta.toolCalls());
+            }
+            else {
+                appendToolCall(delta.toolCalls());
+            }
+        }
+        return this;
+    }
+
+    private void appendFirstToolCalls(List<StepFunAiApi.ChatCompletionMessage.ToolCall> deltaToolCalls) {
+        this.toolCalls = new ArrayList<>(deltaToolCalls.size());
+        boolean hasId = deltaToolCalls.stream().anyMatch(toolCall -> toolCall.id() != null);
+        String generatedId = (hasId ? null : UUID.randomUUID().toString());
+        for (StepFunAiApi.ChatCompletionMessage.ToolCall toolCall : deltaToolCalls) {
+            ToolCallBuilder builder = new ToolCallBuilder(toolCall);
+            if (generatedId != null) {
+                builder.id = generatedId;
+                builder.type = "function";
+            }
+            this.toolCalls.add(builder);
+        }
+        this.rewritten = (generatedId != null);
+    }
+
+    private void appendToolCall(List<StepFunAiApi.ChatCompletionMessage.ToolCall> deltaToolCalls) {
+        if (deltaToolCalls.size() > 1) {
+            throw new IllegalStateException("Currently only one tool call is supported per message!");
+        }
+        StepFunAiApi.ChatCompletionMessage.ToolCall toolCall = deltaToolCalls.get(0);
+        if (this.toolCalls == null) {
+            this.toolCalls = new ArrayList<>(2);
+        }
+        if (toolCall.id() != null || this.toolCalls.isEmpty()) {
+            this.toolCalls.add(new ToolCallBuilder(toolCall));
+        }
+        else {
+            this.toolCalls.get(this.toolCalls.size() - 1).append(toolCall);
+        }
+    }
+
+    /**
+     * @return the merged chunk, or {@code null} if no chunk was added.
+     */
+    public StepFunAiApi.ChatCompletionChunk toChunk() {
+        if (this.count == 0) {
+            return null;
+        }
+        if (this.count == 1 && !this.rewritten) {
+            // Nothing was merged, the chunk can be passed on as is.
+            return this.first;
+        }
+        if (!this.hasChoice) {
+            return new StepFunAiApi.ChatCompletionChunk(this.id, this.object, this.created, this.model, this.requestId,
+                    List.of(), this.usage);
+        }
+
+        List<StepFunAiApi.ChatCompletionMessage.ToolCall> mergedToolCalls = List.of();
+        if (this.toolCalls != null) {
+            mergedToolCalls = new ArrayList<>(this.toolCalls.size());
+            for (ToolCallBuilder toolCall : this.toolCalls) {
+                mergedToolCalls.add(toolCall.build());
+            }
+        }
+        StepFunAiApi.ChatCompletionMessage.Role mergedRole = (this.role != null ? this.role
+                : StepFunAiApi.ChatCompletionMessage.Role.ASSISTANT);
+        String mergedContent = (this.content != null ? this.content : "");
+        StepFunAiApi.ChatCompletionMessage message = new StepFunAiApi.ChatCompletionMessage(mergedContent, mergedRole,
+                this.name, mergedToolCalls);
+        StepFunAiApi.ChatCompletionChunk.ChunkChoice choice = new StepFunAiApi.ChatCompletionChunk.ChunkChoice(this.index,
+                message, this.finishReason);
+        return new StepFunAiApi.ChatCompletionChunk(this.id, this.object, this.created, this.model, this.requestId,
+                List.of(choice), this.usage);
+    }
+
+    private static final class ToolCallBuilder {
+
+        private String id;
+
+        private String type;
+
+        private String name;
+
+        private boolean hasFunction;
+
+        /**
+         * The arguments while only a single fragment has been seen.
+         */
+        private String arguments;
+
+        /**
+         * The arguments once a second fragment arrived.
+         */
+        private StringBuilder argumentsBuilder;
+
+        ToolCallBuilder(StepFunAiApi.ChatCompletionMessage.ToolCall toolCall) {
+            this.id = toolCall.id();
+            this.type = toolCall.type();
+            if (toolCall.function() != null) {
+                this.hasFunction = true;
+                this.name = toolCall.function().name();
+                this.arguments = toolCall.function().arguments();
+            }
+        }
+
+        void append(StepFunAiApi.ChatCompletionMessage.ToolCall toolCall) {
+            this.type = (toolCall.type() != null ? toolCall.type() : this.type);
+            StepFunAiApi.ChatCompletionMessage.ChatCompletionFunction function = toolCall.function();
+            if (function == null) {
+                return;
+            }
+            this.hasFunction = true;
+            this.name = (function.name() != null ? function.name() : this.name);
+            if (function.arguments() == null) {
+                return;
+            }
+            if (this.argumentsBuilder != null) {
+                this.argumentsBuilder.append(function.arguments());
+            }
+            else if (this.arguments == null) {
+                this.arguments = function.arguments();
+            }
+            else {
+                this.argumentsBuilder = new StringBuilder(Math.max(64, 2 * (this.arguments.length() + function.arguments().length())));
+                this.argumentsBuilder.append(this.arguments).append(function.arguments());
+                this.arguments = null;
+            }
+        }
+
+        StepFunAiApi.ChatCompletionMessage.ToolCall build() {
+            StepFunAiApi.ChatCompletionMessage.ChatCompletionFunction function = null;
+            if (this.hasFunction) {
+                String mergedArguments = (this.argumentsBuilder != null ? this.argumentsBuilder.toString() : this.arguments);
+                function = new StepFunAiApi.ChatCompletionMessage.ChatCompletionFunction(this.name, mergedArguments);
+            }
+            return new StepFunAiApi.ChatCompletionMessage.ToolCall(this.id, this.type, function);
+        }
+
+    }
+
+}
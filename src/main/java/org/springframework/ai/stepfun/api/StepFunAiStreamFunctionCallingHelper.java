@@ -23,13 +23,14 @@ public class StepFunAiStreamFunctionCallingHelper {
         String model = (current.model() != null ? current.model() : previous.model());
         String requestId = (current.requestId() != null ? current.requestId() : previous.requestId());
         String object = (current.object() != null ? current.object() : previous.object());
+        StepFunAiApi.Usage usage = (current.usage() != null ? current.usage() : previous.usage());
 
         StepFunAiApi.ChatCompletionChunk.ChunkChoice previousChoice0 = (CollectionUtils.isEmpty(previous.choices()) ? null : previous.choices().get(0));
         StepFunAiApi.ChatCompletionChunk.ChunkChoice currentChoice0 = (CollectionUtils.isEmpty(current.choices()) ? null : current.choices().get(0));
 
         StepFunAiApi.ChatCompletionChunk.ChunkChoice choice = merge(previousChoice0, currentChoice0);
 
-        return new StepFunAiApi.ChatCompletionChunk(id, object, created, model, requestId, List.of(choice));
+        return new StepFunAiApi.ChatCompletionChunk(id, object, created, model, requestId, List.of(choice), usage);
     }
 
     private StepFunAiApi.ChatCompletionChunk.ChunkChoice merge(StepFunAiApi.ChatCompletionChunk.ChunkChoice previous, StepFunAiApi.ChatCompletionChunk.ChunkChoice current) {
@@ -0,0 +1,149 @@
+package org.springframework.ai.stepfun.api;
+
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.stepfun.util.ExpiringLruCache;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+
+/**
+ * Fast local estimate of the prompt tokens of a {@link StepFunAiApi.ChatCompletionRequest}, without the StepFun
+ * tokenizer: about one token per CJK character and one per three other characters, plus a few tokens of framing per
+ * message. The estimate is meant to err on the high side.
+ * <p>
+ * The count of each message and tool definition is cached, so that re-sending a long conversation only estimates its
+ * new turns. Messages are cached by value, which stays cheap as long as the old turns are the same string instances.
+ */
+public class StepFunAiTokenEstimator {
+
+    /**
+     * Tokens framing each message: role and separators.
+     */
+    private static final int MESSAGE_OVERHEAD = 4;
+
+    /**
+     * Tokens priming the reply of the model.
+     */
+    private static final int REPLY_OVERHEAD = 3;
+
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private final ExpiringLruCache<StepFunAiApi.ChatCompletionMessage, Integer> messageTokens;
+
+    private final ExpiringLruCache<StepFunAiApi.FunctionTool, Integer> toolTokens;
+
+    public StepFunAiTokenEstimator() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize the maximum number of messages whose count is cached
+     */
+    public StepFunAiTokenEstimator(int cacheSize) {
+        this.messageTokens = new ExpiringLruCache<>(cacheSize, null);
+        this.toolTokens = new ExpiringLruCache<>(Math.max(1, cacheSize / 10), null);
+    }
+
+    /**
+     * @param request the request
+     * @return the estimated prompt tokens of the request: its messages and tool definitions
+     */
+    public int estimatePrompt(StepFunAiApi.ChatCompletionRequest request) {
+        int tokens = REPLY_OVERHEAD + estimateMessages(request.messages());
+        if (!CollectionUtils.isEmpty(request.tools())) {
+            for (StepFunAiApi.FunctionTool tool : request.tools()) {
+                tokens += estimate(tool);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @param messages the messages, may be {@code null}
+     * @return the estimated tokens of the messages
+     */
+    public int estimateMessages(List<StepFunAiApi.ChatCompletionMessage> messages) {
+        int tokens = 0;
+        if (messages != null) {
+            for (StepFunAiApi.ChatCompletionMessage message : messages) {
+                tokens += estimate(message);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @param message the message
+     * @return the estimated tokens of the message
+     */
+    public int estimate(StepFunAiApi.ChatCompletionMessage message) {
+        Integer cached = this.messageTokens.get(message);
+        if (cached != null) {
+            return cached;
+        }
+        int tokens = MESSAGE_OVERHEAD + estimate(message.content()) + estimate(message.name());
+        if (message.toolCalls() != null) {
+            for (StepFunAiApi.ChatCompletionMessage.ToolCall toolCall : message.toolCalls()) {
+                tokens += MESSAGE_OVERHEAD;
+                if (toolCall.function() != null) {
+                    tokens += estimate(toolCall.function().name()) + estimate(toolCall.function().arguments());
+                }
+            }
+        }
+        this.messageTokens.put(message, tokens);
+        return tokens;
+    }
+
+    /**
+     * @param tool the tool definition
+     * @return the estimated tokens of the tool definition
+     */
+    public int estimate(StepFunAiApi.FunctionTool tool) {
+        Integer cached = this.toolTokens.get(tool);
+        if (cached != null) {
+            return cached;
+        }
+        int tokens = MESSAGE_OVERHEAD;
+        if (tool.function() != null) {
+            tokens += estimate(tool.function().name()) + estimate(tool.function().description());
+            if (tool.function().parameters() != null) {
+                tokens += estimate(ModelOptionsUtils.toJsonString(tool.function().parameters()));
+            }
+        }
+        this.toolTokens.put(tool, tokens);
+        return tokens;
+    }
+
+    /**
+     * @param text the text, may be {@code null}
+     * @return the estimated tokens of the text
+     */
+    public int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                cjk++;
+            }
+            else {
+                other++;
+            }
+        }
+        return cjk + (other + 2) / 3;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        if (codePoint < 0x2E80) {
+            return false;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return (script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL);
+    }
+
+}
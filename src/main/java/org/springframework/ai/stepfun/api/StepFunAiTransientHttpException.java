@@ -0,0 +1,52 @@
+package org.springframework.ai.stepfun.api;
+
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.ai.stepfun.util.ApiUtils;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+
+/**
+ * Thrown by blocking calls when the configured response error handler fails a 429 or 5xx response as transient, so
+ * that retries see the status and the {@code Retry-After} delay requested by StepFun, which the handler drops.
+ */
+public class StepFunAiTransientHttpException extends TransientAiException {
+
+    private final HttpStatusCode statusCode;
+
+    private final Duration retryAfter;
+
+    /**
+     * @param statusCode the status of the response
+     * @param message the message, usually with the response body
+     * @param retryAfter the {@code Retry-After} header of the response, may be {@code null}
+     */
+    public StepFunAiTransientHttpException(HttpStatusCode statusCode, String message, String retryAfter) {
+        this(statusCode, message, retryAfter, null);
+    }
+
+    /**
+     * @param statusCode the status of the response
+     * @param message the message, usually with the response body
+     * @param retryAfter the {@code Retry-After} header of the response, may be {@code null}
+     * @param cause the failure raised by the response error handler, may be {@code null}
+     */
+    public StepFunAiTransientHttpException(HttpStatusCode statusCode, String message, String retryAfter, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+        // An HTTP date is resolved against the time the response was received.
+        this.retryAfter = ApiUtils.parseRetryAfter(retryAfter);
+    }
+
+    public HttpStatusCode getStatusCode() {
+        return this.statusCode;
+    }
+
+    /**
+     * @return the delay requested by the server, or {@code null} if none
+     */
+    public Duration getRetryAfter() {
+        return this.retryAfter;
+    }
+
+}
@@ -1,36 +1,98 @@
 package org.springframework.ai.stepfun.autoconfigure;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.ai.autoconfigure.retry.SpringAiRetryAutoConfiguration;
 import org.springframework.ai.model.function.FunctionCallback;
 import org.springframework.ai.model.function.FunctionCallbackContext;
+import org.springframework.ai.stepfun.StepFunAiBatchClient;
 import org.springframework.ai.stepfun.StepFunAiChatClient;
+import org.springframework.ai.stepfun.StepFunAiReactiveRetry;
+import org.springframework.ai.stepfun.StepFunAiToolExecutor;
 import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiApiInterceptor;
+import org.springframework.ai.stepfun.api.StepFunAiApiListener;
+import org.springframework.ai.stepfun.api.StepFunAiHttpConnector;
+import org.springframework.ai.stepfun.api.StepFunAiKeyAdmission;
+import org.springframework.ai.stepfun.api.StepFunAiKeyPool;
+import org.springframework.ai.stepfun.api.StepFunAiTokenEstimator;
+import org.springframework.ai.stepfun.cache.FileSystemStepFunAiChatCache;
+import org.springframework.ai.stepfun.cache.InMemoryStepFunAiChatCache;
+import org.springframework.ai.stepfun.cache.StepFunAiChatCache;
+import org.springframework.ai.stepfun.cache.StepFunAiResponseCache;
+import org.springframework.ai.stepfun.cache.StepFunAiResponseCacheMetrics;
+import org.springframework.ai.stepfun.cache.TieredStepFunAiChatCache;
+import org.springframework.ai.stepfun.interceptor.StepFunAiBulkhead;
+import org.springframework.ai.stepfun.interceptor.StepFunAiCircuitBreaker;
+import org.springframework.ai.stepfun.interceptor.StepFunAiFallback;
+import org.springframework.ai.stepfun.interceptor.StepFunAiPromptBudget;
+import org.springframework.ai.stepfun.interceptor.StepFunAiRateLimiter;
+import org.springframework.ai.stepfun.interceptor.StepFunAiRequestCoalescer;
+import org.springframework.ai.stepfun.interceptor.StepFunAiRequestHedger;
+import org.springframework.ai.stepfun.interceptor.StepFunAiRequestScheduler;
+import org.springframework.ai.stepfun.interceptor.StepFunAiResilienceMetrics;
+import org.springframework.ai.stepfun.observation.StepFunAiApiMetrics;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.boot.autoconfigure.web.client.RestClientAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Schedulers;
 
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * {@link AutoConfiguration Auto-configuration} for stepFun Chat Client.
+ * <p>
+ * Runs after {@link TaskExecutionAutoConfiguration}, whose {@code applicationTaskExecutor} backs off when an
+ * {@link Executor} bean exists, so the executors of this client never replace the default executor of the application.
  */
-@AutoConfiguration(after = {RestClientAutoConfiguration.class, SpringAiRetryAutoConfiguration.class})
-@EnableConfigurationProperties({StepFunAiChatProperties.class, StepFunAiConnectionProperties.class})
+@AutoConfiguration(after = {RestClientAutoConfiguration.class, SpringAiRetryAutoConfiguration.class, TaskExecutionAutoConfiguration.class},
+        afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@EnableConfigurationProperties({StepFunAiChatProperties.class, StepFunAiConnectionProperties.class, StepFunAiHttpProperties.class,
+        StepFunAiCacheProperties.class, StepFunAiCoalescingProperties.class,
+        StepFunAiRateLimitProperties.class, StepFunAiKeyPoolProperties.class,
+        StepFunAiToolProperties.class, StepFunAiRetryProperties.class, StepFunAiResilienceProperties.class,
+        StepFunAiHedgingProperties.class, StepFunAiSchedulerProperties.class, StepFunAiBatchProperties.class,
+        StepFunAiPromptBudgetProperties.class})
 @ConditionalOnClass(StepFunAiApi.class)
 public class StepFunAiAutoConfiguration {
 
+    /**
+     * Name of the executor of asynchronous calls and function callbacks.
+     */
+    public static final String STEPFUN_TASK_EXECUTOR_BEAN_NAME = "stepFunAiTaskExecutor";
+
+    /**
+     * Name of the bounded executor of parallel tool calls.
+     */
+    public static final String STEPFUN_TOOL_TASK_EXECUTOR_BEAN_NAME = "stepFunAiToolTaskExecutor";
+
     @Bean
     @ConditionalOnMissingBean
     @ConditionalOnProperty(prefix = StepFunAiChatProperties.CONFIG_PREFIX, name = "enabled")
@@ -39,23 +101,310 @@ public class StepFunAiAutoConfiguration {
                                                    List<FunctionCallback> toolFunctionCallbacks,
                                                    FunctionCallbackContext functionCallbackContext,
                                                    RestClient.Builder restClientBuilder,
+                                                   ObjectProvider<WebClient.Builder> webClientBuilderProvider,
+                                                   ObjectProvider<StepFunAiHttpConnector> httpConnectorProvider,
                                                    ResponseErrorHandler responseErrorHandler,
-                                                   ObjectProvider<RetryTemplate> retryTemplateProvider) {
+                                                   ObjectProvider<RetryTemplate> retryTemplateProvider,
+                                                   ObjectProvider<StepFunAiResponseCache> responseCacheProvider,
+                                                   ObjectProvider<StepFunAiApiInterceptor> interceptorsProvider,
+                                                   ObjectProvider<StepFunAiApiListener> listenersProvider,
+                                                   ObjectProvider<StepFunAiKeyPool> keyPoolProvider,
+                                                   ObjectProvider<StepFunAiKeyAdmission> keyAdmissionProvider,
+                                                   StepFunAiHttpProperties httpProperties,
+                                                   @Qualifier(STEPFUN_TASK_EXECUTOR_BEAN_NAME) ObjectProvider<AsyncTaskExecutor> taskExecutorProvider,
+                                                   ObjectProvider<StepFunAiToolExecutor> toolExecutorProvider,
+                                                   ObjectProvider<ObservationRegistry> observationRegistryProvider,
+                                                   ObjectProvider<StepFunAiReactiveRetry> reactiveRetryProvider) {
         if (!CollectionUtils.isEmpty(toolFunctionCallbacks)) {
             chatProperties.getOptions().getFunctionCallbacks().addAll(toolFunctionCallbacks);
         }
 
         String baseUrl = StringUtils.hasText(chatProperties.getBaseUrl()) ? chatProperties.getBaseUrl() : connectionProperties.getBaseUrl();
         String apiKey = StringUtils.hasText(chatProperties.getApiKey()) ? chatProperties.getApiKey() : connectionProperties.getApiKey();
+        StepFunAiKeyPool keyPool = keyPoolProvider.getIfAvailable();
+        if (!StringUtils.hasText(apiKey) && keyPool != null) {
+            // The pool supplies the key of every request.
+            apiKey = keyPool.getEndpoints().get(0).apiKey();
+        }
         Assert.hasText(baseUrl, "stepFun AI base URL must be set");
         Assert.hasText(apiKey, "stepFun API key must be set");
 
-        StepFunAiApi stepFunAiApi = new StepFunAiApi(baseUrl, apiKey, restClientBuilder, responseErrorHandler);
+        WebClient.Builder webClientBuilder = webClientBuilderProvider.getIfAvailable(WebClient::builder);
+        StepFunAiHttpConnector httpConnector = httpConnectorProvider.getIfAvailable();
+        AsyncTaskExecutor taskExecutor = taskExecutorProvider.getIfAvailable();
+        boolean virtual = (connectionProperties.getExecution() == StepFunAiConnectionProperties.Execution.VIRTUAL);
+        if (httpConnector != null) {
+            if (!virtual) {
+                httpConnector.apply(restClientBuilder);
+            }
+            httpConnector.apply(webClientBuilder);
+        }
+        if (virtual) {
+            // The JDK client parks the calling virtual thread instead of blocking on a reactive exchange.
+            restClientBuilder.requestFactory(jdkClientHttpRequestFactory(httpProperties, taskExecutor));
+        }
+
+        StepFunAiApi stepFunAiApi = new StepFunAiApi(baseUrl, apiKey, restClientBuilder, webClientBuilder, responseErrorHandler);
+        stepFunAiApi.setKeyPool(keyPool);
+        // With a key pool, a key admission such as the rate limiter runs once the key is leased, not as an interceptor.
+        StepFunAiKeyAdmission keyAdmission = (keyPool != null ? keyAdmissionProvider.getIfAvailable() : null);
+        stepFunAiApi.setKeyAdmission(keyAdmission);
+        stepFunAiApi.setInterceptors(interceptorsProvider.orderedStream()
+                .filter(interceptor -> interceptor != keyAdmission)
+                .toList());
+        stepFunAiApi.setListeners(listenersProvider.orderedStream().toList());
 
         RetryTemplate retryTemplate = retryTemplateProvider.getIfAvailable(() -> RetryTemplate.builder().build());
-        return new StepFunAiChatClient(stepFunAiApi, chatProperties.getOptions(), functionCallbackContext, retryTemplate);
+        StepFunAiChatClient chatClient = new StepFunAiChatClient(stepFunAiApi, chatProperties.getOptions(), functionCallbackContext, retryTemplate);
+        chatClient.setResponseCache(responseCacheProvider.getIfAvailable());
+        chatClient.setTaskExecutor(taskExecutor);
+        if (taskExecutor != null) {
+            chatClient.setToolScheduler(Schedulers.fromExecutor(taskExecutor));
+        }
+        toolExecutorProvider.ifAvailable(chatClient::setToolExecutor);
+        observationRegistryProvider.ifAvailable(chatClient::setObservationRegistry);
+        reactiveRetryProvider.ifAvailable(chatClient::setReactiveRetry);
+        return chatClient;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(StepFunAiChatClient.class)
+    public StepFunAiBatchClient stepFunAiBatchClient(StepFunAiChatClient chatClient, StepFunAiBatchProperties batchProperties) {
+        return StepFunAiBatchClient.builder(chatClient)
+                .withConcurrency(batchProperties.getConcurrency())
+                .withOrdered(batchProperties.isOrdered())
+                .withRequestsPerMinute(batchProperties.getRequestsPerMinute())
+                .build();
+    }
+
+    private static ClientHttpRequestFactory jdkClientHttpRequestFactory(StepFunAiHttpProperties httpProperties,
+                                                                        Executor executor) {
+        HttpClient.Builder httpClient = HttpClient.newBuilder().connectTimeout(httpProperties.getConnectTimeout());
+        if (executor != null) {
+            httpClient.executor(executor);
+        }
+        if (httpProperties.isHttp2()) {
+            httpClient.version(HttpClient.Version.HTTP_2);
+        }
+        else {
+            httpClient.version(HttpClient.Version.HTTP_1_1);
+        }
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+        requestFactory.setReadTimeout(httpProperties.getResponseTimeout());
+        return requestFactory;
+    }
+
+    @Bean(name = STEPFUN_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnMissingBean(name = STEPFUN_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnProperty(prefix = StepFunAiConnectionProperties.CONFIG_PREFIX, name = "execution", havingValue = "virtual")
+    public AsyncTaskExecutor stepFunAiTaskExecutor() {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("stepfun-");
+        // Fails on Java versions without virtual threads.
+        taskExecutor.setVirtualThreads(true);
+        return taskExecutor;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public StepFunAiToolExecutor stepFunAiToolExecutor(StepFunAiToolProperties toolProperties,
+                                                       @Qualifier(STEPFUN_TASK_EXECUTOR_BEAN_NAME) ObjectProvider<AsyncTaskExecutor> taskExecutorProvider,
+                                                       @Qualifier(STEPFUN_TOOL_TASK_EXECUTOR_BEAN_NAME) ObjectProvider<AsyncTaskExecutor> toolTaskExecutorProvider,
+                                                       ObjectProvider<ObservationRegistry> observationRegistryProvider) {
+        // Virtual threads when enabled, otherwise the bounded tool pool in parallel mode, otherwise the calling thread.
+        AsyncTaskExecutor executor = taskExecutorProvider.getIfAvailable(toolTaskExecutorProvider::getIfAvailable);
+        return StepFunAiToolExecutor.builder()
+                .withExecutor(executor)
+                .withParallel(toolProperties.isParallel() && executor != null)
+                .withMaxConcurrency(toolProperties.getMaxConcurrency())
+                .withTimeout(toolProperties.getTimeout())
+                .withFunctionTimeouts(toolProperties.getFunctionTimeouts())
+                .withObservationRegistry(observationRegistryProvider.getIfAvailable(() -> ObservationRegistry.NOOP))
+                .build();
+    }
+
+    @Bean(name = STEPFUN_TOOL_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnMissingBean(name = STEPFUN_TOOL_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnProperty(prefix = StepFunAiToolProperties.CONFIG_PREFIX, name = "parallel", havingValue = "true")
+    public AsyncTaskExecutor stepFunAiToolTaskExecutor(StepFunAiToolProperties toolProperties) {
+        Assert.isTrue(toolProperties.getMaxConcurrency() >= 0, "Tool max concurrency must not be negative");
+        if (toolProperties.getMaxConcurrency() == 0) {
+            // No limit: a thread per tool call.
+            return new SimpleAsyncTaskExecutor("stepfun-tool-");
+        }
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setThreadNamePrefix("stepfun-tool-");
+        taskExecutor.setCorePoolSize(toolProperties.getMaxConcurrency());
+        taskExecutor.setMaxPoolSize(toolProperties.getMaxConcurrency());
+        taskExecutor.setAllowCoreThreadTimeOut(true);
+        return taskExecutor;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public StepFunAiReactiveRetry stepFunAiReactiveRetry(StepFunAiRetryProperties retryProperties) {
+        return StepFunAiReactiveRetry.builder()
+                .withMaxAttempts(retryProperties.getMaxAttempts())
+                .withInitialBackoff(retryProperties.getInitialBackoff())
+                .withMaxBackoff(retryProperties.getMaxBackoff())
+                .withJitter(retryProperties.getJitter())
+                .withMaxRetryAfter(retryProperties.getMaxRetryAfter())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = StepFunAiCacheProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true")
+    public StepFunAiResponseCache stepFunAiResponseCache(StepFunAiCacheProperties cacheProperties) {
+        StepFunAiChatCache store = new InMemoryStepFunAiChatCache(cacheProperties.getMemory().getMaxSize(),
+                cacheProperties.getMemory().getTtl());
+        if (cacheProperties.getDisk().isEnabled()) {
+            FileSystemStepFunAiChatCache diskStore = new FileSystemStepFunAiChatCache(
+                    Path.of(cacheProperties.getDisk().getDirectory()), cacheProperties.getDisk().getTtl());
+            diskStore.purgeExpired();
+            store = new TieredStepFunAiChatCache(store, diskStore);
+        }
+        return new StepFunAiResponseCache(store, cacheProperties.isAllowSampled());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(name = "reactor.netty.http.client.HttpClient")
+    @ConditionalOnProperty(prefix = StepFunAiHttpProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+    public StepFunAiHttpConnector stepFunAiHttpConnector(StepFunAiHttpProperties httpProperties) {
+        return StepFunAiHttpConnector.builder()
+                .withMaxConnections(httpProperties.getMaxConnections())
+                .withPendingAcquireMaxCount(httpProperties.getPendingAcquireMaxCount())
+                .withPendingAcquireTimeout(httpProperties.getPendingAcquireTimeout())
+                .withMaxIdleTime(httpProperties.getMaxIdleTime())
+                .withMaxLifeTime(httpProperties.getMaxLifeTime())
+                .withEvictionInterval(httpProperties.getEvictionInterval())
+                .withKeepAlive(httpProperties.isKeepAlive())
+                .withConnectTimeout(httpProperties.getConnectTimeout())
+                .withReadTimeout(httpProperties.getReadTimeout())
+                .withResponseTimeout(httpProperties.getResponseTimeout())
+                .withHttp2(httpProperties.isHttp2())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = StepFunAiCoalescingProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true")
+    public StepFunAiRequestCoalescer stepFunAiRequestCoalescer(StepFunAiCoalescingProperties coalescingProperties) {
+        return new StepFunAiRequestCoalescer(coalescingProperties.isCoalesceSampled());
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = StepFunAiRateLimitProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true")
+    public StepFunAiRateLimiter stepFunAiRateLimiter(StepFunAiRateLimitProperties rateLimitProperties,
+                                                     StepFunAiTokenEstimator tokenEstimator) {
+        StepFunAiRateLimiter.Builder builder = StepFunAiRateLimiter.builder()
+                .withRequestsPerMinute(rateLimitProperties.getRequestsPerMinute())
+                .withTokensPerMinute(rateLimitProperties.getTokensPerMinute())
+                .withMaxWait(rateLimitProperties.getMaxWait())
+                .withMaxWaiters(rateLimitProperties.getMaxWaiters())
+                .withTokenEstimator(tokenEstimator);
+        rateLimitProperties.getModels().forEach((model, limit) -> builder.withModelLimit(model, new StepFunAiRateLimiter.Limit(
+                limit.getRequestsPerMinute() != null ? limit.getRequestsPerMinute() : rateLimitProperties.getRequestsPerMinute(),
+                limit.getTokensPerMinute() != null ? limit.getTokensPerMinute() : rateLimitProperties.getTokensPerMinute())));
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public StepFunAiTokenEstimator stepFunAiTokenEstimator(StepFunAiPromptBudgetProperties promptBudgetProperties) {
+        return new StepFunAiTokenEstimator(promptBudgetProperties.getEstimatorCacheSize());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = StepFunAiPromptBudgetProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true")
+    public StepFunAiPromptBudget stepFunAiPromptBudget(StepFunAiPromptBudgetProperties promptBudgetProperties,
+                                                       StepFunAiTokenEstimator tokenEstimator) {
+        StepFunAiPromptBudget.Builder builder = StepFunAiPromptBudget.builder()
+                .withTokenEstimator(tokenEstimator)
+                .withStrategy(promptBudgetProperties.getStrategy())
+                .withMinCompletionTokens(promptBudgetProperties.getMinCompletionTokens());
+        promptBudgetProperties.getContextWindows().forEach(builder::withContextWindow);
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = StepFunAiSchedulerProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true")
+    public StepFunAiRequestScheduler stepFunAiRequestScheduler(StepFunAiSchedulerProperties schedulerProperties) {
+        StepFunAiRequestScheduler.Builder builder = StepFunAiRequestScheduler.builder()
+                .withMaxConcurrentCalls(schedulerProperties.getMaxConcurrentCalls());
+        schedulerProperties.getPriorities().forEach((priority, overrides) -> {
+            StepFunAiRequestScheduler.PriorityClass defaults = StepFunAiRequestScheduler.defaultPriorityClass(priority);
+            builder.withPriorityClass(priority, new StepFunAiRequestScheduler.PriorityClass(
+                    overrides.getWeight() != null ? overrides.getWeight() : defaults.weight(),
+                    overrides.getMaxQueueLength() != null ? overrides.getMaxQueueLength() : defaults.maxQueueLength(),
+                    overrides.getMaxWait() != null ? overrides.getMaxWait() : defaults.maxWait()));
+        });
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = StepFunAiHedgingProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true")
+    public StepFunAiRequestHedger stepFunAiRequestHedger(StepFunAiHedgingProperties hedgingProperties,
+                                                         @Qualifier(STEPFUN_TASK_EXECUTOR_BEAN_NAME) ObjectProvider<AsyncTaskExecutor> taskExecutorProvider) {
+        StepFunAiRequestHedger.Builder builder = StepFunAiRequestHedger.builder()
+                .withPercentile(hedgingProperties.getPercentile())
+                .withMinDelay(hedgingProperties.getMinDelay())
+                .withMinSamples(hedgingProperties.getMinSamples())
+                .withMaxHedgeRatio(hedgingProperties.getMaxHedgeRatio())
+                .withMaxBurst(hedgingProperties.getMaxBurst())
+                .withMaxThreads(hedgingProperties.getMaxThreads());
+        taskExecutorProvider.ifAvailable(builder::withExecutor);
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = StepFunAiResilienceProperties.CONFIG_PREFIX, name = "circuit-breaker.enabled", havingValue = "true")
+    public StepFunAiCircuitBreaker stepFunAiCircuitBreaker(StepFunAiResilienceProperties resilienceProperties,
+                                                           ObjectProvider<StepFunAiFallback> fallbackProvider) {
+        StepFunAiResilienceProperties.CircuitBreaker circuitBreaker = resilienceProperties.getCircuitBreaker();
+        StepFunAiCircuitBreaker.Builder builder = StepFunAiCircuitBreaker.builder()
+                .withFailureRateThreshold(circuitBreaker.getFailureRateThreshold())
+                .withSlowCallRateThreshold(circuitBreaker.getSlowCallRateThreshold())
+                .withSlowCallDuration(circuitBreaker.getSlowCallDuration())
+                .withMinimumCalls(circuitBreaker.getMinimumCalls())
+                .withWindow(circuitBreaker.getWindow())
+                .withOpenDuration(circuitBreaker.getOpenDuration())
+                .withHalfOpenCalls(circuitBreaker.getHalfOpenCalls());
+        fallbackProvider.ifAvailable(builder::withFallback);
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = StepFunAiResilienceProperties.CONFIG_PREFIX, name = "bulkhead.enabled", havingValue = "true")
+    public StepFunAiBulkhead stepFunAiBulkhead(StepFunAiResilienceProperties resilienceProperties,
+                                               ObjectProvider<StepFunAiFallback> fallbackProvider) {
+        StepFunAiResilienceProperties.Bulkhead bulkhead = resilienceProperties.getBulkhead();
+        StepFunAiBulkhead.Builder builder = StepFunAiBulkhead.builder()
+                .withMaxConcurrentCalls(bulkhead.getMaxConcurrentCalls());
+        bulkhead.getModels().forEach(builder::withModelLimit);
+        fallbackProvider.ifAvailable(builder::withFallback);
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = StepFunAiKeyPoolProperties.CONFIG_PREFIX, name = "enabled", havingValue = "true")
+    public StepFunAiKeyPool stepFunAiKeyPool(StepFunAiKeyPoolProperties keyPoolProperties) {
+        List<StepFunAiKeyPool.Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < keyPoolProperties.getEndpoints().size(); i++) {
+            StepFunAiKeyPoolProperties.Endpoint endpoint = keyPoolProperties.getEndpoints().get(i);
+            String alias = StringUtils.hasText(endpoint.getAlias()) ? endpoint.getAlias() : "key-" + i;
+            endpoints.add(new StepFunAiKeyPool.Endpoint(alias, endpoint.getBaseUrl(), endpoint.getApiKey(), endpoint.getMaxConcurrency()));
+        }
+        return new StepFunAiKeyPool(endpoints, keyPoolProperties.getCooldown(), keyPoolProperties.getMaxCooldown());
+    }
 
     @Bean
     @ConditionalOnMissingBean
@@ -65,4 +414,31 @@ public class StepFunAiAutoConfiguration {
         return manager;
     }
 
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterBinder.class)
+    static class StepFunAiMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnBean(StepFunAiResponseCache.class)
+        @ConditionalOnMissingBean
+        public StepFunAiResponseCacheMetrics stepFunAiResponseCacheMetrics(StepFunAiResponseCache responseCache) {
+            return new StepFunAiResponseCacheMetrics(responseCache);
+        }
+
+        @Bean
+        @ConditionalOnBean(MeterRegistry.class)
+        @ConditionalOnMissingBean
+        public StepFunAiApiMetrics stepFunAiApiMetrics(MeterRegistry meterRegistry) {
+            return new StepFunAiApiMetrics(meterRegistry);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public StepFunAiResilienceMetrics stepFunAiResilienceMetrics(ObjectProvider<StepFunAiCircuitBreaker> circuitBreakerProvider,
+                                                                     ObjectProvider<StepFunAiBulkhead> bulkheadProvider) {
+            return new StepFunAiResilienceMetrics(circuitBreakerProvider.getIfAvailable(), bulkheadProvider.getIfAvailable());
+        }
+
+    }
+
 }
@@ -0,0 +1,49 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(StepFunAiBatchProperties.CONFIG_PREFIX)
+public class StepFunAiBatchProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.batch";
+
+    /**
+     * Maximum number of prompts of a batch in flight.
+     */
+    private int concurrency = 16;
+
+    /**
+     * Emit the results of a batch in the order of its prompts rather than as they complete.
+     */
+    private boolean ordered = true;
+
+    /**
+     * Maximum number of prompts of a batch started per minute, 0 for no limit.
+     */
+    private int requestsPerMinute = 0;
+
+    public int getConcurrency() {
+        return this.concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public boolean isOrdered() {
+        return this.ordered;
+    }
+
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public int getRequestsPerMinute() {
+        return this.requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(StepFunAiCacheProperties.CONFIG_PREFIX)
+public class StepFunAiCacheProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.cache";
+
+    /**
+     * Answer identical chat requests from the response cache.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Also cache requests with do_sample=true, whose answers are normally expected to vary.
+     */
+    private boolean allowSampled = false;
+
+    private final Memory memory = new Memory();
+
+    private final Disk disk = new Disk();
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isAllowSampled() {
+        return this.allowSampled;
+    }
+
+    public void setAllowSampled(boolean allowSampled) {
+        this.allowSampled = allowSampled;
+    }
+
+    public Memory getMemory() {
+        return this.memory;
+    }
+
+    public Disk getDisk() {
+        return this.disk;
+    }
+
+    public static class Memory {
+
+        /**
+         * Maximum number of completions kept in memory.
+         */
+        private int maxSize = 1000;
+
+        /**
+         * Time to live of a completion kept in memory.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        public int getMaxSize() {
+            return this.maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return this.ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+    }
+
+    public static class Disk {
+
+        /**
+         * Add a local disk tier behind the in-memory cache.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory of the disk tier.
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/stepfun-chat-cache";
+
+        /**
+         * Time to live of a completion stored on disk.
+         */
+        private Duration ttl = Duration.ofDays(1);
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return this.directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Duration getTtl() {
+            return this.ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(StepFunAiCoalescingProperties.CONFIG_PREFIX)
+public class StepFunAiCoalescingProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.coalescing";
+
+    /**
+     * Share one upstream call between concurrent identical chat requests.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Also coalesce requests with do_sample=true, whose callers normally expect independent answers.
+     */
+    private boolean coalesceSampled = false;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isCoalesceSampled() {
+        return this.coalesceSampled;
+    }
+
+    public void setCoalesceSampled(boolean coalesceSampled) {
+        this.coalesceSampled = coalesceSampled;
+    }
+
+}
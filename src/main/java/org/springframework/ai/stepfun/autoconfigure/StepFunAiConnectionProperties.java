@@ -7,4 +7,31 @@ public class StepFunAiConnectionProperties extends StepFunAiParentProperties {
 
     public static final String CONFIG_PREFIX = "spring.ai.stepfun";
 
+    /**
+     * Threads used for blocking calls and function callbacks, virtual requires Java 21.
+     */
+    private Execution execution = Execution.PLATFORM;
+
+    public Execution getExecution() {
+        return this.execution;
+    }
+
+    public void setExecution(Execution execution) {
+        this.execution = execution;
+    }
+
+    public enum Execution {
+
+        /**
+         * Blocking calls run on the caller's thread, function callbacks inline.
+         */
+        PLATFORM,
+
+        /**
+         * Blocking calls use the JDK HTTP client, asynchronous calls and function callbacks run on virtual threads.
+         */
+        VIRTUAL
+
+    }
+
 }
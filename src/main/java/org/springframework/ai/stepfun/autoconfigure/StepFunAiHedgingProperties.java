@@ -0,0 +1,104 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(StepFunAiHedgingProperties.CONFIG_PREFIX)
+public class StepFunAiHedgingProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.hedging";
+
+    /**
+     * Send a second identical blocking chat request when the first one is slower than usual.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Percentile of the recent latencies of a model, between 0 and 1, after which a request is hedged.
+     */
+    private double percentile = 0.95;
+
+    /**
+     * Shortest delay before a request is hedged.
+     */
+    private Duration minDelay = Duration.ofMillis(50);
+
+    /**
+     * Number of latencies of a model to know before its requests are hedged.
+     */
+    private int minSamples = 20;
+
+    /**
+     * Maximum ratio of hedges to requests, between 0 and 1.
+     */
+    private double maxHedgeRatio = 0.05;
+
+    /**
+     * Maximum number of hedges saved up by a quiet period.
+     */
+    private int maxBurst = 10;
+
+    /**
+     * Maximum number of threads running the attempts of hedged requests, unless virtual threads are used. Once they
+     * are all busy, requests are no longer hedged.
+     */
+    private int maxThreads = 64;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return this.percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return this.minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public int getMinSamples() {
+        return this.minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public double getMaxHedgeRatio() {
+        return this.maxHedgeRatio;
+    }
+
+    public void setMaxHedgeRatio(double maxHedgeRatio) {
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    public int getMaxBurst() {
+        return this.maxBurst;
+    }
+
+    public void setMaxBurst(int maxBurst) {
+        this.maxBurst = maxBurst;
+    }
+
+    public int getMaxThreads() {
+        return this.maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+}
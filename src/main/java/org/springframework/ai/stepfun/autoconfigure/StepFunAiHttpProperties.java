@@ -0,0 +1,168 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(StepFunAiHttpProperties.CONFIG_PREFIX)
+public class StepFunAiHttpProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.http";
+
+    /**
+     * Share one Reactor Netty connection pool between the blocking and the streaming client.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of pooled connections.
+     */
+    private int maxConnections = 200;
+
+    /**
+     * Maximum number of requests waiting for a connection, -1 for no limit.
+     */
+    private int pendingAcquireMaxCount = 1000;
+
+    /**
+     * Maximum time to wait for a connection from the pool.
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(45);
+
+    /**
+     * Time after which an idle connection is closed.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Maximum lifetime of a connection, unlimited when not set.
+     */
+    private Duration maxLifeTime;
+
+    /**
+     * Interval of the background eviction of idle and expired connections, 0 to disable.
+     */
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    /**
+     * Keep connections alive between requests.
+     */
+    private boolean keepAlive = true;
+
+    /**
+     * Connect timeout.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Maximum time between two reads of a response.
+     */
+    private Duration readTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Maximum time the blocking client waits for a response.
+     */
+    private Duration responseTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Negotiate HTTP/2 with the server, falling back to HTTP/1.1.
+     */
+    private boolean http2 = false;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConnections() {
+        return this.maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getPendingAcquireMaxCount() {
+        return this.pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public Duration getPendingAcquireTimeout() {
+        return this.pendingAcquireTimeout;
+    }
+
+    public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+    }
+
+    public Duration getMaxIdleTime() {
+        return this.maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public Duration getMaxLifeTime() {
+        return this.maxLifeTime;
+    }
+
+    public void setMaxLifeTime(Duration maxLifeTime) {
+        this.maxLifeTime = maxLifeTime;
+    }
+
+    public Duration getEvictionInterval() {
+        return this.evictionInterval;
+    }
+
+    public void setEvictionInterval(Duration evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+
+    public boolean isKeepAlive() {
+        return this.keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getConnectTimeout() {
+        return this.connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return this.readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getResponseTimeout() {
+        return this.responseTimeout;
+    }
+
+    public void setResponseTimeout(Duration responseTimeout) {
+        this.responseTimeout = responseTimeout;
+    }
+
+    public boolean isHttp2() {
+        return this.http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+
+}
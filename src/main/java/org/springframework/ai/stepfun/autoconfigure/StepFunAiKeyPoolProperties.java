@@ -0,0 +1,122 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(StepFunAiKeyPoolProperties.CONFIG_PREFIX)
+public class StepFunAiKeyPoolProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.key-pool";
+
+    /**
+     * Spread chat requests over the configured API keys.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Cooldown of a key after a first 429, 5xx or I/O failure, doubled for every consecutive failure.
+     */
+    private Duration cooldown = Duration.ofSeconds(10);
+
+    /**
+     * Maximum cooldown of a key.
+     */
+    private Duration maxCooldown = Duration.ofMinutes(5);
+
+    /**
+     * The API keys of the pool.
+     */
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getCooldown() {
+        return this.cooldown;
+    }
+
+    public void setCooldown(Duration cooldown) {
+        this.cooldown = cooldown;
+    }
+
+    public Duration getMaxCooldown() {
+        return this.maxCooldown;
+    }
+
+    public void setMaxCooldown(Duration maxCooldown) {
+        this.maxCooldown = maxCooldown;
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return this.endpoints;
+    }
+
+    public void setEndpoints(List<Endpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public static class Endpoint {
+
+        /**
+         * Name of the key in logs and statistics, defaults to its position in the pool.
+         */
+        private String alias;
+
+        /**
+         * Base URL for this key, defaults to the base URL of the client.
+         */
+        private String baseUrl;
+
+        /**
+         * The API key.
+         */
+        private String apiKey;
+
+        /**
+         * Maximum number of requests in flight with this key, 0 for no limit.
+         */
+        private int maxConcurrency = 0;
+
+        public String getAlias() {
+            return this.alias;
+        }
+
+        public void setAlias(String alias) {
+            this.alias = alias;
+        }
+
+        public String getBaseUrl() {
+            return this.baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String getApiKey() {
+            return this.apiKey;
+        }
+
+        public void setApiKey(String apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        public int getMaxConcurrency() {
+            return this.maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+    }
+
+}
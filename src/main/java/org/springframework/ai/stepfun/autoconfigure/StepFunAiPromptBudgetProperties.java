@@ -0,0 +1,79 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.ai.stepfun.interceptor.StepFunAiPromptBudget;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(StepFunAiPromptBudgetProperties.CONFIG_PREFIX)
+public class StepFunAiPromptBudgetProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.prompt-budget";
+
+    /**
+     * Fit each chat request into the context window of its model before it is sent.
+     */
+    private boolean enabled = false;
+
+    /**
+     * How a request exceeding the context window is handled: reject, clamp max_tokens, or trim the oldest messages.
+     */
+    private StepFunAiPromptBudget.Strategy strategy = StepFunAiPromptBudget.Strategy.CLAMP;
+
+    /**
+     * Fewest completion tokens a clamped request is left with, below which it is rejected.
+     */
+    private int minCompletionTokens = 256;
+
+    /**
+     * Context windows in tokens, keyed by model name, for models not known to the client or to override them.
+     */
+    private Map<String, Integer> contextWindows = new HashMap<>();
+
+    /**
+     * Number of messages whose estimated token count is cached.
+     */
+    private int estimatorCacheSize = 10_000;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public StepFunAiPromptBudget.Strategy getStrategy() {
+        return this.strategy;
+    }
+
+    public void setStrategy(StepFunAiPromptBudget.Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public int getMinCompletionTokens() {
+        return this.minCompletionTokens;
+    }
+
+    public void setMinCompletionTokens(int minCompletionTokens) {
+        this.minCompletionTokens = minCompletionTokens;
+    }
+
+    public Map<String, Integer> getContextWindows() {
+        return this.contextWindows;
+    }
+
+    public void setContextWindows(Map<String, Integer> contextWindows) {
+        this.contextWindows = contextWindows;
+    }
+
+    public int getEstimatorCacheSize() {
+        return this.estimatorCacheSize;
+    }
+
+    public void setEstimatorCacheSize(int estimatorCacheSize) {
+        this.estimatorCacheSize = estimatorCacheSize;
+    }
+
+}
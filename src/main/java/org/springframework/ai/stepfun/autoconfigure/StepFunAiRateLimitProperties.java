@@ -0,0 +1,122 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(StepFunAiRateLimitProperties.CONFIG_PREFIX)
+public class StepFunAiRateLimitProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.rate-limit";
+
+    /**
+     * Limit the chat requests sent to StepFun on the client side.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum requests per minute for each API key and model, 0 for no limit.
+     */
+    private int requestsPerMinute = 60;
+
+    /**
+     * Maximum tokens per minute for each API key and model, 0 for no limit.
+     */
+    private int tokensPerMinute = 0;
+
+    /**
+     * Maximum time a request waits for capacity before it is rejected.
+     */
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of requests waiting for capacity, 0 to reject instead of waiting.
+     */
+    private int maxWaiters = 100;
+
+    /**
+     * Limits overriding the defaults for specific models, keyed by model name.
+     */
+    private Map<String, ModelLimit> models = new HashMap<>();
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRequestsPerMinute() {
+        return this.requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    public int getTokensPerMinute() {
+        return this.tokensPerMinute;
+    }
+
+    public void setTokensPerMinute(int tokensPerMinute) {
+        this.tokensPerMinute = tokensPerMinute;
+    }
+
+    public Duration getMaxWait() {
+        return this.maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public int getMaxWaiters() {
+        return this.maxWaiters;
+    }
+
+    public void setMaxWaiters(int maxWaiters) {
+        this.maxWaiters = maxWaiters;
+    }
+
+    public Map<String, ModelLimit> getModels() {
+        return this.models;
+    }
+
+    public void setModels(Map<String, ModelLimit> models) {
+        this.models = models;
+    }
+
+    public static class ModelLimit {
+
+        /**
+         * Maximum requests per minute, defaults to the global limit.
+         */
+        private Integer requestsPerMinute;
+
+        /**
+         * Maximum tokens per minute, defaults to the global limit.
+         */
+        private Integer tokensPerMinute;
+
+        public Integer getRequestsPerMinute() {
+            return this.requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(Integer requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public Integer getTokensPerMinute() {
+            return this.tokensPerMinute;
+        }
+
+        public void setTokensPerMinute(Integer tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+        }
+
+    }
+
+}
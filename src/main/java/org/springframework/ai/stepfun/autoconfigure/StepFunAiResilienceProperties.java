@@ -0,0 +1,185 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(StepFunAiResilienceProperties.CONFIG_PREFIX)
+public class StepFunAiResilienceProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.resilience";
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Bulkhead bulkhead = new Bulkhead();
+
+    public CircuitBreaker getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return this.bulkhead;
+    }
+
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public static class CircuitBreaker {
+
+        /**
+         * Reject the chat requests of a model while StepFun is failing or slow for it.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Rate of failed calls, between 0 and 1, opening the circuit.
+         */
+        private double failureRateThreshold = 0.5;
+
+        /**
+         * Rate of slow calls, between 0 and 1, opening the circuit.
+         */
+        private double slowCallRateThreshold = 1.0;
+
+        /**
+         * Duration above which a call, or the first chunk of a stream, is slow.
+         */
+        private Duration slowCallDuration = Duration.ofSeconds(30);
+
+        /**
+         * Number of calls in the window below which the circuit stays closed.
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * Rolling window the rates are computed over.
+         */
+        private Duration window = Duration.ofSeconds(60);
+
+        /**
+         * How long an open circuit rejects requests before letting trial requests through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * Number of successful trial requests closing the circuit.
+         */
+        private int halfOpenCalls = 3;
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getFailureRateThreshold() {
+            return this.failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public double getSlowCallRateThreshold() {
+            return this.slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return this.slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public int getMinimumCalls() {
+            return this.minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public Duration getWindow() {
+            return this.window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public Duration getOpenDuration() {
+            return this.openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return this.halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+    }
+
+    public static class Bulkhead {
+
+        /**
+         * Bound the concurrent chat requests of each model, rejecting the requests over the limit.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of requests in flight for each model.
+         */
+        private int maxConcurrentCalls = 50;
+
+        /**
+         * Limits overriding the default for specific models, keyed by model name.
+         */
+        private Map<String, Integer> models = new HashMap<>();
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return this.maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Map<String, Integer> getModels() {
+            return this.models;
+        }
+
+        public void setModels(Map<String, Integer> models) {
+            this.models = models;
+        }
+
+    }
+
+}
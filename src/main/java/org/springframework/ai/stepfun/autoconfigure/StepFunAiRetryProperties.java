@@ -0,0 +1,80 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking retry of streams and asynchronous calls. Blocking calls keep using the {@code RetryTemplate}.
+ */
+@ConfigurationProperties(StepFunAiRetryProperties.CONFIG_PREFIX)
+public class StepFunAiRetryProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.retry";
+
+    /**
+     * Maximum number of attempts, including the first one, 1 to disable retries.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Backoff before the first retry, doubled for every further retry.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Maximum backoff.
+     */
+    private Duration maxBackoff = Duration.ofSeconds(20);
+
+    /**
+     * Randomization of the backoff, as a fraction of it between 0 and 1.
+     */
+    private double jitter = 0.5;
+
+    /**
+     * Longest Retry-After honoured, a longer one fails the request.
+     */
+    private Duration maxRetryAfter = Duration.ofMinutes(1);
+
+    public int getMaxAttempts() {
+        return this.maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return this.initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return this.maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public double getJitter() {
+        return this.jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public Duration getMaxRetryAfter() {
+        return this.maxRetryAfter;
+    }
+
+    public void setMaxRetryAfter(Duration maxRetryAfter) {
+        this.maxRetryAfter = maxRetryAfter;
+    }
+
+}
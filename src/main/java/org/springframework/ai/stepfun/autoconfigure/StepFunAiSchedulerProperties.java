@@ -0,0 +1,97 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.ai.stepfun.api.StepFunAiRequestPriority;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@ConfigurationProperties(StepFunAiSchedulerProperties.CONFIG_PREFIX)
+public class StepFunAiSchedulerProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.scheduler";
+
+    /**
+     * Queue the chat requests over the concurrency limit by priority.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of requests in flight.
+     */
+    private int maxConcurrentCalls = 32;
+
+    /**
+     * Scheduling parameters overriding the defaults of specific priorities, keyed by priority.
+     */
+    private Map<StepFunAiRequestPriority, Priority> priorities = new EnumMap<>(StepFunAiRequestPriority.class);
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return this.maxConcurrentCalls;
+    }
+
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public Map<StepFunAiRequestPriority, Priority> getPriorities() {
+        return this.priorities;
+    }
+
+    public void setPriorities(Map<StepFunAiRequestPriority, Priority> priorities) {
+        this.priorities = priorities;
+    }
+
+    public static class Priority {
+
+        /**
+         * Share of the slots given to the priority when all priorities have waiting requests.
+         */
+        private Integer weight;
+
+        /**
+         * Maximum number of waiting requests, further requests are rejected.
+         */
+        private Integer maxQueueLength;
+
+        /**
+         * Maximum time a request waits for a slot before it is dropped.
+         */
+        private Duration maxWait;
+
+        public Integer getWeight() {
+            return this.weight;
+        }
+
+        public void setWeight(Integer weight) {
+            this.weight = weight;
+        }
+
+        public Integer getMaxQueueLength() {
+            return this.maxQueueLength;
+        }
+
+        public void setMaxQueueLength(Integer maxQueueLength) {
+            this.maxQueueLength = maxQueueLength;
+        }
+
+        public Duration getMaxWait() {
+            return this.maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+    }
+
+}
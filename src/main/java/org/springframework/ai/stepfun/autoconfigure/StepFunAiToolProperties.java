@@ -0,0 +1,67 @@
+package org.springframework.ai.stepfun.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(StepFunAiToolProperties.CONFIG_PREFIX)
+public class StepFunAiToolProperties {
+
+    public static final String CONFIG_PREFIX = "spring.ai.stepfun.tools";
+
+    /**
+     * Run the tool calls of one model turn concurrently.
+     */
+    private boolean parallel = false;
+
+    /**
+     * Maximum number of tool calls running at once across all turns, 0 for no limit.
+     */
+    private int maxConcurrency = 16;
+
+    /**
+     * Maximum time a tool call may take when tool calls run on an executor, from the moment it holds a concurrency
+     * slot: time spent waiting for a slot is not counted.
+     */
+    private Duration timeout = Duration.ofMinutes(1);
+
+    /**
+     * Timeouts of the calls of specific functions, by function name, instead of the default timeout.
+     */
+    private Map<String, Duration> functionTimeouts = new HashMap<>();
+
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Duration getTimeout() {
+        return this.timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Map<String, Duration> getFunctionTimeouts() {
+        return this.functionTimeouts;
+    }
+
+    public void setFunctionTimeouts(Map<String, Duration> functionTimeouts) {
+        this.functionTimeouts = functionTimeouts;
+    }
+
+}
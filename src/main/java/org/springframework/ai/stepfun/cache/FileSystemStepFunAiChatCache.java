@@ -0,0 +1,165 @@
+package org.springframework.ai.stepfun.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * {@link StepFunAiChatCache} storing each completion as a JSON file below a local directory, so cached answers
+ * survive restarts. Entries older than the time to live are deleted when read or by {@link #purgeExpired()}.
+ * <p>
+ * Storage errors are logged and treated as a cache miss, the disk tier never fails a chat request.
+ */
+public class FileSystemStepFunAiChatCache implements StepFunAiChatCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemStepFunAiChatCache.class);
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+
+    private final Duration ttl;
+
+    private final ObjectMapper objectMapper;
+
+    public FileSystemStepFunAiChatCache(Path directory, Duration ttl) {
+        this(directory, ttl, ModelOptionsUtils.OBJECT_MAPPER);
+    }
+
+    /**
+     * @param directory the cache directory, created if missing
+     * @param ttl the time to live of a cached completion, {@code null} for no expiry
+     * @param objectMapper the mapper used to read and write completions
+     */
+    public FileSystemStepFunAiChatCache(Path directory, Duration ttl, ObjectMapper objectMapper) {
+        Assert.notNull(directory, "Directory must not be null");
+        Assert.notNull(objectMapper, "ObjectMapper must not be null");
+        this.directory = directory;
+        this.ttl = (ttl != null && !ttl.isZero() ? ttl : null);
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("Failed to create chat cache directory " + directory, ex);
+        }
+    }
+
+    @Override
+    public StepFunAiApi.ChatCompletion get(String key) {
+        Path file = file(key);
+        try {
+            if (isExpired(file)) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return this.objectMapper.readValue(file.toFile(), StepFunAiApi.ChatCompletion.class);
+        }
+        catch (NoSuchFileException ex) {
+            return null;
+        }
+        catch (IOException ex) {
+            logger.warn("Failed to read cached chat completion {}", file, ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, StepFunAiApi.ChatCompletion completion) {
+        Path file = file(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            this.objectMapper.writeValue(temp.toFile(), completion);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException ex) {
+            logger.warn("Failed to write cached chat completion {}", file, ex);
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        deleteQuietly(file(key));
+    }
+
+    @Override
+    public void clear() {
+        forEachEntry(false);
+    }
+
+    /**
+     * Delete all expired entries.
+     */
+    public void purgeExpired() {
+        if (this.ttl != null) {
+            forEachEntry(true);
+        }
+    }
+
+    private void forEachEntry(boolean expiredOnly) {
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(this.directory, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard, "*" + SUFFIX)) {
+                    for (Path file : files) {
+                        if (!expiredOnly || isExpired(file)) {
+                            deleteQuietly(file);
+                        }
+                    }
+                }
+            }
+        }
+        catch (IOException ex) {
+            logger.warn("Failed to clean chat cache directory {}", this.directory, ex);
+        }
+    }
+
+    private Path file(String key) {
+        Assert.isTrue(key.length() > 2 && key.chars().allMatch(Character::isLetterOrDigit),
+                "Cache key must be a hex digest");
+        // Shard by the first two characters to keep directories small.
+        return this.directory.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    private boolean isExpired(Path file) throws IOException {
+        if (this.ttl == null) {
+            return false;
+        }
+        Instant modified = Files.getLastModifiedTime(file).toInstant();
+        return modified.plus(this.ttl).isBefore(Instant.now());
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException ex) {
+            logger.debug("Failed to delete {}", file, ex);
+        }
+    }
+
+}
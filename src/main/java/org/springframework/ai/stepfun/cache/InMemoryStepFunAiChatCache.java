@@ -0,0 +1,51 @@
+package org.springframework.ai.stepfun.cache;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.util.ExpiringLruCache;
+
+import java.time.Duration;
+
+/**
+ * {@link StepFunAiChatCache} keeping completions on the heap, bounded by size with least recently used eviction
+ * and by a time to live.
+ */
+public class InMemoryStepFunAiChatCache implements StepFunAiChatCache {
+
+    private final ExpiringLruCache<String, StepFunAiApi.ChatCompletion> entries;
+
+    /**
+     * @param maxSize the maximum number of cached completions
+     * @param ttl the time to live of a cached completion, {@code null} for no expiry
+     */
+    public InMemoryStepFunAiChatCache(int maxSize, Duration ttl) {
+        this.entries = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    @Override
+    public StepFunAiApi.ChatCompletion get(String key) {
+        return this.entries.get(key);
+    }
+
+    @Override
+    public void put(String key, StepFunAiApi.ChatCompletion completion) {
+        this.entries.put(key, completion);
+    }
+
+    @Override
+    public void evict(String key) {
+        this.entries.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * @return the number of cached completions, including expired ones not purged yet.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+}
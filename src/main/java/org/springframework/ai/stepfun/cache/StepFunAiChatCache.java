@@ -0,0 +1,35 @@
+package org.springframework.ai.stepfun.cache;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+
+/**
+ * Storage of cached chat completions, keyed by the digest of the request they answer.
+ * Implementations must be thread-safe.
+ *
+ * @see org.springframework.ai.stepfun.api.StepFunAiRequestDigest
+ */
+public interface StepFunAiChatCache {
+
+    /**
+     * @param key the request digest
+     * @return the cached completion, or {@code null} if absent or expired
+     */
+    StepFunAiApi.ChatCompletion get(String key);
+
+    /**
+     * @param key the request digest
+     * @param completion the completion to store
+     */
+    void put(String key, StepFunAiApi.ChatCompletion completion);
+
+    /**
+     * @param key the request digest
+     */
+    void evict(String key);
+
+    /**
+     * Remove all entries.
+     */
+    void clear();
+
+}
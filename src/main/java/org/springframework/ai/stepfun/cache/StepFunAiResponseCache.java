@@ -0,0 +1,110 @@
+package org.springframework.ai.stepfun.cache;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiRequestDigest;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact-match response cache in front of {@link org.springframework.ai.stepfun.StepFunAiChatClient#call}.
+ * <p>
+ * Requests are keyed by {@link StepFunAiRequestDigest}. Sampled requests ({@code do_sample=true}) are expected to
+ * produce a different answer on every call and bypass the cache unless {@code allowSampled} is set. Only completions
+ * that finished normally are stored.
+ */
+public class StepFunAiResponseCache {
+
+    private final StepFunAiChatCache store;
+
+    private final boolean allowSampled;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder bypasses = new LongAdder();
+
+    public StepFunAiResponseCache(StepFunAiChatCache store) {
+        this(store, false);
+    }
+
+    /**
+     * @param store the storage of cached completions
+     * @param allowSampled whether requests with {@code do_sample=true} are cached as well
+     */
+    public StepFunAiResponseCache(StepFunAiChatCache store, boolean allowSampled) {
+        Assert.notNull(store, "Cache store must not be null");
+        this.store = store;
+        this.allowSampled = allowSampled;
+    }
+
+    /**
+     * @param request the request
+     * @return the cache key of the request, or {@code null} if the request bypasses the cache
+     */
+    public String keyOf(StepFunAiApi.ChatCompletionRequest request) {
+        if (!this.allowSampled && Boolean.TRUE.equals(request.doSample())) {
+            this.bypasses.increment();
+            return null;
+        }
+        return StepFunAiRequestDigest.of(request);
+    }
+
+    /**
+     * @param key the key returned by {@link #keyOf}
+     * @return the cached completion, or {@code null} on a miss
+     */
+    public StepFunAiApi.ChatCompletion get(String key) {
+        StepFunAiApi.ChatCompletion completion = this.store.get(key);
+        if (completion != null) {
+            this.hits.increment();
+        }
+        else {
+            this.misses.increment();
+        }
+        return completion;
+    }
+
+    /**
+     * Store the completion if it finished normally.
+     * @param key the key returned by {@link #keyOf}
+     * @param completion the completion received for the request
+     */
+    public void put(String key, StepFunAiApi.ChatCompletion completion) {
+        if (isCacheable(completion)) {
+            this.store.put(key, completion);
+        }
+    }
+
+    private static boolean isCacheable(StepFunAiApi.ChatCompletion completion) {
+        if (completion == null || CollectionUtils.isEmpty(completion.choices())) {
+            return false;
+        }
+        for (StepFunAiApi.ChatCompletion.Choice choice : completion.choices()) {
+            if (choice.finishReason() != StepFunAiApi.ChatCompletionFinishReason.STOP
+                    && choice.finishReason() != StepFunAiApi.ChatCompletionFinishReason.LENGTH) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public StepFunAiChatCache getStore() {
+        return this.store;
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    public long getBypassCount() {
+        return this.bypasses.sum();
+    }
+
+}
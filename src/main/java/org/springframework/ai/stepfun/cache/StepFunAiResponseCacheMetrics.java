@@ -0,0 +1,36 @@
+package org.springframework.ai.stepfun.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the hit, miss and bypass counts of a {@link StepFunAiResponseCache} as
+ * {@code stepfun.chat.cache.requests} tagged by {@code result}.
+ */
+public class StepFunAiResponseCacheMetrics implements MeterBinder {
+
+    private final StepFunAiResponseCache cache;
+
+    public StepFunAiResponseCacheMetrics(StepFunAiResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "hit", StepFunAiResponseCache::getHitCount);
+        register(registry, "miss", StepFunAiResponseCache::getMissCount);
+        register(registry, "bypass", StepFunAiResponseCache::getBypassCount);
+    }
+
+    private void register(MeterRegistry registry, String result,
+                          ToDoubleFunction<StepFunAiResponseCache> count) {
+        FunctionCounter.builder("stepfun.chat.cache.requests", this.cache, count)
+                .description("Chat requests seen by the response cache")
+                .tag("result", result)
+                .register(registry);
+    }
+
+}
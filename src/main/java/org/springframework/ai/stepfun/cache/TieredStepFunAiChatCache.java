@@ -0,0 +1,60 @@
+package org.springframework.ai.stepfun.cache;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * {@link StepFunAiChatCache} consulting several caches in order, typically a small in-memory tier in front of a
+ * larger disk tier. A hit in a lower tier is copied into the tiers above it; writes go to all tiers.
+ */
+public class TieredStepFunAiChatCache implements StepFunAiChatCache {
+
+    private final List<StepFunAiChatCache> tiers;
+
+    public TieredStepFunAiChatCache(StepFunAiChatCache... tiers) {
+        this(List.of(tiers));
+    }
+
+    public TieredStepFunAiChatCache(List<StepFunAiChatCache> tiers) {
+        Assert.notEmpty(tiers, "At least one cache tier is required");
+        this.tiers = List.copyOf(tiers);
+    }
+
+    @Override
+    public StepFunAiApi.ChatCompletion get(String key) {
+        for (int i = 0; i < this.tiers.size(); i++) {
+            StepFunAiApi.ChatCompletion completion = this.tiers.get(i).get(key);
+            if (completion != null) {
+                for (int j = 0; j < i; j++) {
+                    this.tiers.get(j).put(key, completion);
+                }
+                return completion;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(String key, StepFunAiApi.ChatCompletion completion) {
+        for (StepFunAiChatCache tier : this.tiers) {
+            tier.put(key, completion);
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        for (StepFunAiChatCache tier : this.tiers) {
+            tier.evict(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (StepFunAiChatCache tier : this.tiers) {
+            tier.clear();
+        }
+    }
+
+}
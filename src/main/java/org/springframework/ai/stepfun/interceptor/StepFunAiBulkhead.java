@@ -0,0 +1,231 @@
+package org.springframework.ai.stepfun.interceptor;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiApiInterceptor;
+import org.springframework.ai.stepfun.api.StepFunAiRequestRejectedException;
+import org.springframework.core.Ordered;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bulkhead {@link StepFunAiApiInterceptor} bounding the concurrent requests of each model, so that a slow model
+ * cannot take all the threads and connections of the application. A request over the limit does not wait: it is
+ * handed to the {@link StepFunAiFallback} at once, which rejects it by default. A stream holds its permit until it
+ * terminates or is cancelled.
+ */
+public class StepFunAiBulkhead implements StepFunAiApiInterceptor, Ordered {
+
+    /**
+     * Runs inside the circuit breaker, so a request rejected by an open circuit never takes a permit.
+     */
+    public static final int DEFAULT_ORDER = Ordered.HIGHEST_PRECEDENCE + 220;
+
+    private static final String DEFAULT_MODEL = "default";
+
+    private final int maxConcurrentCalls;
+
+    private final Map<String, Integer> modelLimits;
+
+    private final StepFunAiFallback fallback;
+
+    private final ConcurrentMap<String, Compartment> compartments = new ConcurrentHashMap<>();
+
+    private final List<Consumer<Compartment>> compartmentListeners = new CopyOnWriteArrayList<>();
+
+    private int order = DEFAULT_ORDER;
+
+    private StepFunAiBulkhead(Builder builder) {
+        this.maxConcurrentCalls = builder.maxConcurrentCalls;
+        this.modelLimits = Map.copyOf(builder.modelLimits);
+        this.fallback = builder.fallback;
+    }
+
+    @Override
+    public ResponseEntity<StepFunAiApi.ChatCompletion> aroundCall(StepFunAiApi.ChatCompletionRequest request,
+                                                                  CallExecution execution) {
+        Compartment compartment = compartment(request);
+        if (!compartment.tryAcquire()) {
+            return this.fallback.fallbackCall(request, compartment.rejection());
+        }
+        try {
+            return execution.execute(request);
+        }
+        finally {
+            compartment.release();
+        }
+    }
+
+    @Override
+    public Flux<StepFunAiApi.ChatCompletionChunk> aroundStream(StepFunAiApi.ChatCompletionRequest request,
+                                                               StreamExecution execution) {
+        return Flux.defer(() -> {
+            Compartment compartment = compartment(request);
+            if (!compartment.tryAcquire()) {
+                return this.fallback.fallbackStream(request, compartment.rejection());
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            return execution.execute(request)
+                    .doFinally(signal -> {
+                        if (released.compareAndSet(false, true)) {
+                            compartment.release();
+                        }
+                    });
+        });
+    }
+
+    private Compartment compartment(StepFunAiApi.ChatCompletionRequest request) {
+        String model = (request.model() != null ? request.model() : DEFAULT_MODEL);
+        Compartment compartment = this.compartments.get(model);
+        if (compartment == null) {
+            Compartment created = new Compartment(model, this.modelLimits.getOrDefault(model, this.maxConcurrentCalls));
+            compartment = this.compartments.putIfAbsent(model, created);
+            if (compartment == null) {
+                compartment = created;
+                for (Consumer<Compartment> listener : this.compartmentListeners) {
+                    listener.accept(created);
+                }
+            }
+        }
+        return compartment;
+    }
+
+    /**
+     * Register a callback for the compartment of every model, called for the existing compartments and for each
+     * compartment created later, for example to bind meters.
+     * @param listener the callback
+     */
+    public void addCompartmentListener(Consumer<Compartment> listener) {
+        this.compartmentListeners.add(listener);
+        this.compartments.values().forEach(listener);
+    }
+
+    /**
+     * @return the compartments of the models called so far.
+     */
+    public Collection<Compartment> getCompartments() {
+        return this.compartments.values();
+    }
+
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The concurrency limit of one model.
+     */
+    public static final class Compartment {
+
+        private final String model;
+
+        private final int maxConcurrentCalls;
+
+        private final Semaphore permits;
+
+        private final LongAdder rejected = new LongAdder();
+
+        private Compartment(String model, int maxConcurrentCalls) {
+            this.model = model;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.permits = new Semaphore(maxConcurrentCalls);
+        }
+
+        private boolean tryAcquire() {
+            if (this.permits.tryAcquire()) {
+                return true;
+            }
+            this.rejected.increment();
+            return false;
+        }
+
+        private void release() {
+            this.permits.release();
+        }
+
+        private StepFunAiRequestRejectedException rejection() {
+            return new StepFunAiRequestRejectedException("Bulkhead of model " + this.model + " is full, "
+                    + this.maxConcurrentCalls + " requests in flight");
+        }
+
+        public String getModel() {
+            return this.model;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return this.maxConcurrentCalls;
+        }
+
+        /**
+         * @return the number of requests in flight.
+         */
+        public int getActiveCount() {
+            return this.maxConcurrentCalls - this.permits.availablePermits();
+        }
+
+        /**
+         * @return the number of requests rejected because the compartment was full.
+         */
+        public long getRejectedCount() {
+            return this.rejected.sum();
+        }
+
+    }
+
+    public static class Builder {
+
+        private int maxConcurrentCalls = 50;
+
+        private final Map<String, Integer> modelLimits = new HashMap<>();
+
+        private StepFunAiFallback fallback = new StepFunAiFallback() {
+        };
+
+        /**
+         * @param maxConcurrentCalls the maximum number of requests in flight for each model
+         */
+        public Builder withMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        public Builder withModelLimit(String model, int maxConcurrentCalls) {
+            this.modelLimits.put(model, maxConcurrentCalls);
+            return this;
+        }
+
+        public Builder withFallback(StepFunAiFallback fallback) {
+            this.fallback = fallback;
+            return this;
+        }
+
+        public StepFunAiBulkhead build() {
+            Assert.isTrue(this.maxConcurrentCalls >= 1, "Max concurrent calls must be at least 1");
+            this.modelLimits.values().forEach(limit -> Assert.isTrue(limit >= 1, "Max concurrent calls must be at least 1"));
+            Assert.notNull(this.fallback, "Fallback must not be null");
+            return new StepFunAiBulkhead(this);
+        }
+
+    }
+
+}
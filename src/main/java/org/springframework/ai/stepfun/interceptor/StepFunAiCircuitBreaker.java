@@ -0,0 +1,480 @@
+package org.springframework.ai.stepfun.interceptor;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiApiInterceptor;
+import org.springframework.ai.stepfun.api.StepFunAiRequestRejectedException;
+import org.springframework.ai.stepfun.util.ApiUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Circuit breaker {@link StepFunAiApiInterceptor} with one circuit per model, so that a degraded StepFun model fails
+ * its callers in milliseconds instead of holding their threads and connections until the response timeout.
+ * <p>
+ * Each circuit counts the calls of a rolling time window. It opens when, over at least {@code minimumCalls} calls,
+ * the rate of failed calls or the rate of slow calls reaches its threshold; only transient failures count, as a
+ * 4xx response says nothing about the health of StepFun. A stream is slow when its first chunk takes longer than
+ * {@code slowCallDuration}. While open, requests are handed to the {@link StepFunAiFallback}, which rejects them by
+ * default. After {@code openDuration} a few trial requests are let through: the circuit closes if they all succeed
+ * and opens again otherwise.
+ */
+public class StepFunAiCircuitBreaker implements StepFunAiApiInterceptor, Ordered {
+
+    /**
+     * Runs inside the request coalescer, so a shared flight counts once, and outside the bulkhead and the rate
+     * limiter, so an open circuit sheds requests before they wait for capacity.
+     */
+    public static final int DEFAULT_ORDER = Ordered.HIGHEST_PRECEDENCE + 200;
+
+    private static final String DEFAULT_MODEL = "default";
+
+    private static final int BUCKETS = 10;
+
+    private final double failureRateThreshold;
+
+    private final double slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final int minimumCalls;
+
+    private final long bucketNanos;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final StepFunAiFallback fallback;
+
+    private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    private final List<Consumer<Circuit>> circuitListeners = new CopyOnWriteArrayList<>();
+
+    private int order = DEFAULT_ORDER;
+
+    private StepFunAiCircuitBreaker(Builder builder) {
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallNanos = builder.slowCallDuration.toNanos();
+        this.minimumCalls = builder.minimumCalls;
+        this.bucketNanos = Math.max(1, builder.window.toNanos() / BUCKETS);
+        this.openNanos = builder.openDuration.toNanos();
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.fallback = builder.fallback;
+    }
+
+    @Override
+    public ResponseEntity<StepFunAiApi.ChatCompletion> aroundCall(StepFunAiApi.ChatCompletionRequest request,
+                                                                  CallExecution execution) {
+        Circuit circuit = circuit(request);
+        Permit permit = circuit.tryAcquire(System.nanoTime());
+        if (permit == null) {
+            return this.fallback.fallbackCall(request, circuit.rejection());
+        }
+        ResponseEntity<StepFunAiApi.ChatCompletion> response;
+        try {
+            response = execution.execute(request);
+        }
+        catch (RuntimeException ex) {
+            if (ApiUtils.isCancellation(ex)) {
+                permit.released();
+            }
+            else {
+                permit.failed(ex);
+            }
+            throw ex;
+        }
+        permit.succeeded();
+        return response;
+    }
+
+    @Override
+    public Flux<StepFunAiApi.ChatCompletionChunk> aroundStream(StepFunAiApi.ChatCompletionRequest request,
+                                                               StreamExecution execution) {
+        return Flux.defer(() -> {
+            Circuit circuit = circuit(request);
+            Permit permit = circuit.tryAcquire(System.nanoTime());
+            if (permit == null) {
+                return this.fallback.fallbackStream(request, circuit.rejection());
+            }
+            // The health of a stream is decided by its first chunk, the rest is paced by the model.
+            return execution.execute(request)
+                    .doOnNext(chunk -> permit.succeeded())
+                    .doOnComplete(permit::succeeded)
+                    .doOnError(permit::failed)
+                    .doOnCancel(permit::released);
+        });
+    }
+
+    private Circuit circuit(StepFunAiApi.ChatCompletionRequest request) {
+        String model = (request.model() != null ? request.model() : DEFAULT_MODEL);
+        Circuit circuit = this.circuits.get(model);
+        if (circuit == null) {
+            Circuit created = new Circuit(model);
+            circuit = this.circuits.putIfAbsent(model, created);
+            if (circuit == null) {
+                circuit = created;
+                for (Consumer<Circuit> listener : this.circuitListeners) {
+                    listener.accept(created);
+                }
+            }
+        }
+        return circuit;
+    }
+
+    /**
+     * Register a callback for the circuit of every model, called for the existing circuits and for each circuit
+     * created later, for example to bind meters.
+     * @param listener the callback
+     */
+    public void addCircuitListener(Consumer<Circuit> listener) {
+        this.circuitListeners.add(listener);
+        this.circuits.values().forEach(listener);
+    }
+
+    /**
+     * @return the circuits of the models called so far.
+     */
+    public Collection<Circuit> getCircuits() {
+        return this.circuits.values();
+    }
+
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public enum State {
+
+        /**
+         * Requests pass, their outcomes are recorded.
+         */
+        CLOSED,
+
+        /**
+         * Requests are rejected.
+         */
+        OPEN,
+
+        /**
+         * A limited number of trial requests pass.
+         */
+        HALF_OPEN
+
+    }
+
+    /**
+     * The circuit of one model.
+     */
+    public final class Circuit {
+
+        private final String model;
+
+        private final long[] bucketEpochs = new long[BUCKETS];
+
+        private final int[] calls = new int[BUCKETS];
+
+        private final int[] failures = new int[BUCKETS];
+
+        private final int[] slowCalls = new int[BUCKETS];
+
+        private final LongAdder rejected = new LongAdder();
+
+        private State state = State.CLOSED;
+
+        private long openedAt;
+
+        private int generation;
+
+        private int trialsInFlight;
+
+        private int trialsSucceeded;
+
+        private Circuit(String model) {
+            this.model = model;
+        }
+
+        private synchronized Permit tryAcquire(long now) {
+            if (this.state == State.OPEN) {
+                if (now - this.openedAt < openNanos) {
+                    this.rejected.increment();
+                    return null;
+                }
+                transition(State.HALF_OPEN, now);
+            }
+            if (this.state == State.HALF_OPEN) {
+                if (this.trialsInFlight + this.trialsSucceeded >= halfOpenCalls) {
+                    this.rejected.increment();
+                    return null;
+                }
+                this.trialsInFlight++;
+                return new Permit(this, this.generation, true, now);
+            }
+            return new Permit(this, this.generation, false, now);
+        }
+
+        private synchronized void record(Permit permit, boolean failed, long now) {
+            if (permit.generation != this.generation) {
+                // The circuit changed state while the call was in flight.
+                return;
+            }
+            boolean slow = (now - permit.startTime > slowCallNanos);
+            if (permit.trial) {
+                this.trialsInFlight--;
+                if (failed || slow) {
+                    transition(State.OPEN, now);
+                }
+                else if (++this.trialsSucceeded >= halfOpenCalls) {
+                    transition(State.CLOSED, now);
+                }
+                return;
+            }
+            int bucket = bucket(now);
+            this.calls[bucket]++;
+            if (failed) {
+                this.failures[bucket]++;
+            }
+            if (slow) {
+                this.slowCalls[bucket]++;
+            }
+            evaluate(now);
+        }
+
+        private synchronized void release(Permit permit) {
+            if (permit.trial && permit.generation == this.generation) {
+                this.trialsInFlight--;
+            }
+        }
+
+        private void evaluate(long now) {
+            long epoch = now / bucketNanos;
+            int totalCalls = 0;
+            int totalFailures = 0;
+            int totalSlowCalls = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (epoch - this.bucketEpochs[i] < BUCKETS) {
+                    totalCalls += this.calls[i];
+                    totalFailures += this.failures[i];
+                    totalSlowCalls += this.slowCalls[i];
+                }
+            }
+            if (totalCalls < minimumCalls) {
+                return;
+            }
+            if ((double) totalFailures / totalCalls >= failureRateThreshold
+                    || (double) totalSlowCalls / totalCalls >= slowCallRateThreshold) {
+                transition(State.OPEN, now);
+            }
+        }
+
+        private int bucket(long now) {
+            long epoch = now / bucketNanos;
+            int bucket = (int) Math.floorMod(epoch, BUCKETS);
+            if (this.bucketEpochs[bucket] != epoch) {
+                this.bucketEpochs[bucket] = epoch;
+                this.calls[bucket] = 0;
+                this.failures[bucket] = 0;
+                this.slowCalls[bucket] = 0;
+            }
+            return bucket;
+        }
+
+        private void transition(State state, long now) {
+            this.state = state;
+            this.generation++;
+            this.trialsInFlight = 0;
+            this.trialsSucceeded = 0;
+            if (state == State.OPEN) {
+                this.openedAt = now;
+            }
+            else if (state == State.CLOSED) {
+                Arrays.fill(this.calls, 0);
+                Arrays.fill(this.failures, 0);
+                Arrays.fill(this.slowCalls, 0);
+            }
+        }
+
+        private StepFunAiRequestRejectedException rejection() {
+            return new StepFunAiRequestRejectedException("Circuit breaker of model " + this.model + " is open");
+        }
+
+        public String getModel() {
+            return this.model;
+        }
+
+        public synchronized State getState() {
+            return this.state;
+        }
+
+        /**
+         * @return the number of requests rejected by this circuit.
+         */
+        public long getRejectedCount() {
+            return this.rejected.sum();
+        }
+
+    }
+
+    /**
+     * Admission of one call, recording its outcome once.
+     */
+    private static final class Permit {
+
+        private final Circuit circuit;
+
+        private final int generation;
+
+        private final boolean trial;
+
+        private final long startTime;
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Permit(Circuit circuit, int generation, boolean trial, long startTime) {
+            this.circuit = circuit;
+            this.generation = generation;
+            this.trial = trial;
+            this.startTime = startTime;
+        }
+
+        void succeeded() {
+            if (this.done.compareAndSet(false, true)) {
+                this.circuit.record(this, false, System.nanoTime());
+            }
+        }
+
+        void failed(Throwable error) {
+            if (this.done.compareAndSet(false, true)) {
+                if (ApiUtils.isTransientFailure(error)) {
+                    this.circuit.record(this, true, System.nanoTime());
+                }
+                else {
+                    this.circuit.release(this);
+                }
+            }
+        }
+
+        void released() {
+            if (this.done.compareAndSet(false, true)) {
+                this.circuit.release(this);
+            }
+        }
+
+    }
+
+    public static class Builder {
+
+        private double failureRateThreshold = 0.5;
+
+        private double slowCallRateThreshold = 1.0;
+
+        private Duration slowCallDuration = Duration.ofSeconds(30);
+
+        private int minimumCalls = 20;
+
+        private Duration window = Duration.ofSeconds(60);
+
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        private int halfOpenCalls = 3;
+
+        private StepFunAiFallback fallback = new StepFunAiFallback() {
+        };
+
+        /**
+         * @param failureRateThreshold the rate of failed calls opening the circuit, between 0 and 1
+         */
+        public Builder withFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallRateThreshold the rate of slow calls opening the circuit, between 0 and 1
+         */
+        public Builder withSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallDuration the duration above which a call, or the first chunk of a stream, is slow
+         */
+        public Builder withSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+            return this;
+        }
+
+        /**
+         * @param minimumCalls the number of calls in the window below which the circuit stays closed
+         */
+        public Builder withMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param window the rolling window the rates are computed over
+         */
+        public Builder withWindow(Duration window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * @param openDuration how long an open circuit rejects requests before letting trial requests through
+         */
+        public Builder withOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * @param halfOpenCalls the number of successful trial requests closing the circuit
+         */
+        public Builder withHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        public Builder withFallback(StepFunAiFallback fallback) {
+            this.fallback = fallback;
+            return this;
+        }
+
+        public StepFunAiCircuitBreaker build() {
+            Assert.isTrue(this.failureRateThreshold > 0 && this.failureRateThreshold <= 1, "Failure rate threshold must be between 0 and 1");
+            Assert.isTrue(this.slowCallRateThreshold > 0 && this.slowCallRateThreshold <= 1, "Slow call rate threshold must be between 0 and 1");
+            Assert.notNull(this.slowCallDuration, "Slow call duration must not be null");
+            Assert.isTrue(this.minimumCalls >= 1, "Minimum calls must be at least 1");
+            Assert.notNull(this.window, "Window must not be null");
+            Assert.notNull(this.openDuration, "Open duration must not be null");
+            Assert.isTrue(this.halfOpenCalls >= 1, "Half-open calls must be at least 1");
+            Assert.notNull(this.fallback, "Fallback must not be null");
+            return new StepFunAiCircuitBreaker(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.springframework.ai.stepfun.interceptor;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiRequestRejectedException;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+/**
+ * Answers the requests shed by the {@link StepFunAiCircuitBreaker} or the {@link StepFunAiBulkhead}, for example
+ * with a canned response or a call to another provider. By default the rejection is propagated to the caller.
+ * <p>
+ * A fallback runs on the calling thread while StepFun is degraded, so it should return quickly.
+ */
+public interface StepFunAiFallback {
+
+    /**
+     * @param request the rejected request
+     * @param rejection why the request was rejected
+     * @return the response of a rejected blocking call
+     */
+    default ResponseEntity<StepFunAiApi.ChatCompletion> fallbackCall(StepFunAiApi.ChatCompletionRequest request,
+                                                                    StepFunAiRequestRejectedException rejection) {
+        throw rejection;
+    }
+
+    /**
+     * @param request the rejected request
+     * @param rejection why the request was rejected
+     * @return the chunks of a rejected stream
+     */
+    default Flux<StepFunAiApi.ChatCompletionChunk> fallbackStream(StepFunAiApi.ChatCompletionRequest request,
+                                                                 StepFunAiRequestRejectedException rejection) {
+        return Flux.error(rejection);
+    }
+
+}
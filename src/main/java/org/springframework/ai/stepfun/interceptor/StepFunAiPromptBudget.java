@@ -0,0 +1,271 @@
+package org.springframework.ai.stepfun.interceptor;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiApiInterceptor;
+import org.springframework.ai.stepfun.api.StepFunAiRequestRejectedException;
+import org.springframework.ai.stepfun.api.StepFunAiTokenEstimator;
+import org.springframework.ai.stepfun.util.ApiUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link StepFunAiApiInterceptor} fitting each request into the context window of its model before it is sent, so
+ * that an oversized prompt fails fast instead of after its upload and a paid round trip. The prompt is measured with
+ * a {@link StepFunAiTokenEstimator}; a request without {@code max_tokens} is assumed to ask for
+ * {@link ApiUtils#DEFAULT_MAX_TOKENS}.
+ * <p>
+ * A request whose prompt plus {@code max_tokens} exceeds the window is handled according to the {@link Strategy}.
+ * Context windows are known for the {@link StepFunAiApi.ChatModel} models and can be configured for others; requests
+ * for a model with no known window are sent as they are.
+ */
+public class StepFunAiPromptBudget implements StepFunAiApiInterceptor, Ordered {
+
+    /**
+     * Runs first, so an oversized request is rejected before it is coalesced, queued or admitted, and the rate limiter
+     * reserves the clamped {@code max_tokens}.
+     */
+    public static final int DEFAULT_ORDER = Ordered.HIGHEST_PRECEDENCE + 50;
+
+    private final StepFunAiTokenEstimator tokenEstimator;
+
+    private final Strategy strategy;
+
+    private final int minCompletionTokens;
+
+    private final Map<String, Integer> contextWindows;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder clamped = new LongAdder();
+
+    private final LongAdder trimmed = new LongAdder();
+
+    private int order = DEFAULT_ORDER;
+
+    private StepFunAiPromptBudget(Builder builder) {
+        this.tokenEstimator = builder.tokenEstimator;
+        this.strategy = builder.strategy;
+        this.minCompletionTokens = builder.minCompletionTokens;
+        this.contextWindows = Map.copyOf(builder.contextWindows);
+    }
+
+    @Override
+    public ResponseEntity<StepFunAiApi.ChatCompletion> aroundCall(StepFunAiApi.ChatCompletionRequest request,
+                                                                  CallExecution execution) {
+        return execution.execute(fit(request));
+    }
+
+    @Override
+    public Flux<StepFunAiApi.ChatCompletionChunk> aroundStream(StepFunAiApi.ChatCompletionRequest request,
+                                                               StreamExecution execution) {
+        return Flux.defer(() -> execution.execute(fit(request)));
+    }
+
+    /**
+     * Fit a request into the context window of its model.
+     * @param request the request
+     * @return the request, or a copy with a smaller {@code max_tokens} or fewer messages
+     * @throws StepFunAiRequestRejectedException if the request does not fit
+     */
+    public StepFunAiApi.ChatCompletionRequest fit(StepFunAiApi.ChatCompletionRequest request) {
+        Integer contextWindow = contextWindow(request.model());
+        if (contextWindow == null) {
+            return request;
+        }
+        int maxTokens = (request.maxTokens() != null ? request.maxTokens() : ApiUtils.DEFAULT_MAX_TOKENS);
+        int promptTokens = this.tokenEstimator.estimatePrompt(request);
+        if (promptTokens + maxTokens <= contextWindow) {
+            return request;
+        }
+        if (this.strategy == Strategy.REJECT) {
+            throw reject(request, promptTokens, maxTokens, contextWindow);
+        }
+
+        List<StepFunAiApi.ChatCompletionMessage> messages = request.messages();
+        if (this.strategy == Strategy.TRIM && messages != null) {
+            List<StepFunAiApi.ChatCompletionMessage> kept = new ArrayList<>(messages);
+            promptTokens = trim(kept, promptTokens, contextWindow - maxTokens);
+            if (kept.size() < messages.size()) {
+                this.trimmed.increment();
+                messages = kept;
+            }
+        }
+        Integer clampedMaxTokens = request.maxTokens();
+        if (promptTokens + maxTokens > contextWindow) {
+            if (contextWindow - promptTokens < this.minCompletionTokens) {
+                throw reject(request, promptTokens, maxTokens, contextWindow);
+            }
+            clampedMaxTokens = contextWindow - promptTokens;
+            this.clamped.increment();
+        }
+        return new StepFunAiApi.ChatCompletionRequest(request.requestId(), request.model(), messages,
+                request.doSample(), request.stream(), request.temperature(), request.topP(), clampedMaxTokens,
+                request.stop(), request.tools(), request.toolChoice(), request.user(), request.priority());
+    }
+
+    /**
+     * Drop the oldest turns until the prompt fits the budget. System messages and the last message are kept, and the
+     * tool results following a dropped tool call are dropped with it.
+     * @return the estimated prompt tokens of the remaining messages
+     */
+    private int trim(List<StepFunAiApi.ChatCompletionMessage> messages, int promptTokens, int budget) {
+        int index = 0;
+        while (promptTokens > budget) {
+            while (index < messages.size() - 1 && messages.get(index).role() == StepFunAiApi.ChatCompletionMessage.Role.SYSTEM) {
+                index++;
+            }
+            int end = index + 1;
+            while (end < messages.size() - 1 && messages.get(end).role() == StepFunAiApi.ChatCompletionMessage.Role.TOOL) {
+                end++;
+            }
+            if (end >= messages.size() || messages.get(end).role() == StepFunAiApi.ChatCompletionMessage.Role.TOOL) {
+                // Nothing left to drop without dropping the last message or orphaning a tool result.
+                break;
+            }
+            List<StepFunAiApi.ChatCompletionMessage> dropped = messages.subList(index, end);
+            promptTokens -= this.tokenEstimator.estimateMessages(dropped);
+            dropped.clear();
+        }
+        return promptTokens;
+    }
+
+    private Integer contextWindow(String model) {
+        if (model == null) {
+            return null;
+        }
+        Integer contextWindow = this.contextWindows.get(model);
+        if (contextWindow == null) {
+            StepFunAiApi.ChatModel chatModel = StepFunAiApi.ChatModel.fromValue(model);
+            contextWindow = (chatModel != null ? chatModel.getContextWindow() : null);
+        }
+        return contextWindow;
+    }
+
+    private StepFunAiRequestRejectedException reject(StepFunAiApi.ChatCompletionRequest request, int promptTokens,
+                                                     int maxTokens, int contextWindow) {
+        this.rejected.increment();
+        return new StepFunAiRequestRejectedException("Request to " + request.model() + " needs about " + promptTokens
+                + " prompt tokens and " + maxTokens + " max tokens, over the context window of " + contextWindow
+                + " tokens");
+    }
+
+    /**
+     * @return the number of requests rejected because they do not fit the context window.
+     */
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * @return the number of requests whose {@code max_tokens} was lowered.
+     */
+    public long getClampedCount() {
+        return this.clamped.sum();
+    }
+
+    /**
+     * @return the number of requests whose oldest messages were dropped.
+     */
+    public long getTrimmedCount() {
+        return this.trimmed.sum();
+    }
+
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * How a request exceeding the context window of its model is handled.
+     */
+    public enum Strategy {
+
+        /**
+         * Reject the request.
+         */
+        REJECT,
+
+        /**
+         * Lower {@code max_tokens} to the room left by the prompt, rejecting the request when less than
+         * {@code minCompletionTokens} are left.
+         */
+        CLAMP,
+
+        /**
+         * Drop the oldest conversation turns until the prompt leaves room for {@code max_tokens}, then clamp if the
+         * remaining turns still do not fit.
+         */
+        TRIM
+
+    }
+
+    public static class Builder {
+
+        private StepFunAiTokenEstimator tokenEstimator;
+
+        private Strategy strategy = Strategy.CLAMP;
+
+        private int minCompletionTokens = 256;
+
+        private final Map<String, Integer> contextWindows = new HashMap<>();
+
+        /**
+         * @param tokenEstimator estimates the prompt tokens, a new one by default
+         */
+        public Builder withTokenEstimator(StepFunAiTokenEstimator tokenEstimator) {
+            this.tokenEstimator = tokenEstimator;
+            return this;
+        }
+
+        public Builder withStrategy(Strategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * @param minCompletionTokens the fewest completion tokens a clamped request is left with
+         */
+        public Builder withMinCompletionTokens(int minCompletionTokens) {
+            this.minCompletionTokens = minCompletionTokens;
+            return this;
+        }
+
+        /**
+         * @param model the model name
+         * @param contextWindow the maximum number of prompt and completion tokens of a request to the model
+         */
+        public Builder withContextWindow(String model, int contextWindow) {
+            this.contextWindows.put(model, contextWindow);
+            return this;
+        }
+
+        public StepFunAiPromptBudget build() {
+            Assert.notNull(this.strategy, "Strategy must not be null");
+            Assert.isTrue(this.minCompletionTokens >= 1, "Min completion tokens must be at least 1");
+            this.contextWindows.values().forEach(contextWindow -> Assert.isTrue(contextWindow != null && contextWindow >= 1,
+                    "Context window must be at least 1"));
+            if (this.tokenEstimator == null) {
+                this.tokenEstimator = new StepFunAiTokenEstimator();
+            }
+            return new StepFunAiPromptBudget(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,419 @@
+package org.springframework.ai.stepfun.interceptor;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiApiInterceptor;
+import org.springframework.ai.stepfun.api.StepFunAiKeyAdmission;
+import org.springframework.ai.stepfun.api.StepFunAiKeyPool;
+import org.springframework.ai.stepfun.api.StepFunAiRequestRejectedException;
+import org.springframework.ai.stepfun.api.StepFunAiTokenEstimator;
+import org.springframework.ai.stepfun.util.ApiUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side rate limiting {@link StepFunAiApiInterceptor} enforcing requests per minute and tokens per minute for
+ * each API key and model, so that load is shaped before it turns into upstream 429 responses.
+ * <p>
+ * The token cost of a request is estimated from its prompt size and {@code max_tokens} when it is admitted, and
+ * corrected from the returned {@link StepFunAiApi.Usage} once known. A request that does not fit waits for capacity,
+ * up to {@code maxWait} and with at most {@code maxWaiters} requests waiting; otherwise it is rejected with a
+ * {@link StepFunAiRequestRejectedException}. Blocking calls sleep on the calling thread, streams are delayed without
+ * blocking.
+ * <p>
+ * As an interceptor, the limiter runs before {@link StepFunAiApi} leases a key, so it enforces the limits of the single
+ * key of the client, identified by {@code keyId}. With a {@link StepFunAiKeyPool}, register it as the
+ * {@link StepFunAiApi#setKeyAdmission(StepFunAiKeyAdmission) key admission} of the client instead, so that each
+ * request is admitted against the buckets of the key it was leased.
+ */
+public class StepFunAiRateLimiter implements StepFunAiApiInterceptor, StepFunAiKeyAdmission, Ordered {
+
+    /**
+     * Runs inside the request coalescer, so a shared flight is only admitted once.
+     */
+    public static final int DEFAULT_ORDER = Ordered.HIGHEST_PRECEDENCE + 300;
+
+    private static final long PERIOD_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final String DEFAULT_MODEL = "default";
+
+    private final String keyId;
+
+    private final Limit defaultLimit;
+
+    private final Map<String, Limit> modelLimits;
+
+    private final long maxWaitNanos;
+
+    private final int maxWaiters;
+
+    private final StepFunAiTokenEstimator tokenEstimator;
+
+    private final ConcurrentMap<String, Buckets> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    private final LongAdder delayed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private int order = DEFAULT_ORDER;
+
+    private StepFunAiRateLimiter(Builder builder) {
+        this.keyId = builder.keyId;
+        this.defaultLimit = builder.defaultLimit;
+        this.modelLimits = Map.copyOf(builder.modelLimits);
+        this.maxWaitNanos = builder.maxWait.toNanos();
+        this.maxWaiters = builder.maxWaiters;
+        this.tokenEstimator = builder.tokenEstimator;
+    }
+
+    @Override
+    public ResponseEntity<StepFunAiApi.ChatCompletion> aroundCall(StepFunAiApi.ChatCompletionRequest request,
+                                                                  CallExecution execution) {
+        Reservation reservation = reserve(this.keyId, request);
+        reservation.await();
+        ResponseEntity<StepFunAiApi.ChatCompletion> response;
+        try {
+            response = execution.execute(request);
+        }
+        catch (RuntimeException ex) {
+            // A cancelled request may still be billed, its estimate stays charged.
+            if (!ApiUtils.isCancellation(ex)) {
+                reservation.refund();
+            }
+            throw ex;
+        }
+        StepFunAiApi.ChatCompletion completion = response.getBody();
+        reservation.settle(completion != null ? completion.usage() : null);
+        return response;
+    }
+
+    @Override
+    public Flux<StepFunAiApi.ChatCompletionChunk> aroundStream(StepFunAiApi.ChatCompletionRequest request,
+                                                               StreamExecution execution) {
+        return Flux.defer(() -> {
+            Reservation reservation = reserve(this.keyId, request);
+            AtomicReference<StepFunAiApi.Usage> usage = new AtomicReference<>();
+            AtomicBoolean received = new AtomicBoolean();
+            Flux<StepFunAiApi.ChatCompletionChunk> chunks = execution.execute(request)
+                    .doOnNext(chunk -> {
+                        received.set(true);
+                        if (chunk.usage() != null) {
+                            usage.set(chunk.usage());
+                        }
+                    });
+            if (reservation.delayNanos > 0) {
+                chunks = Mono.delay(Duration.ofNanos(reservation.delayNanos))
+                        .doFinally(signal -> reservation.release())
+                        .thenMany(chunks);
+            }
+            // Cancelled streams too, e.g. of a disconnected client: refunded before the first chunk, settled after it.
+            return chunks.doFinally(signal -> {
+                if (signal != SignalType.ON_COMPLETE && !received.get()) {
+                    reservation.refund();
+                }
+                else {
+                    reservation.settle(usage.get());
+                }
+            });
+        });
+    }
+
+    /**
+     * Reserve capacity for a request, without waiting for it.
+     * @param keyId the API key the request is sent with
+     * @param request the request
+     * @return the reservation, with the delay after which it may be sent
+     * @throws StepFunAiRequestRejectedException if the request cannot wait for capacity
+     */
+    public Reservation reserve(String keyId, StepFunAiApi.ChatCompletionRequest request) {
+        String model = (request.model() != null ? request.model() : DEFAULT_MODEL);
+        Buckets modelBuckets = this.buckets.computeIfAbsent(keyId + '/' + model,
+                key -> new Buckets(this.modelLimits.getOrDefault(model, this.defaultLimit), System.nanoTime()));
+        long tokens = estimateTokens(request);
+
+        synchronized (modelBuckets) {
+            long now = System.nanoTime();
+            long delay = modelBuckets.delayFor(tokens, now);
+            boolean waiting = (delay > 0);
+            if (waiting) {
+                if (delay > this.maxWaitNanos || !tryAddWaiter()) {
+                    this.rejected.increment();
+                    throw new StepFunAiRequestRejectedException("Rate limit of key " + keyId + " and model " + model
+                            + " exhausted, no capacity for " + Duration.ofNanos(delay).toMillis() + " ms");
+                }
+                this.delayed.increment();
+            }
+            long charged = modelBuckets.consume(tokens, now);
+            return new Reservation(modelBuckets, charged, delay, waiting);
+        }
+    }
+
+    @Override
+    public Reservation admit(String keyAlias, StepFunAiApi.ChatCompletionRequest request) {
+        return reserve(keyAlias, request);
+    }
+
+    /**
+     * Estimate the tokens a request consumes: its prompt plus the completion budget.
+     * @param request the request
+     * @return the estimated number of tokens
+     */
+    protected long estimateTokens(StepFunAiApi.ChatCompletionRequest request) {
+        long promptTokens = this.tokenEstimator.estimatePrompt(request);
+        long completionTokens = (request.maxTokens() != null ? request.maxTokens() : ApiUtils.DEFAULT_MAX_TOKENS);
+        return promptTokens + completionTokens;
+    }
+
+    private boolean tryAddWaiter() {
+        int current;
+        do {
+            current = this.waiters.get();
+            if (current >= this.maxWaiters) {
+                return false;
+            }
+        }
+        while (!this.waiters.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * @return the number of requests currently waiting for capacity.
+     */
+    public int getWaitingCount() {
+        return this.waiters.get();
+    }
+
+    /**
+     * @return the number of requests that had to wait for capacity.
+     */
+    public long getDelayedCount() {
+        return this.delayed.sum();
+    }
+
+    /**
+     * @return the number of requests rejected for lack of capacity.
+     */
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Per minute limits, 0 for no limit.
+     *
+     * @param requestsPerMinute the maximum number of requests per minute
+     * @param tokensPerMinute the maximum number of tokens per minute
+     */
+    public record Limit(int requestsPerMinute, int tokensPerMinute) {
+
+        public Limit {
+            Assert.isTrue(requestsPerMinute >= 0, "Requests per minute must not be negative");
+            Assert.isTrue(tokensPerMinute >= 0, "Tokens per minute must not be negative");
+        }
+
+    }
+
+    /**
+     * Capacity reserved for one request.
+     */
+    public final class Reservation implements StepFunAiKeyAdmission.Permit {
+
+        private final Buckets buckets;
+
+        /**
+         * The tokens taken from the bucket, the estimate capped at its capacity.
+         */
+        private final long tokens;
+
+        private final long delayNanos;
+
+        private final AtomicBoolean waiting;
+
+        private Reservation(Buckets buckets, long tokens, long delayNanos, boolean waiting) {
+            this.buckets = buckets;
+            this.tokens = tokens;
+            this.delayNanos = delayNanos;
+            this.waiting = new AtomicBoolean(waiting);
+        }
+
+        @Override
+        public Duration getDelay() {
+            return Duration.ofNanos(this.delayNanos);
+        }
+
+        @Override
+        public void await() {
+            if (this.delayNanos == 0) {
+                return;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(this.delayNanos);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                refund();
+                throw new StepFunAiRequestRejectedException("Interrupted while waiting for rate limit capacity", ex);
+            }
+            finally {
+                release();
+            }
+        }
+
+        @Override
+        public void settle(StepFunAiApi.Usage usage) {
+            if (usage != null && usage.totalTokens() != null) {
+                this.buckets.adjustTokens(this.tokens - this.buckets.chargeTokens(usage.totalTokens()));
+            }
+        }
+
+        @Override
+        public void refund() {
+            this.buckets.adjustTokens(this.tokens);
+        }
+
+        @Override
+        public void release() {
+            if (this.waiting.compareAndSet(true, false)) {
+                StepFunAiRateLimiter.this.waiters.decrementAndGet();
+            }
+        }
+
+    }
+
+    private static final class Buckets {
+
+        private final TokenBucket requests;
+
+        private final TokenBucket tokens;
+
+        Buckets(Limit limit, long nowNanos) {
+            this.requests = (limit.requestsPerMinute() > 0 ? new TokenBucket(limit.requestsPerMinute(), PERIOD_NANOS, nowNanos) : null);
+            this.tokens = (limit.tokensPerMinute() > 0 ? new TokenBucket(limit.tokensPerMinute(), PERIOD_NANOS, nowNanos) : null);
+        }
+
+        long delayFor(long tokenCount, long nowNanos) {
+            long delay = (this.requests != null ? this.requests.delayFor(1, nowNanos) : 0);
+            return Math.max(delay, (this.tokens != null ? this.tokens.delayFor(tokenCount, nowNanos) : 0));
+        }
+
+        /**
+         * @return the tokens actually taken from the token bucket
+         */
+        long consume(long tokenCount, long nowNanos) {
+            if (this.requests != null) {
+                this.requests.consume(1, nowNanos);
+            }
+            return (this.tokens != null ? this.tokens.consume(tokenCount, nowNanos) : 0);
+        }
+
+        long chargeTokens(long tokenCount) {
+            return (this.tokens != null ? this.tokens.charge(tokenCount) : 0);
+        }
+
+        synchronized void adjustTokens(long tokenCount) {
+            if (this.tokens != null && tokenCount != 0) {
+                this.tokens.adjust(tokenCount, System.nanoTime());
+            }
+        }
+
+    }
+
+    public static class Builder {
+
+        private String keyId = "default";
+
+        private Limit defaultLimit = new Limit(60, 0);
+
+        private final Map<String, Limit> modelLimits = new HashMap<>();
+
+        private Duration maxWait = Duration.ofSeconds(30);
+
+        private int maxWaiters = 100;
+
+        private StepFunAiTokenEstimator tokenEstimator;
+
+        /**
+         * @param keyId identifies the single API key whose limits are enforced as an interceptor
+         */
+        public Builder withKeyId(String keyId) {
+            this.keyId = keyId;
+            return this;
+        }
+
+        public Builder withRequestsPerMinute(int requestsPerMinute) {
+            this.defaultLimit = new Limit(requestsPerMinute, this.defaultLimit.tokensPerMinute());
+            return this;
+        }
+
+        public Builder withTokensPerMinute(int tokensPerMinute) {
+            this.defaultLimit = new Limit(this.defaultLimit.requestsPerMinute(), tokensPerMinute);
+            return this;
+        }
+
+        public Builder withModelLimit(String model, Limit limit) {
+            this.modelLimits.put(model, limit);
+            return this;
+        }
+
+        public Builder withMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * @param maxWaiters the maximum number of requests waiting for capacity, 0 to fail fast
+         */
+        public Builder withMaxWaiters(int maxWaiters) {
+            this.maxWaiters = maxWaiters;
+            return this;
+        }
+
+        /**
+         * @param tokenEstimator estimates the prompt tokens, a new one by default
+         */
+        public Builder withTokenEstimator(StepFunAiTokenEstimator tokenEstimator) {
+            this.tokenEstimator = tokenEstimator;
+            return this;
+        }
+
+        public StepFunAiRateLimiter build() {
+            Assert.hasText(this.keyId, "Key id must not be empty");
+            Assert.notNull(this.maxWait, "Max wait must not be null");
+            Assert.isTrue(this.maxWaiters >= 0, "Max waiters must not be negative");
+            if (this.tokenEstimator == null) {
+                this.tokenEstimator = new StepFunAiTokenEstimator();
+            }
+            return new StepFunAiRateLimiter(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,145 @@
+package org.springframework.ai.stepfun.interceptor;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiApiInterceptor;
+import org.springframework.ai.stepfun.api.StepFunAiRequestDigest;
+import org.springframework.core.Ordered;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight {@link StepFunAiApiInterceptor}: concurrent identical requests, as identified by
+ * {@link StepFunAiRequestDigest}, share one upstream call.
+ * <p>
+ * Blocking callers wait for the response of the first caller. Streaming subscribers share one upstream stream whose
+ * chunks are replayed to late joiners, so every subscriber sees the complete stream; the upstream stream is
+ * cancelled once the last subscriber cancels. Sampled requests ({@code do_sample=true}) are not coalesced unless
+ * {@code coalesceSampled} is set, as their callers expect independent answers.
+ */
+public class StepFunAiRequestCoalescer implements StepFunAiApiInterceptor, Ordered {
+
+    /**
+     * Runs outside all other interceptors, so a shared flight is admitted and retried only once.
+     */
+    public static final int DEFAULT_ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private final ConcurrentMap<String, CompletableFuture<ResponseEntity<StepFunAiApi.ChatCompletion>>> inFlightCalls = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Flux<StepFunAiApi.ChatCompletionChunk>> inFlightStreams = new ConcurrentHashMap<>();
+
+    private final boolean coalesceSampled;
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private int order = DEFAULT_ORDER;
+
+    public StepFunAiRequestCoalescer() {
+        this(false);
+    }
+
+    /**
+     * @param coalesceSampled whether requests with {@code do_sample=true} are coalesced as well
+     */
+    public StepFunAiRequestCoalescer(boolean coalesceSampled) {
+        this.coalesceSampled = coalesceSampled;
+    }
+
+    @Override
+    public ResponseEntity<StepFunAiApi.ChatCompletion> aroundCall(StepFunAiApi.ChatCompletionRequest request,
+                                                                  CallExecution execution) {
+        if (!isCoalesced(request)) {
+            return execution.execute(request);
+        }
+        String key = StepFunAiRequestDigest.of(request);
+        CompletableFuture<ResponseEntity<StepFunAiApi.ChatCompletion>> flight = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<StepFunAiApi.ChatCompletion>> existing = this.inFlightCalls.putIfAbsent(key, flight);
+        if (existing != null) {
+            this.coalesced.increment();
+            return await(existing);
+        }
+        try {
+            ResponseEntity<StepFunAiApi.ChatCompletion> response = execution.execute(request);
+            flight.complete(response);
+            return response;
+        }
+        catch (Throwable ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        }
+        finally {
+            this.inFlightCalls.remove(key, flight);
+        }
+    }
+
+    @Override
+    public Flux<StepFunAiApi.ChatCompletionChunk> aroundStream(StepFunAiApi.ChatCompletionRequest request,
+                                                               StreamExecution execution) {
+        if (!isCoalesced(request)) {
+            return execution.execute(request);
+        }
+        return Flux.defer(() -> {
+            String key = StepFunAiRequestDigest.of(request);
+            Flux<StepFunAiApi.ChatCompletionChunk> flight = this.inFlightStreams.get(key);
+            if (flight != null) {
+                this.coalesced.increment();
+                return flight;
+            }
+            return this.inFlightStreams.computeIfAbsent(key, k -> newStreamFlight(k, request, execution));
+        });
+    }
+
+    private Flux<StepFunAiApi.ChatCompletionChunk> newStreamFlight(String key, StepFunAiApi.ChatCompletionRequest request,
+                                                                   StreamExecution execution) {
+        AtomicReference<Flux<StepFunAiApi.ChatCompletionChunk>> self = new AtomicReference<>();
+        Flux<StepFunAiApi.ChatCompletionChunk> flight = Flux.defer(() -> execution.execute(request))
+                // Runs once the upstream stream terminates or the last subscriber cancels.
+                .doFinally(signal -> this.inFlightStreams.remove(key, self.get()))
+                .replay()
+                .refCount();
+        self.set(flight);
+        return flight;
+    }
+
+    private boolean isCoalesced(StepFunAiApi.ChatCompletionRequest request) {
+        return this.coalesceSampled || !Boolean.TRUE.equals(request.doSample());
+    }
+
+    private static <T> T await(CompletableFuture<T> flight) {
+        try {
+            return flight.join();
+        }
+        catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the number of requests that joined an in-flight request instead of calling upstream.
+     */
+    public long getCoalescedCount() {
+        return this.coalesced.sum();
+    }
+
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+}
@@ -0,0 +1,394 @@
+package org.springframework.ai.stepfun.interceptor;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiApiInterceptor;
+import org.springframework.ai.stepfun.api.StepFunAiRequestRejectedException;
+import org.springframework.core.Ordered;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedging {@link StepFunAiApiInterceptor} for blocking chat completions: when a call has not answered within a
+ * high percentile of the recent latencies of its model, an identical call is sent, the first response wins and the
+ * other call is cancelled. This trades a few percent of extra upstream requests for a shorter latency tail.
+ * <p>
+ * The hedge delay is the {@code percentile} of the last successful calls of the model, bounded below by
+ * {@code minDelay}; no call is hedged until {@code minSamples} latencies are known. Hedges are capped by a budget of
+ * {@code maxHedgeRatio} of the calls, so a slow upstream is not hit by twice the load. When a
+ * {@link org.springframework.ai.stepfun.api.StepFunAiKeyPool key pool} is used, the hedge leases the least loaded
+ * key, which is another key than the one of the pending call whenever one is idle. Streams are not hedged.
+ */
+public class StepFunAiRequestHedger implements StepFunAiApiInterceptor, Ordered {
+
+    /**
+     * Runs inside the request coalescer, so a shared flight is hedged once, and outside the circuit breaker, the
+     * bulkhead and the rate limiter, so every attempt is admitted and accounted for.
+     */
+    public static final int DEFAULT_ORDER = Ordered.HIGHEST_PRECEDENCE + 150;
+
+    private static final String DEFAULT_MODEL = "default";
+
+    private static final int SAMPLES = 512;
+
+    /**
+     * The percentile is recomputed after this many new samples rather than on every call.
+     */
+    private static final int RECOMPUTE_INTERVAL = 32;
+
+    private final double percentile;
+
+    private final long minDelayNanos;
+
+    private final int minSamples;
+
+    private final double maxHedgeRatio;
+
+    private final double maxBudget;
+
+    private final Executor executor;
+
+    private final ConcurrentMap<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+
+    private final LongAdder hedged = new LongAdder();
+
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private double budget;
+
+    private int order = DEFAULT_ORDER;
+
+    private StepFunAiRequestHedger(Builder builder) {
+        this.percentile = builder.percentile;
+        this.minDelayNanos = builder.minDelay.toNanos();
+        this.minSamples = builder.minSamples;
+        this.maxHedgeRatio = builder.maxHedgeRatio;
+        this.maxBudget = builder.maxBurst;
+        this.budget = builder.maxBurst;
+        this.executor = builder.executor;
+    }
+
+    @Override
+    public ResponseEntity<StepFunAiApi.ChatCompletion> aroundCall(StepFunAiApi.ChatCompletionRequest request,
+                                                                  CallExecution execution) {
+        LatencyTracker tracker = this.trackers.computeIfAbsent(
+                request.model() != null ? request.model() : DEFAULT_MODEL, model -> new LatencyTracker());
+        long delayNanos = tracker.delayNanos();
+        earnBudget();
+        if (delayNanos < 0) {
+            long start = System.nanoTime();
+            ResponseEntity<StepFunAiApi.ChatCompletion> response = execution.execute(request);
+            tracker.record(System.nanoTime() - start);
+            return response;
+        }
+
+        LinkedBlockingQueue<Attempt> completed = new LinkedBlockingQueue<>();
+        Attempt primary = new Attempt(request, execution, tracker, completed, false);
+        Attempt hedge = null;
+        try {
+            try {
+                this.executor.execute(primary.task);
+            }
+            catch (RejectedExecutionException ex) {
+                // No thread to spare: the call is not hedged and runs on the calling thread.
+                primary.task.run();
+            }
+            Attempt winner = completed.poll(delayNanos, TimeUnit.NANOSECONDS);
+            if (winner == null && trySpendBudget()) {
+                hedge = new Attempt(request, execution, tracker, completed, true);
+                try {
+                    this.executor.execute(hedge.task);
+                    this.hedged.increment();
+                }
+                catch (RejectedExecutionException ex) {
+                    refundBudget();
+                    hedge = null;
+                }
+            }
+            int pending = (hedge != null ? 2 : 1);
+            Attempt failed = null;
+            while (pending > 0) {
+                if (winner == null) {
+                    winner = completed.take();
+                }
+                pending--;
+                if (winner.error == null) {
+                    if (winner.hedge) {
+                        this.hedgeWins.increment();
+                    }
+                    return winner.response;
+                }
+                // Wait for the other attempt before giving up.
+                failed = (failed != null ? failed : winner);
+                winner = null;
+            }
+            if (failed.error instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) failed.error;
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new StepFunAiRequestRejectedException("Interrupted while waiting for a chat completion", ex);
+        }
+        finally {
+            // The attempt still running is the slow one: its latency so far keeps the tail in the samples.
+            long now = System.nanoTime();
+            primary.recordElapsed(now);
+            primary.task.cancel(true);
+            if (hedge != null) {
+                hedge.recordElapsed(now);
+                hedge.task.cancel(true);
+            }
+        }
+    }
+
+    private synchronized void earnBudget() {
+        this.budget = Math.min(this.maxBudget, this.budget + this.maxHedgeRatio);
+    }
+
+    private synchronized boolean trySpendBudget() {
+        if (this.budget < 1) {
+            return false;
+        }
+        this.budget--;
+        return true;
+    }
+
+    private synchronized void refundBudget() {
+        this.budget = Math.min(this.maxBudget, this.budget + 1);
+    }
+
+    /**
+     * @return the number of calls that were hedged.
+     */
+    public long getHedgedCount() {
+        return this.hedged.sum();
+    }
+
+    /**
+     * @return the number of hedged calls answered by the hedge rather than the original call.
+     */
+    public long getHedgeWinCount() {
+        return this.hedgeWins.sum();
+    }
+
+    /**
+     * @param model the model
+     * @return the current hedge delay of the model, or {@code null} if its calls are not hedged yet
+     */
+    public Duration getHedgeDelay(String model) {
+        LatencyTracker tracker = this.trackers.get(model);
+        long delayNanos = (tracker != null ? tracker.delayNanos() : -1);
+        return (delayNanos >= 0 ? Duration.ofNanos(delayNanos) : null);
+    }
+
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * One attempt of a hedged call, reporting itself to the queue of completed attempts.
+     */
+    private static final class Attempt {
+
+        private final boolean hedge;
+
+        private final LatencyTracker tracker;
+
+        private final FutureTask<Void> task;
+
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        private volatile boolean started;
+
+        private volatile long startNanos;
+
+        private volatile ResponseEntity<StepFunAiApi.ChatCompletion> response;
+
+        private volatile Throwable error;
+
+        Attempt(StepFunAiApi.ChatCompletionRequest request, CallExecution execution, LatencyTracker tracker,
+                LinkedBlockingQueue<Attempt> completed, boolean hedge) {
+            this.hedge = hedge;
+            this.tracker = tracker;
+            this.task = new FutureTask<>(() -> {
+                this.startNanos = System.nanoTime();
+                this.started = true;
+                try {
+                    this.response = execution.execute(request);
+                    record(System.nanoTime() - this.startNanos);
+                }
+                catch (RuntimeException | Error ex) {
+                    this.error = ex;
+                }
+                completed.add(this);
+                return null;
+            });
+        }
+
+        /**
+         * Record how long an attempt still running has taken so far, a lower bound of its latency.
+         */
+        void recordElapsed(long nowNanos) {
+            if (this.started && !this.task.isDone()) {
+                record(nowNanos - this.startNanos);
+            }
+        }
+
+        private void record(long latencyNanos) {
+            if (this.recorded.compareAndSet(false, true)) {
+                this.tracker.record(latencyNanos);
+            }
+        }
+
+    }
+
+    /**
+     * The recent latencies of one model and the hedge delay derived from them.
+     */
+    private final class LatencyTracker {
+
+        private final long[] samples = new long[SAMPLES];
+
+        private int count;
+
+        private int sinceRecompute;
+
+        private volatile long delayNanos = -1;
+
+        long delayNanos() {
+            return this.delayNanos;
+        }
+
+        synchronized void record(long latencyNanos) {
+            this.samples[this.count % SAMPLES] = latencyNanos;
+            this.count++;
+            if (this.count >= minSamples && (++this.sinceRecompute >= RECOMPUTE_INTERVAL || this.delayNanos < 0)) {
+                this.sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(this.samples, Math.min(this.count, SAMPLES));
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(percentile * sorted.length) - 1;
+                this.delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+            }
+        }
+
+    }
+
+    public static class Builder {
+
+        private double percentile = 0.95;
+
+        private Duration minDelay = Duration.ofMillis(50);
+
+        private int minSamples = 20;
+
+        private double maxHedgeRatio = 0.05;
+
+        private int maxBurst = 10;
+
+        private int maxThreads = 64;
+
+        private Executor executor;
+
+        /**
+         * @param percentile the percentile of the recent latencies after which a call is hedged, between 0 and 1
+         */
+        public Builder withPercentile(double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * @param minDelay the shortest hedge delay
+         */
+        public Builder withMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+            return this;
+        }
+
+        /**
+         * @param minSamples the number of latencies of a model to know before its calls are hedged
+         */
+        public Builder withMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        /**
+         * @param maxHedgeRatio the maximum ratio of hedges to calls, between 0 and 1
+         */
+        public Builder withMaxHedgeRatio(double maxHedgeRatio) {
+            this.maxHedgeRatio = maxHedgeRatio;
+            return this;
+        }
+
+        /**
+         * @param maxBurst the maximum number of hedges saved up by a quiet period
+         */
+        public Builder withMaxBurst(int maxBurst) {
+            this.maxBurst = maxBurst;
+            return this;
+        }
+
+        /**
+         * @param maxThreads the maximum number of threads of the default executor; once they are all busy, calls are
+         * no longer hedged and run on the calling thread
+         */
+        public Builder withMaxThreads(int maxThreads) {
+            this.maxThreads = maxThreads;
+            return this;
+        }
+
+        /**
+         * @param executor runs the attempts, each blocking a thread until it completes, instead of a pool of at most
+         * {@code maxThreads} threads; rejected attempts run on the calling thread or are not hedged
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public StepFunAiRequestHedger build() {
+            Assert.isTrue(this.percentile > 0 && this.percentile <= 1, "Percentile must be between 0 and 1");
+            Assert.notNull(this.minDelay, "Min delay must not be null");
+            Assert.isTrue(this.minSamples >= 1, "Min samples must be at least 1");
+            Assert.isTrue(this.maxHedgeRatio >= 0 && this.maxHedgeRatio <= 1, "Max hedge ratio must be between 0 and 1");
+            Assert.isTrue(this.maxBurst >= 1, "Max burst must be at least 1");
+            Assert.isTrue(this.maxThreads >= 1, "Max threads must be at least 1");
+            if (this.executor == null) {
+                CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("stepfun-hedge-");
+                threadFactory.setDaemon(true);
+                // No queue: an attempt that cannot start at once is rejected rather than delayed.
+                this.executor = new ThreadPoolExecutor(0, this.maxThreads, 60, TimeUnit.SECONDS,
+                        new SynchronousQueue<>(), threadFactory);
+            }
+            return new StepFunAiRequestHedger(this);
+        }
+
+    }
+
+}
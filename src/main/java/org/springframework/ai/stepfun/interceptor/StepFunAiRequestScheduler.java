@@ -0,0 +1,368 @@
+package org.springframework.ai.stepfun.interceptor;
+
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiApiInterceptor;
+import org.springframework.ai.stepfun.api.StepFunAiRequestPriority;
+import org.springframework.ai.stepfun.api.StepFunAiRequestRejectedException;
+import org.springframework.core.Ordered;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Priority-aware admission {@link StepFunAiApiInterceptor}: at most {@code maxConcurrentCalls} requests are in flight,
+ * the others wait in one queue per {@link StepFunAiRequestPriority} and are dispatched by weighted fair queuing, so
+ * interactive requests overtake batch work without starving it.
+ * <p>
+ * A request is rejected with a {@link StepFunAiRequestRejectedException} when the queue of its priority is full, and
+ * dropped once it has waited longer than the maximum wait of its priority, since its caller has likely given up.
+ * Requests without a priority are {@link StepFunAiRequestPriority#DEFAULT}. Blocking callers wait on their own thread,
+ * streams wait without blocking.
+ */
+public class StepFunAiRequestScheduler implements StepFunAiApiInterceptor, Ordered {
+
+    /**
+     * Runs inside the request coalescer, so a shared flight takes one slot, and outside the hedger and the
+     * resilience interceptors, so a slot covers all the attempts of a request.
+     */
+    public static final int DEFAULT_ORDER = Ordered.HIGHEST_PRECEDENCE + 120;
+
+    private static final Map<StepFunAiRequestPriority, PriorityClass> DEFAULT_CLASSES = Map.of(
+            StepFunAiRequestPriority.INTERACTIVE, new PriorityClass(8, 100, Duration.ofSeconds(5)),
+            StepFunAiRequestPriority.DEFAULT, new PriorityClass(4, 200, Duration.ofSeconds(30)),
+            StepFunAiRequestPriority.BATCH, new PriorityClass(1, 1000, Duration.ofMinutes(5)));
+
+    private final int maxConcurrentCalls;
+
+    private final Map<StepFunAiRequestPriority, PriorityQueue> queues = new EnumMap<>(StepFunAiRequestPriority.class);
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder expired = new LongAdder();
+
+    private int active;
+
+    /**
+     * The virtual time of the fair queuing: the start of the last dispatched request.
+     */
+    private double virtualTime;
+
+    private int order = DEFAULT_ORDER;
+
+    private StepFunAiRequestScheduler(Builder builder) {
+        this.maxConcurrentCalls = builder.maxConcurrentCalls;
+        builder.classes.forEach((priority, priorityClass) -> this.queues.put(priority, new PriorityQueue(priorityClass)));
+    }
+
+    @Override
+    public ResponseEntity<StepFunAiApi.ChatCompletion> aroundCall(StepFunAiApi.ChatCompletionRequest request,
+                                                                  CallExecution execution) {
+        Ticket ticket = enqueue(request);
+        try {
+            ticket.granted.get(ticket.remainingNanos(System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException ex) {
+            if (cancel(ticket)) {
+                throw rejection(ticket);
+            }
+            // Granted while timing out, go on.
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            if (cancel(ticket)) {
+                throw new StepFunAiRequestRejectedException("Interrupted while waiting for a scheduler slot", ex);
+            }
+        }
+        catch (ExecutionException ex) {
+            throw (StepFunAiRequestRejectedException) ex.getCause();
+        }
+        try {
+            return execution.execute(request);
+        }
+        finally {
+            release(ticket);
+        }
+    }
+
+    @Override
+    public Flux<StepFunAiApi.ChatCompletionChunk> aroundStream(StepFunAiApi.ChatCompletionRequest request,
+                                                               StreamExecution execution) {
+        return Flux.defer(() -> {
+            Ticket ticket = enqueue(request);
+            return Mono.fromFuture(ticket.granted, true)
+                    .timeout(Duration.ofNanos(ticket.remainingNanos(System.nanoTime())), Mono.defer(() -> {
+                        cancel(ticket);
+                        return Mono.fromFuture(ticket.granted, true);
+                    }))
+                    .doOnCancel(() -> cancel(ticket))
+                    .thenMany(Flux.defer(() -> execution.execute(request)))
+                    .doFinally(signal -> release(ticket));
+        });
+    }
+
+    private Ticket enqueue(StepFunAiApi.ChatCompletionRequest request) {
+        StepFunAiRequestPriority priority = (request.priority() != null ? request.priority() : StepFunAiRequestPriority.DEFAULT);
+        PriorityQueue queue = this.queues.get(priority);
+        long now = System.nanoTime();
+        Ticket ticket = new Ticket(queue, now + queue.priorityClass.maxWait().toNanos());
+        synchronized (this) {
+            if (this.active < this.maxConcurrentCalls && isIdle()) {
+                this.active++;
+                ticket.admitted = true;
+                ticket.granted.complete(null);
+                return ticket;
+            }
+            if (queue.tickets.size() >= queue.priorityClass.maxQueueLength()) {
+                this.rejected.increment();
+                throw new StepFunAiRequestRejectedException("Scheduler queue of priority " + priority + " is full, "
+                        + queue.tickets.size() + " requests waiting");
+            }
+            if (queue.tickets.isEmpty()) {
+                // An idle queue does not save up credit while it has nothing to send.
+                queue.pass = Math.max(queue.pass, this.virtualTime);
+            }
+            queue.tickets.add(ticket);
+        }
+        return ticket;
+    }
+
+    /**
+     * Give up waiting. A ticket admitted in the meantime keeps its slot, the caller then goes on with the request.
+     * @return whether the ticket was still waiting
+     */
+    private boolean cancel(Ticket ticket) {
+        synchronized (this) {
+            if (ticket.admitted || !ticket.queue.tickets.remove(ticket)) {
+                return false;
+            }
+        }
+        this.expired.increment();
+        ticket.granted.completeExceptionally(rejection(ticket));
+        return true;
+    }
+
+    /**
+     * Free the slot of an admitted ticket, once, and admit the next waiting tickets.
+     */
+    private void release(Ticket ticket) {
+        List<Ticket> admitted = new ArrayList<>();
+        List<Ticket> dropped = new ArrayList<>();
+        synchronized (this) {
+            if (!ticket.admitted || ticket.released) {
+                return;
+            }
+            ticket.released = true;
+            this.active--;
+            long now = System.nanoTime();
+            while (this.active < this.maxConcurrentCalls) {
+                Ticket next = next();
+                if (next == null) {
+                    break;
+                }
+                if (next.remainingNanos(now) <= 0) {
+                    dropped.add(next);
+                    continue;
+                }
+                this.active++;
+                next.admitted = true;
+                admitted.add(next);
+            }
+        }
+        // Completed outside the lock, as a stream subscribes to its upstream on the completing thread.
+        for (Ticket next : dropped) {
+            this.expired.increment();
+            next.granted.completeExceptionally(rejection(next));
+        }
+        for (Ticket next : admitted) {
+            next.granted.complete(null);
+        }
+    }
+
+    private static StepFunAiRequestRejectedException rejection(Ticket ticket) {
+        return new StepFunAiRequestRejectedException("Request expired after waiting "
+                + ticket.queue.priorityClass.maxWait().toMillis() + " ms for a scheduler slot");
+    }
+
+    /**
+     * @return the head of the non-empty queue whose next request finishes first in virtual time, or {@code null} if
+     * all queues are empty
+     */
+    private Ticket next() {
+        PriorityQueue selected = null;
+        for (PriorityQueue queue : this.queues.values()) {
+            if (!queue.tickets.isEmpty() && (selected == null || queue.finish() < selected.finish())) {
+                selected = queue;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        this.virtualTime = selected.pass;
+        selected.pass = selected.finish();
+        return selected.tickets.poll();
+    }
+
+    private boolean isIdle() {
+        for (PriorityQueue queue : this.queues.values()) {
+            if (!queue.tickets.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of requests in flight.
+     */
+    public synchronized int getActiveCount() {
+        return this.active;
+    }
+
+    /**
+     * @param priority the priority
+     * @return the number of requests of the priority waiting for a slot.
+     */
+    public synchronized int getQueueLength(StepFunAiRequestPriority priority) {
+        return this.queues.get(priority).tickets.size();
+    }
+
+    /**
+     * @return the number of requests rejected because the queue of their priority was full.
+     */
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * @return the number of requests dropped after waiting longer than the maximum wait of their priority.
+     */
+    public long getExpiredCount() {
+        return this.expired.sum();
+    }
+
+    /**
+     * @param priority the priority
+     * @return the scheduling parameters of the priority unless configured otherwise
+     */
+    public static PriorityClass defaultPriorityClass(StepFunAiRequestPriority priority) {
+        return DEFAULT_CLASSES.get(priority);
+    }
+
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The scheduling parameters of a priority.
+     *
+     * @param weight the share of the slots given to the priority when all priorities have waiting requests
+     * @param maxQueueLength the maximum number of waiting requests, further requests are rejected
+     * @param maxWait the maximum time a request waits for a slot before it is dropped
+     */
+    public record PriorityClass(int weight, int maxQueueLength, Duration maxWait) {
+
+        public PriorityClass {
+            Assert.isTrue(weight >= 1, "Weight must be at least 1");
+            Assert.isTrue(maxQueueLength >= 0, "Max queue length must not be negative");
+            Assert.notNull(maxWait, "Max wait must not be null");
+        }
+
+    }
+
+    private static final class PriorityQueue {
+
+        private final PriorityClass priorityClass;
+
+        private final ArrayDeque<Ticket> tickets = new ArrayDeque<>();
+
+        private double pass;
+
+        PriorityQueue(PriorityClass priorityClass) {
+            this.priorityClass = priorityClass;
+        }
+
+        /**
+         * @return the virtual finish time of the next request of this queue
+         */
+        double finish() {
+            return this.pass + 1.0 / this.priorityClass.weight();
+        }
+
+    }
+
+    private static final class Ticket {
+
+        private final PriorityQueue queue;
+
+        private final long deadline;
+
+        private final CompletableFuture<Void> granted = new CompletableFuture<>();
+
+        /**
+         * Guarded by the scheduler.
+         */
+        private boolean admitted;
+
+        private boolean released;
+
+        Ticket(PriorityQueue queue, long deadline) {
+            this.queue = queue;
+            this.deadline = deadline;
+        }
+
+        long remainingNanos(long now) {
+            return this.deadline - now;
+        }
+
+    }
+
+    public static class Builder {
+
+        private int maxConcurrentCalls = 32;
+
+        private final Map<StepFunAiRequestPriority, PriorityClass> classes = new EnumMap<>(DEFAULT_CLASSES);
+
+        /**
+         * @param maxConcurrentCalls the maximum number of requests in flight
+         */
+        public Builder withMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        public Builder withPriorityClass(StepFunAiRequestPriority priority, PriorityClass priorityClass) {
+            this.classes.put(priority, priorityClass);
+            return this;
+        }
+
+        public StepFunAiRequestScheduler build() {
+            Assert.isTrue(this.maxConcurrentCalls >= 1, "Max concurrent calls must be at least 1");
+            this.classes.values().forEach(priorityClass -> Assert.notNull(priorityClass, "Priority class must not be null"));
+            return new StepFunAiRequestScheduler(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.springframework.ai.stepfun.interceptor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Locale;
+
+/**
+ * Publishes the state of a {@link StepFunAiCircuitBreaker} and a {@link StepFunAiBulkhead}, tagged by {@code model}:
+ * <ul>
+ * <li>{@code stepfun.circuit.state}: 1 for the current state of the circuit, 0 for the others, tagged by
+ * {@code state}</li>
+ * <li>{@code stepfun.circuit.rejected}: requests rejected by an open circuit</li>
+ * <li>{@code stepfun.bulkhead.active}: requests in flight</li>
+ * <li>{@code stepfun.bulkhead.rejected}: requests rejected by a full bulkhead</li>
+ * </ul>
+ * Meters are registered as models are first called.
+ */
+public class StepFunAiResilienceMetrics implements MeterBinder {
+
+    private final StepFunAiCircuitBreaker circuitBreaker;
+
+    private final StepFunAiBulkhead bulkhead;
+
+    /**
+     * @param circuitBreaker the circuit breaker, may be {@code null}
+     * @param bulkhead the bulkhead, may be {@code null}
+     */
+    public StepFunAiResilienceMetrics(StepFunAiCircuitBreaker circuitBreaker, StepFunAiBulkhead bulkhead) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (this.circuitBreaker != null) {
+            this.circuitBreaker.addCircuitListener(circuit -> bindCircuit(registry, circuit));
+        }
+        if (this.bulkhead != null) {
+            this.bulkhead.addCompartmentListener(compartment -> bindCompartment(registry, compartment));
+        }
+    }
+
+    private void bindCircuit(MeterRegistry registry, StepFunAiCircuitBreaker.Circuit circuit) {
+        for (StepFunAiCircuitBreaker.State state : StepFunAiCircuitBreaker.State.values()) {
+            Gauge.builder("stepfun.circuit.state", circuit, c -> (c.getState() == state ? 1 : 0))
+                    .description("State of the circuit breaker of a model")
+                    .tags("model", circuit.getModel(), "state", state.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        FunctionCounter.builder("stepfun.circuit.rejected", circuit, StepFunAiCircuitBreaker.Circuit::getRejectedCount)
+                .description("Chat requests rejected by an open circuit breaker")
+                .tag("model", circuit.getModel())
+                .register(registry);
+    }
+
+    private void bindCompartment(MeterRegistry registry, StepFunAiBulkhead.Compartment compartment) {
+        Gauge.builder("stepfun.bulkhead.active", compartment, StepFunAiBulkhead.Compartment::getActiveCount)
+                .description("Chat requests in flight in the bulkhead of a model")
+                .tag("model", compartment.getModel())
+                .register(registry);
+        FunctionCounter.builder("stepfun.bulkhead.rejected", compartment, StepFunAiBulkhead.Compartment::getRejectedCount)
+                .description("Chat requests rejected by a full bulkhead")
+                .tag("model", compartment.getModel())
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,73 @@
+package org.springframework.ai.stepfun.interceptor;
+
+/**
+ * Token bucket refilled continuously up to its capacity. Consumers reserve capacity ahead of time: a reservation
+ * may drive the balance negative, and the returned delay is the time until the reservation is covered.
+ * Not thread-safe, callers synchronize.
+ */
+class TokenBucket {
+
+    private final double capacity;
+
+    private final double refillPerNano;
+
+    private double balance;
+
+    private long lastRefillNanos;
+
+    /**
+     * @param capacity the maximum balance, also the amount refilled per {@code periodNanos}
+     * @param periodNanos the refill period
+     * @param nowNanos the current time
+     */
+    TokenBucket(long capacity, long periodNanos, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = (double) capacity / periodNanos;
+        this.balance = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * @return the delay in nanoseconds until {@code amount} would be available, 0 if available now
+     */
+    long delayFor(long amount, long nowNanos) {
+        refill(nowNanos);
+        double deficit = Math.min(amount, this.capacity) - this.balance;
+        return (deficit <= 0 ? 0 : (long) Math.ceil(deficit / this.refillPerNano));
+    }
+
+    /**
+     * Take {@code amount}, at most the capacity, from the balance, which may become negative.
+     * @return the amount actually taken
+     */
+    long consume(long amount, long nowNanos) {
+        refill(nowNanos);
+        long charged = charge(amount);
+        this.balance -= charged;
+        return charged;
+    }
+
+    /**
+     * @return the amount charged for {@code amount}: a single consumer never takes more than the capacity
+     */
+    long charge(long amount) {
+        return (long) Math.min(amount, this.capacity);
+    }
+
+    /**
+     * Give back (positive) or take (negative) an amount after the actual cost became known.
+     */
+    void adjust(long amount, long nowNanos) {
+        refill(nowNanos);
+        this.balance = Math.min(this.capacity, this.balance + amount);
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - this.lastRefillNanos;
+        if (elapsed > 0) {
+            this.balance = Math.min(this.capacity, this.balance + elapsed * this.refillPerNano);
+            this.lastRefillNanos = nowNanos;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.springframework.ai.stepfun.metadata;
+
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+
+/**
+ * {@link ChatResponseMetadata} of a StepFun chat completion, exposing its id and token usage.
+ */
+public class StepFunAiChatResponseMetadata implements ChatResponseMetadata {
+
+    private final String id;
+
+    private final Usage usage;
+
+    protected StepFunAiChatResponseMetadata(String id, Usage usage) {
+        this.id = id;
+        this.usage = usage;
+    }
+
+    /**
+     * @param chatCompletion the chat completion, or the merged chunk of a stream
+     * @return the metadata, without usage when the completion reports none
+     */
+    public static StepFunAiChatResponseMetadata from(StepFunAiApi.ChatCompletion chatCompletion) {
+        Usage usage = (chatCompletion.usage() != null ? StepFunAiUsage.from(chatCompletion.usage()) : null);
+        return new StepFunAiChatResponseMetadata(chatCompletion.id(), usage);
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public Usage getUsage() {
+        return (this.usage != null ? this.usage : ChatResponseMetadata.super.getUsage());
+    }
+
+    @Override
+    public String toString() {
+        return "StepFunAiChatResponseMetadata{id=" + this.id + ", usage=" + this.usage + "}";
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.springframework.ai.stepfun.metadata;
+
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Usage} reported by StepFun for a chat completion.
+ */
+public class StepFunAiUsage implements Usage {
+
+    private final StepFunAiApi.Usage usage;
+
+    protected StepFunAiUsage(StepFunAiApi.Usage usage) {
+        Assert.notNull(usage, "StepFun Usage must not be null");
+        this.usage = usage;
+    }
+
+    public static StepFunAiUsage from(StepFunAiApi.Usage usage) {
+        return new StepFunAiUsage(usage);
+    }
+
+    protected StepFunAiApi.Usage getUsage() {
+        return this.usage;
+    }
+
+    @Override
+    public Long getPromptTokens() {
+        return toLong(getUsage().promptTokens());
+    }
+
+    @Override
+    public Long getGenerationTokens() {
+        return toLong(getUsage().completionTokens());
+    }
+
+    @Override
+    public Long getTotalTokens() {
+        Integer totalTokens = getUsage().totalTokens();
+        return (totalTokens != null ? totalTokens.longValue() : getPromptTokens() + getGenerationTokens());
+    }
+
+    private static long toLong(Integer tokens) {
+        return (tokens != null ? tokens.longValue() : 0L);
+    }
+
+    @Override
+    public String toString() {
+        return "StepFunAiUsage{promptTokens=" + getPromptTokens() + ", generationTokens=" + getGenerationTokens()
+                + ", totalTokens=" + getTotalTokens() + "}";
+    }
+
+}
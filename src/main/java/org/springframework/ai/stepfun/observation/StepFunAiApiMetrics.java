@@ -0,0 +1,227 @@
+package org.springframework.ai.stepfun.observation;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.ai.stepfun.api.StepFunAiApiListener;
+import org.springframework.ai.stepfun.api.StepFunAiRequestRejectedException;
+import org.springframework.ai.stepfun.api.StepFunAiTransientHttpException;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency profile of the exchanges of {@link StepFunAiApi} as Micrometer meters, tagged by
+ * {@code model} and {@code key} (the alias of the pool key, or {@value #DEFAULT_KEY}):
+ * <ul>
+ * <li>{@code stepfun.chat.requests}: request latency, also tagged by {@code stream}, {@code outcome} and
+ * {@code finish.reason}</li>
+ * <li>{@code stepfun.chat.time.to.first.token}: time to the first chunk of a stream</li>
+ * <li>{@code stepfun.chat.chunk.gap}: time between two chunks of a stream</li>
+ * <li>{@code stepfun.chat.chunks}: chunks per stream</li>
+ * <li>{@code stepfun.chat.received}: response bytes</li>
+ * <li>{@code stepfun.chat.tokens}: tokens reported by the usage, tagged by {@code type}</li>
+ * </ul>
+ * Each exchange resolves its meters once, so recording a chunk only reads the clock and updates a timer.
+ */
+public class StepFunAiApiMetrics implements StepFunAiApiListener {
+
+    /**
+     * Value of the {@code key} tag when no key pool is used.
+     */
+    public static final String DEFAULT_KEY = "default";
+
+    private static final String NO_VALUE = "none";
+
+    private final MeterRegistry registry;
+
+    private final Clock clock;
+
+    public StepFunAiApiMetrics(MeterRegistry registry) {
+        Assert.notNull(registry, "Meter registry must not be null");
+        this.registry = registry;
+        this.clock = registry.config().clock();
+    }
+
+    @Override
+    public Exchange exchangeStarted(StepFunAiApi.ChatCompletionRequest request) {
+        return new MeteredExchange(request.model() != null ? request.model() : NO_VALUE, request.stream(),
+                this.clock.monotonicTime());
+    }
+
+    /**
+     * @param error the failure of an exchange
+     * @return the {@code outcome} tag of the failure
+     */
+    protected String outcome(Throwable error) {
+        if (error instanceof StepFunAiRequestRejectedException) {
+            return "rejected";
+        }
+        if (error instanceof WebClientResponseException ex) {
+            return (ex.getStatusCode().is4xxClientError() ? "client_error" : "server_error");
+        }
+        if (error instanceof RestClientResponseException ex) {
+            return (ex.getStatusCode().is4xxClientError() ? "client_error" : "server_error");
+        }
+        if (error instanceof StepFunAiTransientHttpException ex) {
+            return (ex.getStatusCode().is4xxClientError() ? "client_error" : "server_error");
+        }
+        return "error";
+    }
+
+    private Timer latencyTimer(String name, String description, String model, String key) {
+        return Timer.builder(name)
+                .description(description)
+                .tags("model", model, "key", key)
+                .publishPercentileHistogram()
+                .register(this.registry);
+    }
+
+    /**
+     * The meters of one exchange. Reactor signals the callbacks of a stream serially, so no synchronization is needed.
+     */
+    private final class MeteredExchange implements Exchange {
+
+        private final String model;
+
+        private final boolean stream;
+
+        private final long startTime;
+
+        private String key = DEFAULT_KEY;
+
+        private long lastChunkTime;
+
+        private int chunks;
+
+        private long bytes;
+
+        private Timer chunkGapTimer;
+
+        private StepFunAiApi.ChatCompletionFinishReason finishReason;
+
+        private StepFunAiApi.Usage usage;
+
+        private boolean finished;
+
+        MeteredExchange(String model, boolean stream, long startTime) {
+            this.model = model;
+            this.stream = stream;
+            this.startTime = startTime;
+        }
+
+        @Override
+        public void keySelected(String alias) {
+            this.key = alias;
+        }
+
+        @Override
+        public void bytesReceived(long bytes) {
+            this.bytes += bytes;
+        }
+
+        @Override
+        public void chunkReceived(StepFunAiApi.ChatCompletionChunk chunk) {
+            long now = clock.monotonicTime();
+            if (this.chunks++ == 0) {
+                latencyTimer("stepfun.chat.time.to.first.token", "Time to the first chunk of a chat completion stream",
+                        this.model, this.key).record(now - this.startTime, TimeUnit.NANOSECONDS);
+            }
+            else {
+                if (this.chunkGapTimer == null) {
+                    this.chunkGapTimer = latencyTimer("stepfun.chat.chunk.gap",
+                            "Time between two chunks of a chat completion stream", this.model, this.key);
+                }
+                this.chunkGapTimer.record(now - this.lastChunkTime, TimeUnit.NANOSECONDS);
+            }
+            this.lastChunkTime = now;
+            if (chunk.usage() != null) {
+                this.usage = chunk.usage();
+            }
+            if (!CollectionUtils.isEmpty(chunk.choices()) && chunk.choices().get(0).finishReason() != null) {
+                this.finishReason = chunk.choices().get(0).finishReason();
+            }
+        }
+
+        @Override
+        public void completed(StepFunAiApi.ChatCompletion completion) {
+            if (completion != null) {
+                this.usage = completion.usage();
+                if (!CollectionUtils.isEmpty(completion.choices())) {
+                    this.finishReason = completion.choices().get(0).finishReason();
+                }
+            }
+            finish("success");
+        }
+
+        @Override
+        public void failed(Throwable error) {
+            finish(outcome(error));
+        }
+
+        @Override
+        public void cancelled() {
+            finish("cancelled");
+        }
+
+        private void finish(String outcome) {
+            if (this.finished) {
+                return;
+            }
+            this.finished = true;
+            long duration = clock.monotonicTime() - this.startTime;
+            Tags tags = Tags.of("model", this.model, "key", this.key);
+
+            Timer.builder("stepfun.chat.requests")
+                    .description("Chat completion requests")
+                    .tags(tags)
+                    .tag("stream", String.valueOf(this.stream))
+                    .tag("outcome", outcome)
+                    .tag("finish.reason", this.finishReason != null ? this.finishReason.name().toLowerCase(Locale.ROOT) : NO_VALUE)
+                    .register(registry)
+                    .record(duration, TimeUnit.NANOSECONDS);
+            if (this.stream) {
+                DistributionSummary.builder("stepfun.chat.chunks")
+                        .description("Chunks per chat completion stream")
+                        .tags(tags)
+                        .register(registry)
+                        .record(this.chunks);
+            }
+            if (this.bytes > 0) {
+                Counter.builder("stepfun.chat.received")
+                        .description("Bytes received in chat completion responses")
+                        .baseUnit("bytes")
+                        .tags(tags)
+                        .register(registry)
+                        .increment(this.bytes);
+            }
+            if (this.usage != null) {
+                countTokens(tags, "prompt", this.usage.promptTokens());
+                countTokens(tags, "completion", this.usage.completionTokens());
+            }
+        }
+
+        private void countTokens(Tags tags, String type, Integer tokens) {
+            if (tokens == null || tokens == 0) {
+                return;
+            }
+            Counter.builder("stepfun.chat.tokens")
+                    .description("Tokens reported by the chat completion usage")
+                    .baseUnit("tokens")
+                    .tags(tags)
+                    .tag("type", type)
+                    .register(registry)
+                    .increment(tokens);
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.springframework.ai.stepfun.observation;
+
+import io.micrometer.observation.transport.RequestReplySenderContext;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Context of an upstream {@link StepFunAiObservationDocumentation#CHAT_COMPLETION chat completion} observation.
+ * <p>
+ * A tracing handler propagates the trace context into the carrier when the observation starts, from which
+ * {@link #getTraceContext()} derives the {@code request_id} sent to StepFun.
+ */
+public class StepFunAiChatCompletionObservationContext
+        extends RequestReplySenderContext<Map<String, String>, StepFunAiApi.ChatCompletion> {
+
+    /**
+     * Name of the W3C trace context field.
+     */
+    public static final String TRACEPARENT = "traceparent";
+
+    private final StepFunAiApi.ChatCompletionRequest request;
+
+    public StepFunAiChatCompletionObservationContext(StepFunAiApi.ChatCompletionRequest request) {
+        super(Map::put);
+        this.request = request;
+        setCarrier(new LinkedHashMap<>(4));
+        setRemoteServiceName("stepfun");
+        StepFunAiChatObservationContext.addRequestKeyValues(this, request);
+    }
+
+    public StepFunAiApi.ChatCompletionRequest getRequest() {
+        return this.request;
+    }
+
+    /**
+     * @return the propagated trace context, preferring the W3C {@value #TRACEPARENT} field, or {@code null} if no
+     * tracer propagated one.
+     */
+    public String getTraceContext() {
+        Map<String, String> carrier = getCarrier();
+        if (carrier.isEmpty()) {
+            return null;
+        }
+        String traceparent = carrier.get(TRACEPARENT);
+        return (traceparent != null ? traceparent : carrier.values().iterator().next());
+    }
+
+    /**
+     * Record the request ID sent to StepFun.
+     * @param requestId the request ID
+     */
+    public void recordRequestId(String requestId) {
+        if (requestId != null) {
+            addHighCardinalityKeyValue(StepFunAiObservationDocumentation.HighCardinalityKeyNames.REQUEST_ID.withValue(requestId));
+        }
+    }
+
+    /**
+     * Record the finish reason and the usage of the response, or of a chunk of a stream when present.
+     * @param completion the completion
+     */
+    public void recordCompletion(StepFunAiApi.ChatCompletion completion) {
+        StepFunAiChatObservationContext.addCompletionKeyValues(this, completion);
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.springframework.ai.stepfun.observation;
+
+import io.micrometer.observation.Observation;
+import org.springframework.ai.stepfun.api.StepFunAiApi;
+import org.springframework.util.CollectionUtils;
+
+import java.util.Locale;
+
+/**
+ * Context of a {@link StepFunAiObservationDocumentation#CHAT chat turn} observation.
+ */
+public class StepFunAiChatObservationContext extends Observation.Context {
+
+    private final StepFunAiApi.ChatCompletionRequest request;
+
+    private int retryCount;
+
+    public StepFunAiChatObservationContext(StepFunAiApi.ChatCompletionRequest request) {
+        this.request = request;
+        addRequestKeyValues(this, request);
+        setRetryCount(0);
+    }
+
+    public StepFunAiApi.ChatCompletionRequest getRequest() {
+        return this.request;
+    }
+
+    public int getRetryCount() {
+        return this.retryCount;
+    }
+
+    public void setRetryCount(int retryCount) {
+        this.retryCount = retryCount;
+        addLowCardinalityKeyValue(StepFunAiObservationDocumentation.LowCardinalityKeyNames.RETRY_COUNT
+                .withValue(String.valueOf(retryCount)));
+    }
+
+    /**
+     * Record the finish reason and the usage of a completion, or of a chunk of a stream when present.
+     * @param completion the completion
+     */
+    public void recordCompletion(StepFunAiApi.ChatCompletion completion) {
+        addCompletionKeyValues(this, completion);
+    }
+
+    static void addRequestKeyValues(Observation.Context context, StepFunAiApi.ChatCompletionRequest request) {
+        context.addLowCardinalityKeyValue(StepFunAiObservationDocumentation.LowCardinalityKeyNames.MODEL
+                .withValue(request.model() != null ? request.model() : "none"));
+        context.addLowCardinalityKeyValue(StepFunAiObservationDocumentation.LowCardinalityKeyNames.STREAM
+                .withValue(String.valueOf(request.stream())));
+        context.addLowCardinalityKeyValue(StepFunAiObservationDocumentation.LowCardinalityKeyNames.FINISH_REASON
+                .withValue("none"));
+    }
+
+    static void addCompletionKeyValues(Observation.Context context, StepFunAiApi.ChatCompletion completion) {
+        if (completion == null) {
+            return;
+        }
+        if (!CollectionUtils.isEmpty(completion.choices()) && completion.choices().get(0).finishReason() != null) {
+            context.addLowCardinalityKeyValue(StepFunAiObservationDocumentation.LowCardinalityKeyNames.FINISH_REASON
+                    .withValue(completion.choices().get(0).finishReason().name().toLowerCase(Locale.ROOT)));
+        }
+        StepFunAiApi.Usage usage = completion.usage();
+        if (usage != null) {
+            addTokens(context, StepFunAiObservationDocumentation.HighCardinalityKeyNames.PROMPT_TOKENS, usage.promptTokens());
+            addTokens(context, StepFunAiObservationDocumentation.HighCardinalityKeyNames.COMPLETION_TOKENS, usage.completionTokens());
+            addTokens(context, StepFunAiObservationDocumentation.HighCardinalityKeyNames.TOTAL_TOKENS, usage.totalTokens());
+        }
+    }
+
+    private static void addTokens(Observation.Context context,
+                                  StepFunAiObservationDocumentation.HighCardinalityKeyNames keyName, Integer tokens) {
+        if (tokens != null) {
+            context.addHighCardinalityKeyValue(keyName.withValue(String.valueOf(tokens)));
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.springframework.ai.stepfun.observation;
+
+import io.micrometer.common.docs.KeyName;
+import io.micrometer.observation.docs.ObservationDocumentation;
+
+/**
+ * Observations of the StepFun chat client: a chat turn, each upstream chat completion call of the turn, and each
+ * function callback the model asked for.
+ */
+public enum StepFunAiObservationDocumentation implements ObservationDocumentation {
+
+    /**
+     * A chat turn, including its retries and its tool loop.
+     */
+    CHAT {
+        @Override
+        public String getName() {
+            return "stepfun.chat";
+        }
+
+        @Override
+        public String getContextualName() {
+            return "stepfun chat";
+        }
+
+        @Override
+        public KeyName[] getLowCardinalityKeyNames() {
+            return new KeyName[] { LowCardinalityKeyNames.MODEL, LowCardinalityKeyNames.STREAM,
+                    LowCardinalityKeyNames.FINISH_REASON, LowCardinalityKeyNames.RETRY_COUNT };
+        }
+
+        @Override
+        public KeyName[] getHighCardinalityKeyNames() {
+            return new KeyName[] { HighCardinalityKeyNames.PROMPT_TOKENS, HighCardinalityKeyNames.COMPLETION_TOKENS,
+                    HighCardinalityKeyNames.TOTAL_TOKENS };
+        }
+    },
+
+    /**
+     * One upstream chat completion call.
+     */
+    CHAT_COMPLETION {
+        @Override
+        public String getName() {
+            return "stepfun.chat.completion";
+        }
+
+        @Override
+        public String getContextualName() {
+            return "stepfun chat completion";
+        }
+
+        @Override
+        public KeyName[] getLowCardinalityKeyNames() {
+            return new KeyName[] { LowCardinalityKeyNames.MODEL, LowCardinalityKeyNames.STREAM,
+                    LowCardinalityKeyNames.FINISH_REASON };
+        }
+
+        @Override
+        public KeyName[] getHighCardinalityKeyNames() {
+            return new KeyName[] { HighCardinalityKeyNames.REQUEST_ID, HighCardinalityKeyNames.PROMPT_TOKENS,
+                    HighCardinalityKeyNames.COMPLETION_TOKENS, HighCardinalityKeyNames.TOTAL_TOKENS };
+        }
+    },
+
+    /**
+     * One function callback.
+     */
+    TOOL_CALL {
+        @Override
+        public String getName() {
+            return "stepfun.chat.tool";
+        }
+
+        @Override
+        public String getContextualName() {
+            return "stepfun chat tool";
+        }
+
+        @Override
+        public KeyName[] getLowCardinalityKeyNames() {
+            return new KeyName[] { LowCardinalityKeyNames.TOOL_NAME };
+        }
+    };
+
+    public enum LowCardinalityKeyNames implements KeyName {
+
+        MODEL("model"),
+
+        STREAM("stream"),
+
+        FINISH_REASON("finish_reason"),
+
+        RETRY_COUNT("retry.count"),
+
+        TOOL_NAME("tool.name");
+
+        private final String value;
+
+        LowCardinalityKeyNames(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String asString() {
+            return this.value;
+        }
+
+    }
+
+    /**
+     * Token counts vary per call, so they are recorded on spans only and never become meter tags.
+     */
+    public enum HighCardinalityKeyNames implements KeyName {
+
+        REQUEST_ID("request_id"),
+
+        PROMPT_TOKENS("usage.prompt_tokens"),
+
+        COMPLETION_TOKENS("usage.completion_tokens"),
+
+        TOTAL_TOKENS("usage.total_tokens");
+
+        private final String value;
+
+        HighCardinalityKeyNames(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String asString() {
+            return this.value;
+        }
+
+    }
+
+}
@@ -1,8 +1,22 @@
 package org.springframework.ai.stepfun.util;
 
+import org.springframework.ai.retry.TransientAiException;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.function.Consumer;
 
 public class ApiUtils {
@@ -22,4 +36,70 @@ public class ApiUtils {
         };
     };
 
+    /**
+     * Tell whether a failed call is worth retrying: 429 and 5xx responses, I/O errors and {@link TransientAiException},
+     * including the {@code StepFunAiTransientHttpException} thrown by blocking calls for a 429 or 5xx response that the
+     * response error handler deems transient.
+     * @param error the failure
+     * @return whether the failure is transient
+     */
+    public static boolean isTransientFailure(Throwable error) {
+        if (error instanceof TransientAiException || error instanceof WebClientRequestException
+                || error instanceof ResourceAccessException) {
+            return true;
+        }
+        HttpStatusCode status = null;
+        if (error instanceof WebClientResponseException ex) {
+            status = ex.getStatusCode();
+        }
+        else if (error instanceof RestClientResponseException ex) {
+            status = ex.getStatusCode();
+        }
+        return (status != null && (status.value() == HttpStatus.TOO_MANY_REQUESTS.value() || status.is5xxServerError()));
+    }
+
+    /**
+     * Tell whether a failed blocking call was stopped by its caller rather than by the upstream: the calling thread is
+     * interrupted, or the failure was caused by an interruption, e.g. the losing attempt of a hedged call.
+     * @param error the failure
+     * @return whether the call was cancelled
+     */
+    public static boolean isCancellation(Throwable error) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException
+                    || cause instanceof ClosedByInterruptException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse a {@code Retry-After} header, given either in seconds or as an HTTP date.
+     * @param retryAfter the header value, may be {@code null}
+     * @return the delay, or {@code null} if the value is missing or malformed
+     */
+    public static Duration parseRetryAfter(String retryAfter) {
+        if (!StringUtils.hasText(retryAfter)) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+        }
+        catch (NumberFormatException ex) {
+            // Otherwise an HTTP date.
+        }
+        try {
+            Instant until = DateTimeFormatter.RFC_1123_DATE_TIME.parse(retryAfter.trim(), Instant::from);
+            Duration delay = Duration.between(Instant.now(), until);
+            return (delay.isNegative() ? Duration.ZERO : delay);
+        }
+        catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
 }
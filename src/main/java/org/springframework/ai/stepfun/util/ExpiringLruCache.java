@@ -0,0 +1,101 @@
+package org.springframework.ai.stepfun.util;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Small thread-safe map evicting the least recently used entry once {@code maxSize} is reached and dropping entries
+ * older than {@code ttl}. Meant for the bounded lookup tables of the client, not as a general purpose cache.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    /**
+     * @param maxSize the maximum number of entries
+     * @param ttl the time to live of an entry, {@code null} or zero for no expiry
+     */
+    public ExpiringLruCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    ExpiringLruCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        Assert.isTrue(maxSize > 0, "Max size must be greater than 0");
+        this.maxSize = maxSize;
+        this.ttlNanos = (ttl != null && !ttl.isZero() ? ttl.toNanos() : Long.MAX_VALUE);
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringLruCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param key the key
+     * @return the value, or {@code null} if absent or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, this.nanoClock.getAsLong())) {
+            this.entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        this.entries.put(key, new Entry<>(value, this.nanoClock.getAsLong()));
+    }
+
+    public synchronized V remove(K key) {
+        Entry<V> entry = this.entries.remove(key);
+        return (entry != null ? entry.value : null);
+    }
+
+    /**
+     * Drop all expired entries.
+     */
+    public synchronized void purgeExpired() {
+        long now = this.nanoClock.getAsLong();
+        for (Iterator<Entry<V>> iterator = this.entries.values().iterator(); iterator.hasNext(); ) {
+            if (isExpired(iterator.next(), now)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return (now - entry.createdNanos) >= this.ttlNanos;
+    }
+
+    private record Entry<V>(V value, long createdNanos) {
+    }
+
+}